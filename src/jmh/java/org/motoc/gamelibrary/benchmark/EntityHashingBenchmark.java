@@ -0,0 +1,84 @@
+package org.motoc.gamelibrary.benchmark;
+
+import org.motoc.gamelibrary.model.Category;
+import org.motoc.gamelibrary.model.Creator;
+import org.motoc.gamelibrary.model.Theme;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The equals and hashCode of the entities, as called by the HashSet backing the associations of a game
+ *
+ * @author RouzicJ
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityHashingBenchmark {
+
+    /**
+     * Size of the association
+     */
+    @Param({"3", "50"})
+    int size;
+
+    private List<Theme> themes;
+
+    private List<Creator> creators;
+
+    private List<Category> categories;
+
+    private Set<Theme> themeSet;
+
+    private Theme present;
+
+    private Theme absent;
+
+    @Setup
+    public void setUp() {
+        themes = new ArrayList<>(size);
+        creators = new ArrayList<>(size);
+        categories = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            themes.add(Fixtures.theme(i));
+            creators.add(Fixtures.creator(i));
+            categories.add(Fixtures.category(i));
+        }
+        themeSet = new HashSet<>(themes);
+        present = Fixtures.theme(size / 2);
+        absent = Fixtures.theme(size + 1);
+    }
+
+    @Benchmark
+    public Set<Theme> fillThemeSet() {
+        return new HashSet<>(themes);
+    }
+
+    @Benchmark
+    public Set<Creator> fillCreatorSet() {
+        return new HashSet<>(creators);
+    }
+
+    @Benchmark
+    public Set<Category> fillCategorySet() {
+        return new HashSet<>(categories);
+    }
+
+    @Benchmark
+    public boolean containsPresentTheme() {
+        return themeSet.contains(present);
+    }
+
+    @Benchmark
+    public boolean containsAbsentTheme() {
+        return themeSet.contains(absent);
+    }
+}
@@ -0,0 +1,66 @@
+package org.motoc.gamelibrary.benchmark;
+
+import org.motoc.gamelibrary.model.Category;
+import org.motoc.gamelibrary.model.Creator;
+import org.motoc.gamelibrary.model.Game;
+import org.motoc.gamelibrary.model.Loan;
+import org.motoc.gamelibrary.model.Theme;
+import org.motoc.gamelibrary.model.enumeration.CreatorRole;
+import org.motoc.gamelibrary.model.enumeration.GameNatureEnum;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entities of the benchmarks, built the same way for every run
+ *
+ * @author RouzicJ
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static Theme theme(int i) {
+        Theme theme = new Theme();
+        theme.setId(i + 1);
+        theme.setName("Theme " + i);
+        return theme;
+    }
+
+    static Creator creator(int i) {
+        Creator creator = new Creator();
+        creator.setId(i + 1);
+        creator.setFirstName("First " + i);
+        creator.setLastName("Last " + i);
+        creator.setRole(CreatorRole.AUTHOR);
+        return creator;
+    }
+
+    static Category category(int i) {
+        Category category = new Category();
+        category.setId(i + 1);
+        category.setName("Category " + i);
+        return category;
+    }
+
+    static Game game(int i) {
+        Game game = new Game();
+        game.setId(i + 1);
+        game.setName("Game " + i);
+        game.setDescription("A game about territories and trade");
+        game.setPlayTime("90");
+        game.setMinNumberOfPlayer((short) 3);
+        game.setMaxNumberOfPlayer((short) 4);
+        game.setMinAge((short) 10);
+        game.setNature(GameNatureEnum.BOARD_GAME);
+        return game;
+    }
+
+    static Loan loan() {
+        Loan loan = new Loan();
+        loan.setUserUuid("benchmark-member");
+        loan.setLoanStartTime(LocalDateTime.of(2020, 7, 16, 9, 0));
+        loan.setLoanEndTime(LocalDateTime.of(2020, 7, 23, 18, 0));
+        return loan;
+    }
+}
@@ -0,0 +1,105 @@
+package org.motoc.gamelibrary.benchmark;
+
+import org.motoc.gamelibrary.GameLibraryApplication;
+import org.motoc.gamelibrary.business.LoanBookingService;
+import org.motoc.gamelibrary.business.index.LoanStatusCache;
+import org.motoc.gamelibrary.model.GameCopy;
+import org.motoc.gamelibrary.model.Loan;
+import org.motoc.gamelibrary.model.enumeration.GeneralStateEnum;
+import org.motoc.gamelibrary.model.enumeration.LoanStatusEnum;
+import org.motoc.gamelibrary.repository.GameCopyRepository;
+import org.motoc.gamelibrary.repository.GameRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bookings of different copies, one copy per benchmark thread : as the copies do not share a lock stripe, the
+ * throughput of several threads grows with the cores available
+ *
+ * @author RouzicJ
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoanBookingBenchmark {
+
+    private static final LocalDateTime BASE = LocalDate.of(2030, 1, 1).atStartOfDay();
+
+    private static final AtomicInteger OBJECT_CODES = new AtomicInteger(95000);
+
+    private ConfigurableApplicationContext context;
+
+    private LoanBookingService bookingService;
+
+    private long validatedStatusId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(GameLibraryApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("keycloak.enabled=false", "scheduling.enabled=false",
+                        "logging.level.org.motoc.gamelibrary=warn")
+                .run();
+        bookingService = context.getBean(LoanBookingService.class);
+        validatedStatusId = context.getBean(LoanStatusCache.class).idOf(LoanStatusEnum.VALIDATED);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * The copy of a benchmark thread, booked on consecutive days
+     */
+    @State(Scope.Thread)
+    public static class CopyState {
+
+        private long copyId;
+
+        private int day;
+
+        @Setup
+        public void setUp(LoanBookingBenchmark benchmark) {
+            GameCopy copy = new GameCopy();
+            copy.setObjectCode(String.valueOf(OBJECT_CODES.getAndIncrement()));
+            copy.setRegisterDate(LocalDate.now());
+            copy.setWearCondition("Neuf");
+            copy.setGeneralState(GeneralStateEnum.IN_ACTIVITY);
+            copy.setLoanable(true);
+            copy.setGame(benchmark.context.getBean(GameRepository.class).findAll().get(0));
+            copyId = benchmark.context.getBean(GameCopyRepository.class).save(copy).getId();
+        }
+    }
+
+    private Loan book(CopyState copy) {
+        Loan loan = new Loan();
+        loan.setUserUuid("benchmark-member");
+        LocalDateTime start = BASE.plusDays(copy.day++);
+        loan.setLoanStartTime(start);
+        loan.setLoanEndTime(start.plusDays(1));
+        return bookingService.book(loan, copy.copyId, validatedStatusId);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Loan bookOneThread(CopyState copy) {
+        return book(copy);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Loan bookEightThreads(CopyState copy) {
+        return book(copy);
+    }
+}
@@ -0,0 +1,85 @@
+package org.motoc.gamelibrary.benchmark;
+
+import org.motoc.gamelibrary.GameLibraryApplication;
+import org.motoc.gamelibrary.business.ThemeService;
+import org.motoc.gamelibrary.model.Theme;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Theme service calls against the embedded H2 database, the whole application being started once per fork
+ *
+ * @author RouzicJ
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThemeCrudBenchmark {
+
+    private static final int THEMES = 500;
+
+    private ConfigurableApplicationContext context;
+
+    private ThemeService themeService;
+
+    private long themeId;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(GameLibraryApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("keycloak.enabled=false", "scheduling.enabled=false",
+                        "logging.level.org.motoc.gamelibrary=warn")
+                .run();
+        themeService = context.getBean(ThemeService.class);
+        List<Theme> themes = new ArrayList<>(THEMES);
+        for (int i = 0; i < THEMES; i++) {
+            Theme theme = new Theme();
+            theme.setName("Benchmark theme " + i);
+            themes.add(theme);
+        }
+        themeId = themeService.saveAll(themes).get(THEMES / 2).getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Theme findById() {
+        return themeService.findById(themeId);
+    }
+
+    @Benchmark
+    public Page<Theme> findPage() {
+        return themeService.findPage(PageRequest.of(3, 20));
+    }
+
+    @Benchmark
+    public long count() {
+        return themeService.count();
+    }
+
+    @Benchmark
+    public Theme saveThenDelete() {
+        Theme theme = new Theme();
+        theme.setName("Written theme " + next++);
+        Theme saved = themeService.save(theme);
+        themeService.deleteById(saved.getId());
+        return saved;
+    }
+}
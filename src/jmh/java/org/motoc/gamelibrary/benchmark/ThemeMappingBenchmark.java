@@ -0,0 +1,55 @@
+package org.motoc.gamelibrary.benchmark;
+
+import org.motoc.gamelibrary.dto.ThemeDto;
+import org.motoc.gamelibrary.mapper.ThemeMapper;
+import org.motoc.gamelibrary.model.Theme;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Theme to DTO mapping, one by one and by page
+ *
+ * @author RouzicJ
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThemeMappingBenchmark {
+
+    @Param({"20", "100"})
+    int pageSize;
+
+    private final ThemeMapper mapper = ThemeMapper.INSTANCE;
+
+    private Theme theme;
+
+    private Page<Theme> page;
+
+    @Setup
+    public void setUp() {
+        theme = Fixtures.theme(1);
+        List<Theme> themes = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++)
+            themes.add(Fixtures.theme(i));
+        page = new PageImpl<>(themes, PageRequest.of(0, pageSize), 10_000);
+    }
+
+    @Benchmark
+    public ThemeDto themeToThemeDto() {
+        return mapper.themeToThemeDto(theme);
+    }
+
+    @Benchmark
+    public Page<ThemeDto> themePageToThemePageDto() {
+        return mapper.themePageToThemePageDto(page);
+    }
+}
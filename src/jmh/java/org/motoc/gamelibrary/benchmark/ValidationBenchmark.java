@@ -0,0 +1,68 @@
+package org.motoc.gamelibrary.benchmark;
+
+import org.motoc.gamelibrary.model.Game;
+import org.motoc.gamelibrary.model.Loan;
+import org.openjdk.jmh.annotations.*;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean validation of games and loans, as run by hibernate before each insert and update
+ *
+ * @author RouzicJ
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+
+    private Validator validator;
+
+    private Game validGame;
+
+    private Game invalidGame;
+
+    private Loan loan;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        validGame = Fixtures.game(1);
+        invalidGame = Fixtures.game(2);
+        // breaks the number of player and the age constraints
+        invalidGame.setMaxNumberOfPlayer((short) 1);
+        invalidGame.setMinMonth((short) 12);
+        loan = Fixtures.loan();
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Game>> validateValidGame() {
+        return validator.validate(validGame);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Game>> validateInvalidGame() {
+        return validator.validate(invalidGame);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Loan>> validateLoan() {
+        return validator.validate(loan);
+    }
+}
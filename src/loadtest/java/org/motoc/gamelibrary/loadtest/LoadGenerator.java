@@ -0,0 +1,159 @@
+package org.motoc.gamelibrary.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Sends a weighted mix of GET requests from concurrent clients, and records the latency of each request.
+ * <p>Each client has its own connection and session, and sends its next request as soon as it has the previous response
+ * (closed loop) : the latencies are the ones seen by these clients, the throughput is the one the service sustains.
+ * Nothing is recorded during the warmup.</p>
+ *
+ * @author RouzicJ
+ */
+public class LoadGenerator {
+
+    /**
+     * Latencies are recorded in microseconds, up to a minute
+     */
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI baseUri;
+
+    private final String authorization;
+
+    private final int clients;
+
+    private final List<String> names = new ArrayList<>();
+
+    private final List<Function<Random, String>> paths = new ArrayList<>();
+
+    private final int[] cumulativeWeights;
+
+    /**
+     * @param mix      weight of each request, by name
+     * @param requests path and query of each request, by name, drawn with the random of the client
+     */
+    public LoadGenerator(URI baseUri, String user, String password, int clients, Map<String, Integer> mix,
+                         Map<String, Function<Random, String>> requests) {
+        this.baseUri = baseUri;
+        this.authorization = "Basic " + Base64.getEncoder().encodeToString(
+                (user + ":" + password).getBytes(StandardCharsets.UTF_8));
+        this.clients = clients;
+        this.cumulativeWeights = new int[mix.size()];
+        int total = 0;
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            Function<Random, String> path = requests.get(entry.getKey());
+            if (path == null)
+                throw new IllegalArgumentException("Unknown request " + entry.getKey() + ", expected one of " +
+                        requests.keySet());
+            total += entry.getValue();
+            cumulativeWeights[names.size()] = total;
+            names.add(entry.getKey());
+            paths.add(path);
+        }
+    }
+
+    /**
+     * Parses a mix such as "theme=4,page=2,count=1"
+     */
+    public static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] nameAndWeight = part.trim().split("=");
+            int weight = nameAndWeight.length == 2 ? Integer.parseInt(nameAndWeight[1].trim()) : 1;
+            if (weight > 0)
+                weights.put(nameAndWeight[0].trim(), weight);
+        }
+        if (weights.isEmpty())
+            throw new IllegalArgumentException("Empty request mix : " + mix);
+        return weights;
+    }
+
+    public LoadReport run(Duration warmup, Duration duration) throws InterruptedException {
+        List<ConcurrentHistogram> histograms = new ArrayList<>();
+        List<LongAdder> errors = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            histograms.add(new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3));
+            errors.add(new LongAdder());
+        }
+        long measureStart = System.nanoTime() + warmup.toNanos();
+        long end = measureStart + duration.toNanos();
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        for (int client = 0; client < clients; client++)
+            executor.execute(() -> {
+                HttpClient httpClient = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .cookieHandler(new CookieManager())
+                        .connectTimeout(REQUEST_TIMEOUT)
+                        .build();
+                Random random = ThreadLocalRandom.current();
+                long now;
+                while ((now = System.nanoTime()) < end) {
+                    int request = draw(random);
+                    HttpRequest httpRequest = HttpRequest.newBuilder(baseUri.resolve(paths.get(request).apply(random)))
+                            .header("Authorization", authorization)
+                            .timeout(REQUEST_TIMEOUT)
+                            .GET()
+                            .build();
+                    boolean failed;
+                    try {
+                        HttpResponse<Void> response = httpClient.send(httpRequest,
+                                HttpResponse.BodyHandlers.discarding());
+                        failed = response.statusCode() >= 400;
+                    } catch (IOException e) {
+                        failed = true;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    long latencyNanos = System.nanoTime() - now;
+                    if (now < measureStart)
+                        continue;
+                    histograms.get(request).recordValue(
+                            Math.min(HIGHEST_LATENCY_MICROS, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+                    if (failed)
+                        errors.get(request).increment();
+                }
+            });
+        executor.shutdown();
+        if (!executor.awaitTermination(warmup.plus(duration).plus(REQUEST_TIMEOUT).toMillis(), TimeUnit.MILLISECONDS))
+            executor.shutdownNow();
+
+        Map<String, LoadReport.EndpointStats> stats = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++)
+            stats.put(names.get(i), new LoadReport.EndpointStats(histograms.get(i), errors.get(i).sum()));
+        return new LoadReport(clients, duration, stats);
+    }
+
+    private int draw(Random random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++)
+            if (value < cumulativeWeights[i])
+                return i;
+        return cumulativeWeights.length - 1;
+    }
+
+    static Histogram emptyHistogram() {
+        return new Histogram(HIGHEST_LATENCY_MICROS, 3);
+    }
+}
@@ -0,0 +1,116 @@
+package org.motoc.gamelibrary.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Latency percentiles, throughput and error rate of a load test run, by request and overall
+ *
+ * @author RouzicJ
+ */
+public class LoadReport {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final int clients;
+
+    private final Duration duration;
+
+    private final Map<String, EndpointStats> endpoints;
+
+    private final EndpointStats total;
+
+    LoadReport(int clients, Duration duration, Map<String, EndpointStats> endpoints) {
+        this.clients = clients;
+        this.duration = duration;
+        this.endpoints = endpoints;
+        Histogram all = LoadGenerator.emptyHistogram();
+        long errors = 0;
+        for (EndpointStats stats : endpoints.values()) {
+            all.add(stats.latencies);
+            errors += stats.errors;
+        }
+        this.total = new EndpointStats(all, errors);
+    }
+
+    public EndpointStats total() {
+        return total;
+    }
+
+    public Map<String, EndpointStats> endpoints() {
+        return endpoints;
+    }
+
+    public void print(PrintStream out) {
+        out.printf("Load test : %d clients during %s%n", clients, duration);
+        out.printf("%-10s %10s %10s %8s %9s %9s %9s %9s %9s%n", "request", "count", "req/s", "errors", "p50 ms",
+                "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        endpoints.forEach((name, stats) -> print(out, name, stats));
+        print(out, "total", total);
+    }
+
+    private void print(PrintStream out, String name, EndpointStats stats) {
+        out.printf("%-10s %10d %10.1f %7.2f%% %9.2f %9.2f %9.2f %9.2f %9.2f%n", name, stats.count(),
+                stats.count() / (duration.toMillis() / 1000.0), 100 * stats.errorRate(), stats.percentileMillis(50),
+                stats.percentileMillis(90), stats.percentileMillis(99), stats.percentileMillis(99.9),
+                stats.latencies.getMaxValue() / MICROS_PER_MILLI);
+    }
+
+    /**
+     * Writes the summary, and the full percentile distribution of each request in the HdrHistogram format
+     */
+    public void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        try (PrintStream summary = new PrintStream(Files.newOutputStream(directory.resolve("summary.txt")), true,
+                StandardCharsets.UTF_8)) {
+            print(summary);
+        }
+        for (Map.Entry<String, EndpointStats> entry : endpoints.entrySet())
+            writeDistribution(directory.resolve(entry.getKey() + ".hgrm"), entry.getValue());
+        writeDistribution(directory.resolve("total.hgrm"), total);
+    }
+
+    private static void writeDistribution(Path file, EndpointStats stats) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), true, StandardCharsets.UTF_8)) {
+            stats.latencies.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        }
+    }
+
+    public static final class EndpointStats {
+
+        /**
+         * In microseconds, error responses included
+         */
+        private final Histogram latencies;
+
+        private final long errors;
+
+        EndpointStats(Histogram latencies, long errors) {
+            this.latencies = latencies;
+            this.errors = errors;
+        }
+
+        public long count() {
+            return latencies.getTotalCount();
+        }
+
+        public long errors() {
+            return errors;
+        }
+
+        public double errorRate() {
+            return count() == 0 ? 0 : (double) errors / count();
+        }
+
+        public double percentileMillis(double percentile) {
+            return latencies.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.motoc.gamelibrary.loadtest;
+
+import org.junit.jupiter.api.Test;
+import org.motoc.gamelibrary.business.ThemeService;
+import org.motoc.gamelibrary.model.Theme;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Loads the theme endpoints, the application running on H2 with Keycloak replaced by basic authentication.
+ * Fails if the error rate or the 99th percentile latency is over the gate set by the load-test profile.
+ *
+ * @author RouzicJ
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "keycloak.enabled=false",
+        "scheduling.enabled=false",
+        "spring.security.user.name=" + ThemeEndpointsLoadIT.USER,
+        "spring.security.user.password=" + ThemeEndpointsLoadIT.PASSWORD,
+        "logging.level.org.motoc.gamelibrary=warn"})
+class ThemeEndpointsLoadIT {
+
+    static final String USER = "loadtest";
+
+    static final String PASSWORD = "loadtest";
+
+    private static final int THEMES = 500;
+
+    private static final int PAGE_SIZE = 20;
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    ThemeService themeService;
+
+    @Value("${loadtest.clients:16}")
+    int clients;
+
+    @Value("${loadtest.warmup:PT5S}")
+    Duration warmup;
+
+    @Value("${loadtest.duration:PT30S}")
+    Duration duration;
+
+    @Value("${loadtest.mix:theme=4,page=2,count=1}")
+    String mix;
+
+    @Value("${loadtest.max-error-rate:0.001}")
+    double maxErrorRate;
+
+    @Value("${loadtest.max-p99-millis:1000}")
+    double maxP99Millis;
+
+    @Value("${loadtest.report-directory:target/load-test}")
+    String reportDirectory;
+
+    @Test
+    void themeEndpointsHoldTheLoad() throws Exception {
+        List<Theme> themes = new ArrayList<>(THEMES);
+        for (int i = 0; i < THEMES; i++) {
+            Theme theme = new Theme();
+            theme.setName("Load test theme " + i);
+            themes.add(theme);
+        }
+        List<Long> ids = themeService.saveAll(themes).stream().map(Theme::getId).collect(Collectors.toList());
+
+        Map<String, Function<Random, String>> requests = new HashMap<>();
+        requests.put("theme", random -> "/admin/themes?id=" + ids.get(random.nextInt(ids.size())));
+        requests.put("page", random -> "/admin/themes/page?page=" + random.nextInt(THEMES / PAGE_SIZE) +
+                "&size=" + PAGE_SIZE);
+        requests.put("count", random -> "/admin/themes/count");
+
+        LoadReport report = new LoadGenerator(URI.create("http://localhost:" + port), USER, PASSWORD, clients,
+                LoadGenerator.parseMix(mix), requests).run(warmup, duration);
+        report.print(System.out);
+        report.write(Paths.get(reportDirectory));
+
+        assertThat(report.total().count()).isPositive();
+        assertThat(report.total().errorRate()).isLessThanOrEqualTo(maxErrorRate);
+        assertThat(report.total().percentileMillis(99)).isLessThanOrEqualTo(maxP99Millis);
+    }
+}
@@ -4,9 +4,11 @@ package org.motoc.gamelibrary;
 import org.motoc.gamelibrary.model.*;
 import org.motoc.gamelibrary.model.enumeration.CreatorRole;
 import org.motoc.gamelibrary.model.enumeration.GeneralStateEnum;
+import org.motoc.gamelibrary.model.enumeration.LoanStatusEnum;
 import org.motoc.gamelibrary.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
@@ -21,6 +23,7 @@ import java.util.Set;
  * @author RouzicJ
  */
 @Component
+@Order(1)
 public class CommandLineStartupRunner implements CommandLineRunner {
 
 
@@ -69,6 +72,9 @@ public class CommandLineStartupRunner implements CommandLineRunner {
     private final LoanStatus demoLoanStatusA;
     private final LoanStatus demoLoanStatusB;
     private final LoanStatus demoLoanStatusC;
+    private final LoanStatus demoLoanStatusD;
+    private final LoanStatus demoLoanStatusE;
+    private final LoanStatus demoLoanStatusF;
 
     @Autowired
     public CommandLineStartupRunner(AccountRepository accountRepository, ArticleRepository articleRepository,
@@ -128,6 +134,9 @@ public class CommandLineStartupRunner implements CommandLineRunner {
         this.demoLoanStatusA = new LoanStatus();
         this.demoLoanStatusB = new LoanStatus();
         this.demoLoanStatusC = new LoanStatus();
+        this.demoLoanStatusD = new LoanStatus();
+        this.demoLoanStatusE = new LoanStatus();
+        this.demoLoanStatusF = new LoanStatus();
     }
 
     @Override
@@ -355,16 +364,25 @@ public class CommandLineStartupRunner implements CommandLineRunner {
     }
 
     private void fillLoanStatus() {
-        demoLoanStatusA.setTag("Proposé");
+        demoLoanStatusA.setTag(LoanStatusEnum.PROPOSED.getTag());
         demoLoanStatusA.setDescription("L'adhérent a emis une proposition d'emprunt pour le jeu");
-        demoLoanStatusB.setTag("Validé");
+        demoLoanStatusB.setTag(LoanStatusEnum.VALIDATED.getTag());
         demoLoanStatusB.setDescription("L'équipe a validé l'emprunt");
-        demoLoanStatusC.setTag("En cours");
+        demoLoanStatusC.setTag(LoanStatusEnum.RUNNING.getTag());
         demoLoanStatusC.setDescription("L'objet a été emprunté par l'adhérent");
+        demoLoanStatusD.setTag(LoanStatusEnum.OVERDUE.getTag());
+        demoLoanStatusD.setDescription("L'objet n'a pas été rendu à la fin de l'emprunt");
+        demoLoanStatusE.setTag(LoanStatusEnum.RETURNED.getTag());
+        demoLoanStatusE.setDescription("L'objet a été rendu par l'adhérent");
+        demoLoanStatusF.setTag(LoanStatusEnum.CANCELLED.getTag());
+        demoLoanStatusF.setDescription("L'emprunt a été annulé");
 
         loanStatusRepository.save(demoLoanStatusA);
         loanStatusRepository.save(demoLoanStatusB);
         loanStatusRepository.save(demoLoanStatusC);
+        loanStatusRepository.save(demoLoanStatusD);
+        loanStatusRepository.save(demoLoanStatusE);
+        loanStatusRepository.save(demoLoanStatusF);
         loanStatusRepository.flush();
     }
 
@@ -0,0 +1,420 @@
+package org.motoc.gamelibrary;
+
+import org.motoc.gamelibrary.business.index.LoanStatusCache;
+import org.motoc.gamelibrary.model.*;
+import org.motoc.gamelibrary.model.enumeration.CreatorRole;
+import org.motoc.gamelibrary.model.enumeration.GameNatureEnum;
+import org.motoc.gamelibrary.model.enumeration.GeneralStateEnum;
+import org.motoc.gamelibrary.model.enumeration.LoanStatusEnum;
+import org.motoc.gamelibrary.repository.GameCopyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Fills the database with a large synthetic dataset, to measure the application at production scale. It only runs
+ * with the "datagen" profile, after the demo data, and the volumes are set by the datagen.* properties.
+ * <p>Popularity is skewed along a Zipf law : a few games get most of the copies and loans, a few publishers, creators
+ * and themes most of the games, a few members most of the loans. Every random choice comes from one seeded generator,
+ * so that a same configuration always gives the same dataset, the dates being relative to the day of the run.</p>
+ * <p>Entities are persisted by batches, each one in its own transaction then cleared from the persistence context,
+ * and inserted through the hibernate JDBC batching.</p>
+ *
+ * @author RouzicJ
+ */
+@Component
+@Profile("datagen")
+@Order(2)
+public class DatasetGenerator implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    private static final String[] SYLLABLES = {"ka", "to", "ri", "mo", "lu", "sa", "ne", "vi", "do", "ra", "ze", "pa",
+            "li", "go", "be", "chi", "mar", "tan", "vel", "zor", "quin", "dra", "ber", "sol"};
+
+    private static final String[] WORDS = {"aventure", "château", "dragon", "forêt", "trésor", "royaume", "pirate",
+            "marché", "cité", "île", "bataille", "course", "enquête", "potion", "jardin", "désert", "étoile", "train",
+            "ferme", "donjon", "coopération", "bluff", "enchères", "placement", "dés", "cartes", "tuiles", "stratégie"};
+
+    private static final String[] WEAR_CONDITIONS = {"Neuf", "Très bon état", "Bon état", "Usé", "Abîmé"};
+
+    private static final String[] LOCATIONS = {"Etagère jeu famille", "Etagère jeu expert", "Réserve", "Vitrine",
+            "Bac enfants"};
+
+    /**
+     * The object codes are at most 5 digits, the generated ones start after the demo ones
+     */
+    private static final int FIRST_OBJECT_CODE = 100;
+
+    private static final int MAX_OBJECT_CODE = 99_999;
+
+    /**
+     * Tries of a copy before giving up on placing a loan, when the loan timelines are full
+     */
+    private static final int MAX_PLACEMENT_TRIES = 1000;
+
+    private final GameCopyRepository gameCopyRepository;
+
+    private final LoanStatusCache loanStatusCache;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Random random;
+
+    private final double exponent;
+
+    private final int batchSize;
+
+    private final int publishers;
+
+    private final int creators;
+
+    private final int themes;
+
+    private final int categories;
+
+    private final int members;
+
+    private final int games;
+
+    private final int copies;
+
+    private final int loans;
+
+    private final Duration history;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public DatasetGenerator(GameCopyRepository gameCopyRepository, LoanStatusCache loanStatusCache,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${datagen.seed:42}") long seed,
+                            @Value("${datagen.zipf-exponent:1.1}") double exponent,
+                            @Value("${datagen.batch-size:1000}") int batchSize,
+                            @Value("${datagen.publishers:1000}") int publishers,
+                            @Value("${datagen.creators:5000}") int creators,
+                            @Value("${datagen.themes:2000}") int themes,
+                            @Value("${datagen.categories:300}") int categories,
+                            @Value("${datagen.members:20000}") int members,
+                            @Value("${datagen.games:30000}") int games,
+                            @Value("${datagen.copies:90000}") int copies,
+                            @Value("${datagen.loans:2000000}") int loans,
+                            @Value("${datagen.history:P1095D}") Duration history) {
+        this.gameCopyRepository = gameCopyRepository;
+        this.loanStatusCache = loanStatusCache;
+        this.transactionTemplate = transactionTemplate;
+        this.random = new Random(seed);
+        this.exponent = exponent;
+        this.batchSize = batchSize;
+        this.publishers = publishers;
+        this.creators = creators;
+        this.themes = themes;
+        this.categories = categories;
+        this.members = members;
+        this.games = games;
+        this.copies = copies;
+        this.loans = loans;
+        this.history = history;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (copies < games)
+            throw new IllegalStateException("Every generated game needs a copy : datagen.copies < datagen.games");
+        if (copies > MAX_OBJECT_CODE - FIRST_OBJECT_CODE + 1)
+            throw new IllegalStateException("Object codes are 5 digits at most : datagen.copies cannot exceed " +
+                    (MAX_OBJECT_CODE - FIRST_OBJECT_CODE + 1));
+        long begin = System.nanoTime();
+        logger.info("Generating {} games, {} copies and {} loans", games, copies, loans);
+
+        List<Publisher> publisherList = new ArrayList<>(publishers);
+        persist("publisher", publishers, i -> {
+            Publisher publisher = new Publisher();
+            publisher.setName("Editions " + word(i));
+            return publisher;
+        }, (publisher, i) -> publisherList.add(publisher));
+        CreatorRole[] roles = CreatorRole.values();
+        List<Creator> creatorList = new ArrayList<>(creators);
+        persist("creator", creators, i -> {
+            Creator creator = new Creator();
+            creator.setFirstName(capitalize(pseudoWord(2)));
+            creator.setLastName(capitalize(pseudoWord(3)) + "-" + i);
+            creator.setRole(roles[random.nextInt(roles.length)]);
+            return creator;
+        }, (creator, i) -> creatorList.add(creator));
+        List<Theme> themeList = new ArrayList<>(themes);
+        persist("theme", themes, i -> {
+            Theme theme = new Theme();
+            theme.setName(capitalize(WORDS[i % WORDS.length]) + " " + i);
+            return theme;
+        }, (theme, i) -> themeList.add(theme));
+        List<Category> categoryList = new ArrayList<>(categories);
+        persist("category", categories, i -> {
+            Category category = new Category();
+            category.setName("Catégorie " + word(i));
+            return category;
+        }, (category, i) -> categoryList.add(category));
+
+        Zipf publisherPopularity = new Zipf(publishers, exponent, random);
+        Zipf creatorPopularity = new Zipf(creators, exponent, random);
+        Zipf themePopularity = new Zipf(themes, exponent, random);
+        Zipf categoryPopularity = new Zipf(categories, exponent, random);
+        GameNatureEnum[] natures = GameNatureEnum.values();
+        long[] gameIds = new long[games];
+        persist("game", games, i -> {
+            Game game = new Game();
+            game.setName(capitalize(WORDS[random.nextInt(WORDS.length)]) + " " + word(i));
+            game.setDescription("Un jeu de " + WORDS[random.nextInt(WORDS.length)] + " et de " +
+                    WORDS[random.nextInt(WORDS.length)] + ", " + pseudoWord(3) + " " + pseudoWord(2));
+            game.setPlayTime(String.valueOf(15 * (1 + random.nextInt(12))));
+            short minPlayers = (short) (1 + random.nextInt(4));
+            game.setMinNumberOfPlayer(minPlayers);
+            game.setMaxNumberOfPlayer((short) (minPlayers + 1 + random.nextInt(6)));
+            game.setNature(natures[random.nextInt(natures.length)]);
+            if (game.getNature() == GameNatureEnum.TOY) {
+                game.setMinMonth((short) (6 + random.nextInt(30)));
+                game.setMaxAge((short) (3 + random.nextInt(4)));
+            } else
+                game.setMinAge((short) (3 + random.nextInt(12)));
+            // detached references : unlike proxies, they are hashed by the sets without being loaded
+            game.setPublisher(publisherList.get(publisherPopularity.sample()));
+            for (int k = 1 + random.nextInt(2); k > 0; k--)
+                game.getCreators().add(creatorList.get(creatorPopularity.sample()));
+            for (int k = 1 + random.nextInt(3); k > 0; k--)
+                game.getThemes().add(themeList.get(themePopularity.sample()));
+            for (int k = 1 + random.nextInt(2); k > 0; k--)
+                game.getCategories().add(categoryList.get(categoryPopularity.sample()));
+            return game;
+        }, (game, i) -> gameIds[i] = game.getId());
+
+        // one copy per game, the others going to the popular games
+        Zipf gamePopularity = new Zipf(games, exponent, random);
+        int[] copyGames = new int[copies];
+        int[] copiesPerGame = new int[games];
+        for (int i = 0; i < copies; i++) {
+            copyGames[i] = i < games ? i : gamePopularity.sample();
+            copiesPerGame[copyGames[i]]++;
+        }
+        Arrays.sort(copyGames);
+        int[] firstCopyOfGame = new int[games];
+        for (int game = 1; game < games; game++)
+            firstCopyOfGame[game] = firstCopyOfGame[game - 1] + copiesPerGame[game - 1];
+        Iterator<String> objectCodes = freeObjectCodes();
+        GeneralStateEnum[] states = GeneralStateEnum.values();
+        long[] copyIds = new long[copies];
+        persist("copy", copies, i -> {
+            GameCopy copy = new GameCopy();
+            copy.setObjectCode(objectCodes.next());
+            copy.setPrice(BigDecimal.valueOf(500 + random.nextInt(9500), 2));
+            copy.setLocation(LOCATIONS[random.nextInt(LOCATIONS.length)]);
+            copy.setDateOfPurchase(LocalDate.now().minusDays(random.nextInt(3650)));
+            copy.setRegisterDate(copy.getDateOfPurchase());
+            copy.setWearCondition(WEAR_CONDITIONS[random.nextInt(WEAR_CONDITIONS.length)]);
+            // most copies can be lent
+            copy.setGeneralState(random.nextInt(10) < 8 ? GeneralStateEnum.IN_ACTIVITY :
+                    states[random.nextInt(states.length)]);
+            copy.setLoanable(random.nextInt(20) > 0);
+            copy.setGame(entityManager.getReference(Game.class, gameIds[copyGames[i]]));
+            return copy;
+        }, (copy, i) -> copyIds[i] = copy.getId());
+
+        generateLoans(gamePopularity, copyIds, firstCopyOfGame, copiesPerGame);
+        logger.info("Dataset generated in {} s", Duration.ofNanos(System.nanoTime() - begin).toSeconds());
+    }
+
+    /**
+     * Places the loans one after the other on the timeline of each copy, so that the loans of a copy never overlap.
+     * The timelines start at the beginning of the history and stop a few weeks ahead of today.
+     */
+    private void generateLoans(Zipf gamePopularity, long[] copyIds, int[] firstCopyOfGame, int[] copiesPerGame) {
+        LocalDateTime now = LocalDateTime.now();
+        long horizon = hours(now.plusWeeks(8));
+        long historyStart = hours(now.minus(history));
+        long[] nextFree = new long[copyIds.length];
+        for (int i = 0; i < nextFree.length; i++)
+            nextFree[i] = historyStart + random.nextInt(24 * 30);
+        Zipf memberPopularity = new Zipf(members, exponent, random);
+        long proposed = loanStatusCache.idOf(LoanStatusEnum.PROPOSED);
+        long validated = loanStatusCache.idOf(LoanStatusEnum.VALIDATED);
+        long running = loanStatusCache.idOf(LoanStatusEnum.RUNNING);
+        long overdue = loanStatusCache.idOf(LoanStatusEnum.OVERDUE);
+        long returned = loanStatusCache.idOf(LoanStatusEnum.RETURNED);
+        long cancelled = loanStatusCache.idOf(LoanStatusEnum.CANCELLED);
+
+        persist("loan", loans, i -> {
+            int game = gamePopularity.sample();
+            int copy = -1;
+            long start = 0;
+            for (int tries = 0; copy < 0; tries++) {
+                if (tries == MAX_PLACEMENT_TRIES)
+                    throw new IllegalStateException("No room left for loan " + i + ", lower datagen.loans or raise " +
+                            "datagen.history");
+                // a copy of the game first, then any copy
+                int candidate = tries < copiesPerGame[game] ?
+                        firstCopyOfGame[game] + random.nextInt(copiesPerGame[game]) : random.nextInt(copyIds.length);
+                long candidateStart = nextFree[candidate] + 24 * random.nextInt(15);
+                if (candidateStart < horizon) {
+                    copy = candidate;
+                    start = candidateStart;
+                }
+            }
+            long end = start + 24 * (1 + random.nextInt(21));
+            nextFree[copy] = end + 1;
+
+            Loan loan = new Loan();
+            loan.setUserUuid(String.format("datagen-member-%06d", memberPopularity.sample()));
+            loan.setLoanStartTime(dateTime(start));
+            loan.setLoanEndTime(dateTime(end));
+            long status;
+            if (loan.getLoanStartTime().isAfter(now))
+                status = random.nextInt(10) < 7 ? validated : proposed;
+            else if (loan.getLoanEndTime().isAfter(now))
+                status = running;
+            else if (random.nextInt(20) == 0)
+                status = cancelled;
+            else
+                status = loan.getLoanEndTime().isAfter(now.minusWeeks(2)) && random.nextInt(5) == 0 ? overdue :
+                        returned;
+            loan.setLoanStatus(entityManager.getReference(LoanStatus.class, status));
+            loan.setGameCopy(entityManager.getReference(GameCopy.class, copyIds[copy]));
+            return loan;
+        }, (loan, i) -> {
+        });
+    }
+
+    /**
+     * Persists the entities by batches
+     *
+     * @param created called with each entity and its index once persisted
+     */
+    private <T> void persist(String name, int count, IntFunction<T> factory, ObjIntConsumer<T> created) {
+        long begin = System.nanoTime();
+        for (int from = 0; from < count; from += batchSize) {
+            int first = from;
+            int last = Math.min(count, from + batchSize);
+            transactionTemplate.execute(status -> {
+                for (int i = first; i < last; i++) {
+                    T entity = factory.apply(i);
+                    entityManager.persist(entity);
+                    created.accept(entity, i);
+                }
+                entityManager.flush();
+                entityManager.clear();
+                return null;
+            });
+            logger.debug("Generated {}/{} {}(s)", last, count, name);
+        }
+        logger.info("Generated {} {}(s) in {} ms", count, name, Duration.ofNanos(System.nanoTime() - begin).toMillis());
+    }
+
+    /**
+     * The 5 digits object codes not used yet
+     */
+    private Iterator<String> freeObjectCodes() {
+        Set<String> used = new HashSet<>(gameCopyRepository.findAllObjectCodes());
+        return new Iterator<>() {
+
+            private int next = FIRST_OBJECT_CODE;
+
+            @Override
+            public boolean hasNext() {
+                return next <= MAX_OBJECT_CODE;
+            }
+
+            @Override
+            public String next() {
+                String code;
+                do {
+                    if (!hasNext())
+                        throw new IllegalStateException("No object code left");
+                    code = String.format("%05d", next++);
+                } while (used.contains(code));
+                return code;
+            }
+        };
+    }
+
+    /**
+     * A readable name, unique thanks to the index
+     */
+    private String word(int index) {
+        return capitalize(pseudoWord(2 + random.nextInt(2))) + " " + index;
+    }
+
+    private String pseudoWord(int syllables) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < syllables; i++)
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        return word.toString();
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    private static long hours(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) / 3600;
+    }
+
+    private static LocalDateTime dateTime(long hours) {
+        return LocalDateTime.ofEpochSecond(hours * 3600, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Draws indexes in [0, size[ along a Zipf law, the most popular ones being spread over the range
+     */
+    private static final class Zipf {
+
+        private final double[] cumulative;
+
+        private final int[] indexOfRank;
+
+        private final Random random;
+
+        private Zipf(int size, double exponent, Random random) {
+            this.random = random;
+            this.cumulative = new double[size];
+            double sum = 0;
+            for (int rank = 0; rank < size; rank++) {
+                sum += 1 / Math.pow(rank + 1, exponent);
+                cumulative[rank] = sum;
+            }
+            for (int rank = 0; rank < size; rank++)
+                cumulative[rank] /= sum;
+            this.indexOfRank = new int[size];
+            for (int i = 0; i < size; i++)
+                indexOfRank[i] = i;
+            for (int i = size - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swapped = indexOfRank[i];
+                indexOfRank[i] = indexOfRank[j];
+                indexOfRank[j] = swapped;
+            }
+        }
+
+        private int sample() {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+            if (rank < 0)
+                rank = Math.min(-rank - 1, cumulative.length - 1);
+            return indexOfRank[rank];
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package org.motoc.gamelibrary.business;
+
+import io.micrometer.core.annotation.Timed;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import org.motoc.gamelibrary.dto.CopyExportRowDto;
+import org.motoc.gamelibrary.dto.GameExportRowDto;
+import org.motoc.gamelibrary.model.enumeration.GameNatureEnum;
+import org.motoc.gamelibrary.model.enumeration.GeneralStateEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exports the whole catalog, or the whole inventory of copies, as NDJSON or CSV.
+ * <p>Rows are read with plain JDBC from forward-only cursors, in a read only transaction so that the driver fetches
+ * them by batches of the fetch size, and written to the output as they come : neither the persistence context nor the
+ * memory grow with the size of the catalog. The associations of the games are read by one cursor each, sorted by
+ * game, and merged with the game cursor.</p>
+ *
+ * @author RouzicJ
+ */
+@Service
+public class CatalogExportService {
+
+    public enum Format {NDJSON, CSV}
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogExportService.class);
+
+    private static final String GAMES = "select g.id, g.name, g.description, g.play_time, g.min_number_of_player, " +
+            "g.max_number_of_player, g.min_age, g.max_age, g.min_month, g.stuff, g.goal, g.nature, p.name " +
+            "from game g left join publisher p on p.id = g.fk_publisher order by g.id";
+
+    private static final String CREATORS = "select gc.fk_game, c.first_name, c.last_name from game_creator gc " +
+            "join creator c on c.id = gc.fk_creator order by gc.fk_game, c.last_name, c.first_name";
+
+    private static final String THEMES = "select gt.fk_game, t.name from game_theme gt " +
+            "join theme t on t.id = gt.fk_theme order by gt.fk_game, t.name";
+
+    private static final String CATEGORIES = "select gc.fk_game, c.name from game_category gc " +
+            "join category c on c.id = gc.fk_category order by gc.fk_game, c.name";
+
+    private static final String COPIES = "select fk_game, object_code from game_copy order by fk_game, object_code";
+
+    private static final String INVENTORY = "select c.id, c.object_code, g.id, g.name, c.general_state, " +
+            "c.wear_condition, c.is_loanable, c.location, c.price, c.date_of_purchase, c.register_date, s.name " +
+            "from game_copy c join game g on g.id = c.fk_game left join seller s on s.id = c.fk_seller order by c.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ObjectWriter gameJsonWriter;
+
+    private final ObjectWriter gameCsvWriter;
+
+    private final ObjectWriter copyJsonWriter;
+
+    private final ObjectWriter copyCsvWriter;
+
+    private final int fetchSize;
+
+    @Autowired
+    public CatalogExportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper, @Value("${export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fetchSize = fetchSize;
+        // the response stream is closed by the caller
+        this.gameJsonWriter = objectMapper.writerFor(GameExportRowDto.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).withRootValueSeparator("\n");
+        this.copyJsonWriter = objectMapper.writerFor(CopyExportRowDto.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).withRootValueSeparator("\n");
+        CsvMapper csvMapper = new CsvMapper();
+        csvMapper.registerModule(new JavaTimeModule());
+        csvMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        csvMapper.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.gameCsvWriter = csvMapper.writerFor(GameExportRowDto.class)
+                .with(csvMapper.schemaFor(GameExportRowDto.class).withHeader().withArrayElementSeparator("|"));
+        this.copyCsvWriter = csvMapper.writerFor(CopyExportRowDto.class)
+                .with(csvMapper.schemaFor(CopyExportRowDto.class).withHeader());
+    }
+
+    /**
+     * Writes every game with its creators, themes, categories and copies, ordered by id
+     *
+     * @return the number of games written
+     */
+    @Timed(value = "gamelibrary.service", histogram = true,
+            extraTags = {"entity", "game", "operation", "exportCatalog"})
+    public long exportCatalog(OutputStream output, Format format) {
+        return export(format == Format.CSV ? gameCsvWriter : gameJsonWriter, output, format, "game",
+                (connection, writer) -> {
+                    long count = 0;
+                    try (PreparedStatement gameStatement = cursor(connection, GAMES);
+                         PreparedStatement creatorStatement = cursor(connection, CREATORS);
+                         PreparedStatement themeStatement = cursor(connection, THEMES);
+                         PreparedStatement categoryStatement = cursor(connection, CATEGORIES);
+                         PreparedStatement copyStatement = cursor(connection, COPIES);
+                         ResultSet games = gameStatement.executeQuery()) {
+                        ChildCursor creators = new ChildCursor(creatorStatement.executeQuery());
+                        ChildCursor themes = new ChildCursor(themeStatement.executeQuery());
+                        ChildCursor categories = new ChildCursor(categoryStatement.executeQuery());
+                        ChildCursor copies = new ChildCursor(copyStatement.executeQuery());
+                        while (games.next()) {
+                            long id = games.getLong(1);
+                            int ordinal = games.getInt(12);
+                            String nature = games.wasNull() ? null : GameNatureEnum.values()[ordinal].name();
+                            writer.write(new GameExportRowDto(id, games.getString(2), games.getString(3),
+                                    games.getString(4), games.getShort(5), games.getShort(6), games.getShort(7),
+                                    games.getShort(8), games.getShort(9), games.getString(10), games.getString(11),
+                                    nature, games.getString(13), creators.valuesOf(id), themes.valuesOf(id),
+                                    categories.valuesOf(id), copies.valuesOf(id)));
+                            count++;
+                        }
+                    }
+                    return count;
+                });
+    }
+
+    /**
+     * Writes every copy with the name of its game, ordered by id
+     *
+     * @return the number of copies written
+     */
+    @Timed(value = "gamelibrary.service", histogram = true,
+            extraTags = {"entity", "gamecopy", "operation", "exportInventory"})
+    public long exportInventory(OutputStream output, Format format) {
+        return export(format == Format.CSV ? copyCsvWriter : copyJsonWriter, output, format, "copy",
+                (connection, writer) -> {
+                    long count = 0;
+                    try (PreparedStatement statement = cursor(connection, INVENTORY);
+                         ResultSet copies = statement.executeQuery()) {
+                        while (copies.next()) {
+                            int ordinal = copies.getInt(5);
+                            String state = copies.wasNull() ? null : GeneralStateEnum.values()[ordinal].name();
+                            writer.write(new CopyExportRowDto(copies.getLong(1), copies.getString(2),
+                                    copies.getLong(3), copies.getString(4),
+                                    state, copies.getString(6), copies.getBoolean(7), copies.getString(8),
+                                    copies.getBigDecimal(9), copies.getObject(10, LocalDate.class),
+                                    copies.getObject(11, LocalDate.class), copies.getString(12)));
+                            count++;
+                        }
+                    }
+                    return count;
+                });
+    }
+
+    private long export(ObjectWriter objectWriter, OutputStream output, Format format, String rowName,
+                        RowsWriter rowsWriter) {
+        long begin = System.nanoTime();
+        ConnectionCallback<Long> callback = connection -> {
+            try (SequenceWriter writer = objectWriter.writeValues(output)) {
+                long written = rowsWriter.write(connection, writer);
+                writer.flush();
+                if (format == Format.NDJSON && written > 0)
+                    output.write('\n');
+                return written;
+            } catch (IOException e) {
+                // most likely the client went away
+                throw new UncheckedIOException(e);
+            }
+        };
+        Long count = readOnlyTransaction.execute(status -> jdbcTemplate.execute(callback));
+        logger.info("Exported {} {} row(s) as {} in {} ms", count, rowName, format,
+                (System.nanoTime() - begin) / 1_000_000);
+        return count == null ? 0 : count;
+    }
+
+    private PreparedStatement cursor(Connection connection, String sql) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(fetchSize);
+        return statement;
+    }
+
+    @FunctionalInterface
+    private interface RowsWriter {
+
+        long write(Connection connection, SequenceWriter writer) throws SQLException, IOException;
+    }
+
+    /**
+     * The rows of an association sorted by game id, the game id coming first then the name parts
+     */
+    private static final class ChildCursor {
+
+        private final ResultSet rows;
+
+        private final int columns;
+
+        private boolean hasRow;
+
+        private ChildCursor(ResultSet rows) throws SQLException {
+            this.rows = rows;
+            this.columns = rows.getMetaData().getColumnCount();
+            this.hasRow = rows.next();
+        }
+
+        /**
+         * The values of the game, the games being asked in increasing id order
+         */
+        private List<String> valuesOf(long gameId) throws SQLException {
+            List<String> values = new ArrayList<>();
+            while (hasRow && rows.getLong(1) < gameId)
+                hasRow = rows.next();
+            while (hasRow && rows.getLong(1) == gameId) {
+                StringBuilder value = new StringBuilder();
+                for (int column = 2; column <= columns; column++) {
+                    String part = rows.getString(column);
+                    if (part != null)
+                        value.append(value.length() == 0 ? "" : " ").append(part);
+                }
+                values.add(value.toString());
+                hasRow = rows.next();
+            }
+            return values;
+        }
+    }
+}
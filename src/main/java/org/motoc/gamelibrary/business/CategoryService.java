@@ -0,0 +1,66 @@
+package org.motoc.gamelibrary.business;
+
+import org.motoc.gamelibrary.business.index.GameFacetIndex;
+import org.motoc.gamelibrary.business.refactor.SimpleCrudMethodsImpl;
+import org.motoc.gamelibrary.model.Category;
+import org.motoc.gamelibrary.repository.CategoryRepositoryCustom;
+import org.motoc.gamelibrary.technical.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+
+import javax.transaction.Transactional;
+
+/**
+ * Perform business logic on the web entity Category
+ *
+ * @author RouzicJ
+ */
+@Service
+@Transactional
+public class CategoryService extends SimpleCrudMethodsImpl<Category, JpaRepository<Category, Long>> {
+
+    private final CategoryRepositoryCustom categoryRepositoryCustom;
+
+    private final GameFacetIndex facetIndex;
+
+    @Autowired
+    public CategoryService(CategoryRepositoryCustom categoryRepositoryCustom,
+                           JpaRepository<Category, Long> categoryGenericRepository, GameFacetIndex facetIndex) {
+        super(categoryGenericRepository, Category.class);
+        this.categoryRepositoryCustom = categoryRepositoryCustom;
+        this.facetIndex = facetIndex;
+    }
+
+    // Methods
+
+    /**
+     * The facet index is updated once the transaction is committed
+     */
+    @Override
+    public void deleteOne(Category category) {
+        super.deleteOne(category);
+        unindex(category.getId());
+    }
+
+    @Override
+    public void deleteById(long id) {
+        super.deleteById(id);
+        unindex(id);
+    }
+
+    /**
+     * Calls the DAO to delete a category by id, its sub categories becoming root categories
+     */
+    public void remove(Long id) {
+        timed("remove", () -> {
+            categoryRepositoryCustom.remove(id);
+            unindex(id);
+            return null;
+        });
+    }
+
+    private void unindex(long id) {
+        TransactionCallbacks.afterCommit(() -> facetIndex.removeValue(GameFacetIndex.CATEGORY, id));
+    }
+}
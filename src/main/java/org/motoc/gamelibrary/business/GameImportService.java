@@ -0,0 +1,480 @@
+package org.motoc.gamelibrary.business;
+
+import io.micrometer.core.annotation.Timed;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.motoc.gamelibrary.business.index.GameFacetIndex;
+import org.motoc.gamelibrary.business.index.SuggestIndex;
+import org.motoc.gamelibrary.business.index.TextNormalizer;
+import org.motoc.gamelibrary.dto.GameImportRowDto;
+import org.motoc.gamelibrary.dto.ImportErrorDto;
+import org.motoc.gamelibrary.dto.ImportReportDto;
+import org.motoc.gamelibrary.model.*;
+import org.motoc.gamelibrary.model.enumeration.CreatorRole;
+import org.motoc.gamelibrary.model.enumeration.GameNatureEnum;
+import org.motoc.gamelibrary.model.enumeration.GeneralStateEnum;
+import org.motoc.gamelibrary.repository.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Imports a game catalog, with its publishers, creators, themes, categories and copies, from a CSV or JSON stream.
+ * <p>Rows are read one at a time and written by chunks, each in its own transaction : the file is never loaded as a
+ * whole, and the persistence context only holds one chunk. References are resolved by name through in memory maps
+ * loaded once, missing ones are created. Invalid rows are reported and skipped, the rest of the file goes on.</p>
+ *
+ * @author RouzicJ
+ */
+@Service
+public class GameImportService {
+
+    public enum Format {CSV, JSON}
+
+    private static final Logger logger = LoggerFactory.getLogger(GameImportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final String DEFAULT_WEAR_CONDITION = "Non renseigné";
+
+    private static final int MAX_REFERENCE_NAME_LENGTH = 50;
+
+    private static final Pattern OBJECT_CODE = Pattern.compile("^[0-9]{1,5}$");
+
+    private final PublisherRepository publisherRepository;
+
+    private final CreatorRepository creatorRepository;
+
+    private final ThemeRepository themeRepository;
+
+    private final CategoryRepository categoryRepository;
+
+    private final GameRepository gameRepository;
+
+    private final GameCopyRepository gameCopyRepository;
+
+    private final GameFacetIndex gameFacetIndex;
+
+    private final SuggestIndex suggestIndex;
+
+    private final Validator validator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectReader jsonReader;
+
+    private final ObjectReader csvReader;
+
+    private final int chunkSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public GameImportService(PublisherRepository publisherRepository, CreatorRepository creatorRepository,
+                             ThemeRepository themeRepository, CategoryRepository categoryRepository,
+                             GameRepository gameRepository, GameCopyRepository gameCopyRepository,
+                             GameFacetIndex gameFacetIndex, SuggestIndex suggestIndex, Validator validator,
+                             TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                             @Value("${import.chunk-size:500}") int chunkSize) {
+        this.publisherRepository = publisherRepository;
+        this.creatorRepository = creatorRepository;
+        this.themeRepository = themeRepository;
+        this.categoryRepository = categoryRepository;
+        this.gameRepository = gameRepository;
+        this.gameCopyRepository = gameCopyRepository;
+        this.gameFacetIndex = gameFacetIndex;
+        this.suggestIndex = suggestIndex;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.jsonReader = objectMapper.readerFor(GameImportRowDto.class);
+        CsvMapper csvMapper = new CsvMapper();
+        csvMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        csvMapper.enable(CsvParser.Feature.TRIM_SPACES);
+        this.csvReader = csvMapper.readerFor(GameImportRowDto.class)
+                .with(CsvSchema.emptySchema().withHeader().withArrayElementSeparator("|"));
+    }
+
+    /**
+     * Imports the games of the stream : a CSV file with a header line, or a JSON array or sequence of objects
+     */
+    @Timed(value = "gamelibrary.service", histogram = true,
+            extraTags = {"entity", "game", "operation", "importGames"})
+    public ImportReportDto importGames(InputStream input, Format format) {
+        long begin = System.nanoTime();
+        Catalog catalog = loadCatalog();
+        Report report = new Report();
+        List<NumberedRow> chunk = new ArrayList<>(chunkSize);
+        long rowNumber = 0;
+        try (MappingIterator<GameImportRowDto> rows =
+                     (format == Format.CSV ? csvReader : jsonReader).readValues(input)) {
+            while (rows.hasNextValue()) {
+                rowNumber++;
+                try {
+                    chunk.add(new NumberedRow(rowNumber, rows.nextValue()));
+                } catch (JsonMappingException e) {
+                    // a value of the wrong type, the iterator goes on with the next row
+                    report.reject(rowNumber, List.of(e.getOriginalMessage()));
+                    continue;
+                }
+                if (chunk.size() == chunkSize) {
+                    write(chunk, catalog, report);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            // malformed content, the rows cannot be told apart anymore
+            String message = e instanceof JsonProcessingException ?
+                    ((JsonProcessingException) e).getOriginalMessage() : e.getMessage();
+            logger.warn("Game import aborted at row {} : {}", rowNumber, message);
+            report.reject(rowNumber, List.of("Import aborted : " + message));
+            report.aborted = true;
+        }
+        write(chunk, catalog, report);
+        report.rowsRead = rowNumber;
+
+        if (report.gamesCreated > 0) {
+            // the game service, which keeps these indexes up to date, is bypassed
+            gameFacetIndex.rebuild();
+            suggestIndex.rebuild();
+        }
+        logger.info("Game import of {} row(s) done in {} ms : {} game(s) created, {} row(s) rejected", rowNumber,
+                (System.nanoTime() - begin) / 1_000_000, report.gamesCreated, report.rejectedRows);
+        return report.toDto();
+    }
+
+    private Catalog loadCatalog() {
+        Catalog catalog = new Catalog();
+        publisherRepository.findAllNames().forEach(row -> catalog.publishers.load(key((String) row[1]), (Long) row[0]));
+        creatorRepository.findAllNames().forEach(row -> catalog.creators.load(
+                creatorKey((String) row[1], (String) row[2]), (Long) row[0]));
+        themeRepository.findAllNames().forEach(row -> catalog.themes.load(key((String) row[1]), (Long) row[0]));
+        categoryRepository.findAllNames().forEach(row -> catalog.categories.load(key((String) row[1]), (Long) row[0]));
+        gameRepository.findAllNames().forEach(row -> catalog.games.load(key((String) row[1]), (Long) row[0]));
+        gameCopyRepository.findAllObjectCodes().forEach(code -> catalog.copies.load(code, 0L));
+        return catalog;
+    }
+
+    /**
+     * Writes the valid rows of the chunk in one transaction. If it fails, the whole chunk is rejected.
+     */
+    private void write(List<NumberedRow> chunk, Catalog catalog, Report report) {
+        if (chunk.isEmpty())
+            return;
+        Report chunkReport = new Report();
+        try {
+            transactionTemplate.execute(status -> {
+                for (NumberedRow row : chunk) {
+                    List<String> errors = importRow(row.row, catalog, chunkReport);
+                    if (!errors.isEmpty())
+                        chunkReport.reject(row.number, errors);
+                }
+                // inserts are sent by JDBC batches, then the chunk leaves the persistence context
+                entityManager.flush();
+                entityManager.clear();
+                return null;
+            });
+            catalog.commit();
+            report.add(chunkReport);
+        } catch (RuntimeException e) {
+            catalog.rollback();
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            logger.warn("Game import chunk of rows {} to {} failed : {}", chunk.get(0).number,
+                    chunk.get(chunk.size() - 1).number, message);
+            chunk.forEach(row -> report.reject(row.number, List.of("Chunk not written : " + message)));
+        }
+    }
+
+    /**
+     * Persists the game of the row, its copies and its missing references
+     *
+     * @return the reasons why the row is rejected, nothing being persisted then
+     */
+    private List<String> importRow(GameImportRowDto row, Catalog catalog, Report report) {
+        List<String> errors = new ArrayList<>();
+        Game game = new Game();
+        game.setName(trim(row.getName()));
+        game.setDescription(trim(row.getDescription()));
+        game.setPlayTime(trim(row.getPlayTime()));
+        game.setMinNumberOfPlayer(orZero(row.getMinNumberOfPlayer()));
+        game.setMaxNumberOfPlayer(orZero(row.getMaxNumberOfPlayer()));
+        game.setMinAge(orZero(row.getMinAge()));
+        game.setMaxAge(orZero(row.getMaxAge()));
+        game.setMinMonth(orZero(row.getMinMonth()));
+        game.setStuff(trim(row.getStuff()));
+        game.setGoal(trim(row.getGoal()));
+        if (row.getNature() != null && !row.getNature().isBlank()) {
+            Optional<GameNatureEnum> nature = natureOf(row.getNature());
+            if (nature.isPresent())
+                game.setNature(nature.get());
+            else
+                errors.add("Unknown nature " + row.getNature());
+        }
+        for (ConstraintViolation<Game> violation : validator.validate(game))
+            errors.add(violation.getPropertyPath().toString().isEmpty() ? violation.getMessage() :
+                    violation.getPropertyPath() + " : " + violation.getMessage());
+        if (game.getName() != null && catalog.games.get(key(game.getName())) != null)
+            errors.add("A game named " + game.getName() + " already exists");
+
+        String publisher = trim(row.getPublisher());
+        if (publisher != null && publisher.length() > 255)
+            errors.add("Publisher name cannot exceed 255 characters");
+        List<String> creators = names(row.getCreators());
+        List<String> themes = names(row.getThemes());
+        List<String> categories = names(row.getCategories());
+        for (String name : creators)
+            if (creatorNames(name).stream().anyMatch(part -> part != null && part.length() > MAX_REFERENCE_NAME_LENGTH))
+                errors.add("Creator names cannot exceed " + MAX_REFERENCE_NAME_LENGTH + " characters : " + name);
+        for (String name : themes)
+            if (name.length() > MAX_REFERENCE_NAME_LENGTH)
+                errors.add("Theme name cannot exceed " + MAX_REFERENCE_NAME_LENGTH + " characters : " + name);
+        for (String name : categories)
+            if (name.length() > MAX_REFERENCE_NAME_LENGTH)
+                errors.add("Category name cannot exceed " + MAX_REFERENCE_NAME_LENGTH + " characters : " + name);
+        List<String> copies = names(row.getCopies());
+        Set<String> rowCopies = new HashSet<>();
+        for (String code : copies) {
+            if (!OBJECT_CODE.matcher(code).matches())
+                errors.add("Copy object code must be 1 to 5 digits : " + code);
+            else if (catalog.copies.get(code) != null || !rowCopies.add(code))
+                errors.add("A copy coded " + code + " already exists");
+        }
+        if (!errors.isEmpty())
+            return errors;
+
+        if (publisher != null)
+            game.setPublisher(resolve(Publisher.class, catalog.publishers, key(publisher), () -> {
+                Publisher created = new Publisher();
+                created.setName(publisher);
+                report.publishersCreated++;
+                return created;
+            }, Publisher::getId));
+        for (String name : creators) {
+            List<String> parts = creatorNames(name);
+            game.getCreators().add(resolve(Creator.class, catalog.creators, creatorKey(parts.get(0), parts.get(1)),
+                    () -> {
+                        Creator created = new Creator();
+                        created.setFirstName(parts.get(0));
+                        created.setLastName(parts.get(1));
+                        created.setRole(CreatorRole.AUTHOR);
+                        report.creatorsCreated++;
+                        return created;
+                    }, Creator::getId));
+        }
+        for (String name : themes)
+            game.getThemes().add(resolve(Theme.class, catalog.themes, key(name), () -> {
+                Theme created = new Theme();
+                created.setName(name);
+                report.themesCreated++;
+                return created;
+            }, Theme::getId));
+        for (String name : categories)
+            game.getCategories().add(resolve(Category.class, catalog.categories, key(name), () -> {
+                Category created = new Category();
+                created.setName(name);
+                report.categoriesCreated++;
+                return created;
+            }, Category::getId));
+        entityManager.persist(game);
+        catalog.games.add(key(game.getName()), game.getId());
+        report.gamesCreated++;
+
+        String wearCondition = Optional.ofNullable(trim(row.getWearCondition())).orElse(DEFAULT_WEAR_CONDITION);
+        for (String code : copies) {
+            GameCopy copy = new GameCopy();
+            copy.setObjectCode(code);
+            copy.setRegisterDate(LocalDate.now());
+            copy.setWearCondition(wearCondition);
+            copy.setGeneralState(GeneralStateEnum.IN_ACTIVITY);
+            copy.setLoanable(true);
+            copy.setGame(game);
+            entityManager.persist(copy);
+            catalog.copies.add(code, copy.getId());
+            report.copiesCreated++;
+        }
+        return errors;
+    }
+
+    /**
+     * A reference to the entity of this key, created first if it does not exist yet
+     */
+    private <T> T resolve(Class<T> type, NameIds ids, String key, Supplier<T> creator,
+                          Function<T, Long> idOf) {
+        Long id = ids.get(key);
+        if (id != null)
+            return entityManager.getReference(type, id);
+        T created = creator.get();
+        entityManager.persist(created);
+        ids.add(key, idOf.apply(created));
+        return created;
+    }
+
+    private static Optional<GameNatureEnum> natureOf(String value) {
+        String key = key(value);
+        return Arrays.stream(GameNatureEnum.values())
+                .filter(nature -> key(nature.name()).equals(key) || key(nature.getFrenchTranslation()).equals(key))
+                .findFirst();
+    }
+
+    /**
+     * First name, null if there is none, and last name : the last word is taken as the last name
+     */
+    private static List<String> creatorNames(String name) {
+        int space = name.lastIndexOf(' ');
+        return space < 0 ? Arrays.asList(null, name) :
+                Arrays.asList(name.substring(0, space).trim(), name.substring(space + 1));
+    }
+
+    private static String creatorKey(String firstName, String lastName) {
+        return key((firstName == null ? "" : firstName + " ") + lastName);
+    }
+
+    private static List<String> names(List<String> values) {
+        if (values == null)
+            return List.of();
+        return values.stream().map(GameImportService::trim).filter(Objects::nonNull).distinct()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The dedup key of a name : case, accents and surrounding spaces are ignored
+     */
+    private static String key(String name) {
+        return TextNormalizer.fold(name.trim());
+    }
+
+    private static String trim(String value) {
+        if (value == null || value.isBlank())
+            return null;
+        return value.trim();
+    }
+
+    private static short orZero(Short value) {
+        return value == null ? 0 : value;
+    }
+
+    private static final class NumberedRow {
+
+        private final long number;
+        private final GameImportRowDto row;
+
+        private NumberedRow(long number, GameImportRowDto row) {
+            this.number = number;
+            this.row = row;
+        }
+    }
+
+    /**
+     * Ids by key, the ones added by the current chunk being kept apart until it is committed
+     */
+    private static final class NameIds {
+
+        private final Map<String, Long> committed = new HashMap<>();
+        private final Map<String, Long> pending = new HashMap<>();
+
+        private void load(String key, Long id) {
+            committed.put(key, id);
+        }
+
+        private Long get(String key) {
+            Long id = pending.get(key);
+            return id != null ? id : committed.get(key);
+        }
+
+        private void add(String key, Long id) {
+            pending.put(key, id);
+        }
+
+        private void commit() {
+            committed.putAll(pending);
+            pending.clear();
+        }
+
+        private void rollback() {
+            pending.clear();
+        }
+    }
+
+    private static final class Catalog {
+
+        private final NameIds publishers = new NameIds();
+        private final NameIds creators = new NameIds();
+        private final NameIds themes = new NameIds();
+        private final NameIds categories = new NameIds();
+        private final NameIds games = new NameIds();
+        private final NameIds copies = new NameIds();
+
+        private List<NameIds> all() {
+            return List.of(publishers, creators, themes, categories, games, copies);
+        }
+
+        private void commit() {
+            all().forEach(NameIds::commit);
+        }
+
+        private void rollback() {
+            all().forEach(NameIds::rollback);
+        }
+    }
+
+    private static final class Report {
+
+        private long rowsRead;
+        private long gamesCreated;
+        private long copiesCreated;
+        private long publishersCreated;
+        private long creatorsCreated;
+        private long themesCreated;
+        private long categoriesCreated;
+        private long rejectedRows;
+        private final List<ImportErrorDto> errors = new ArrayList<>();
+        private boolean aborted;
+
+        private void reject(long row, List<String> messages) {
+            rejectedRows++;
+            if (errors.size() < MAX_REPORTED_ERRORS)
+                errors.add(new ImportErrorDto(row, messages));
+        }
+
+        private void add(Report chunk) {
+            gamesCreated += chunk.gamesCreated;
+            copiesCreated += chunk.copiesCreated;
+            publishersCreated += chunk.publishersCreated;
+            creatorsCreated += chunk.creatorsCreated;
+            themesCreated += chunk.themesCreated;
+            categoriesCreated += chunk.categoriesCreated;
+            rejectedRows += chunk.rejectedRows;
+            chunk.errors.stream().limit(MAX_REPORTED_ERRORS - errors.size()).forEach(errors::add);
+        }
+
+        private ImportReportDto toDto() {
+            return new ImportReportDto(rowsRead, gamesCreated, copiesCreated, publishersCreated, creatorsCreated,
+                    themesCreated, categoriesCreated, rejectedRows, errors, aborted);
+        }
+    }
+}
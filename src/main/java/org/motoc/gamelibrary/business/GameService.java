@@ -0,0 +1,161 @@
+package org.motoc.gamelibrary.business;
+
+import org.motoc.gamelibrary.business.index.AvailabilityIndex;
+import org.motoc.gamelibrary.business.index.GameFacetIndex;
+import org.motoc.gamelibrary.business.index.GameFacetIndex.FacetDocument;
+import org.motoc.gamelibrary.business.index.SuggestIndex;
+import org.motoc.gamelibrary.business.refactor.SimpleCrudMethodsImpl;
+import org.motoc.gamelibrary.dto.AvailabilityDto;
+import org.motoc.gamelibrary.dto.GameFacetsDto;
+import org.motoc.gamelibrary.dto.GameSearchCriteria;
+import org.motoc.gamelibrary.dto.GameSummaryDto;
+import org.motoc.gamelibrary.model.Game;
+import org.motoc.gamelibrary.repository.GameRepository;
+import org.motoc.gamelibrary.repository.GameRepositoryCustom;
+import org.motoc.gamelibrary.technical.TransactionCallbacks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+
+import javax.transaction.Transactional;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Perform business logic on the web entity Game
+ *
+ * @author RouzicJ
+ */
+@Service
+@Transactional
+public class GameService extends SimpleCrudMethodsImpl<Game, JpaRepository<Game, Long>> {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameService.class);
+
+    private final GameRepository gameRepository;
+
+    private final GameRepositoryCustom gameRepositoryCustom;
+
+    private final GameFacetIndex facetIndex;
+
+    private final SuggestIndex suggestIndex;
+
+    private final AvailabilityIndex availabilityIndex;
+
+    @Autowired
+    public GameService(GameRepository gameRepository, GameRepositoryCustom gameRepositoryCustom,
+                       JpaRepository<Game, Long> gameGenericRepository, GameFacetIndex facetIndex,
+                       SuggestIndex suggestIndex, AvailabilityIndex availabilityIndex) {
+        super(gameGenericRepository, Game.class);
+        this.gameRepository = gameRepository;
+        this.gameRepositoryCustom = gameRepositoryCustom;
+        this.facetIndex = facetIndex;
+        this.suggestIndex = suggestIndex;
+        this.availabilityIndex = availabilityIndex;
+    }
+
+    // Methods
+
+    /**
+     * The facet and suggest indexes are updated once the transaction is committed
+     */
+    @Override
+    public Game save(Game game) {
+        Game result = super.save(game);
+        FacetDocument document = GameFacetIndex.documentOf(result);
+        long id = result.getId();
+        String name = result.getName();
+        TransactionCallbacks.afterCommit(() -> {
+            facetIndex.index(document);
+            suggestIndex.put(SuggestIndex.SuggestionType.GAME, id, name);
+        });
+        return result;
+    }
+
+    @Override
+    public List<Game> saveAll(List<Game> games) {
+        List<Game> result = super.saveAll(games);
+        List<FacetDocument> documents = result.stream().map(GameFacetIndex::documentOf).collect(Collectors.toList());
+        Map<Long, String> names = result.stream().collect(Collectors.toMap(Game::getId, Game::getName));
+        TransactionCallbacks.afterCommit(() -> {
+            documents.forEach(facetIndex::index);
+            names.forEach((id, name) -> suggestIndex.put(SuggestIndex.SuggestionType.GAME, id, name));
+        });
+        return result;
+    }
+
+    @Override
+    public void deleteOne(Game game) {
+        super.deleteOne(game);
+        long id = game.getId();
+        TransactionCallbacks.afterCommit(() -> {
+            facetIndex.remove(id);
+            suggestIndex.remove(SuggestIndex.SuggestionType.GAME, id);
+        });
+    }
+
+    @Override
+    public void deleteById(long id) {
+        super.deleteById(id);
+        TransactionCallbacks.afterCommit(() -> {
+            facetIndex.remove(id);
+            suggestIndex.remove(SuggestIndex.SuggestionType.GAME, id);
+        });
+    }
+
+    /**
+     * Counts the games by facet value, see {@link GameFacetIndex#count(Map)}
+     */
+    public GameFacetsDto facets(Map<String, List<String>> selection) {
+        return timed("facets", () -> {
+            GameFacetsDto result = facetIndex.count(selection);
+            logger.debug("Counted facets of {} game(s) for {}", result.getTotal(), selection);
+            return result;
+        });
+    }
+
+    /**
+     * Finds a page of games without their rule texts
+     */
+    public Page<GameSummaryDto> findSummaryPage(Pageable pageable) {
+        return timed("findSummaryPage", () -> {
+            Page<GameSummaryDto> result = gameRepository.findSummaryPage(pageable);
+            fillAvailability(result);
+            logger.debug("Found {} game summaries through {} page(s)", result.getTotalElements(),
+                    result.getTotalPages());
+            return result;
+        });
+    }
+
+    /**
+     * Calls the DAO to search games, without their rule texts
+     */
+    public Slice<GameSummaryDto> search(GameSearchCriteria criteria, Pageable pageable) {
+        return timed("search", () -> {
+            Slice<GameSummaryDto> result = gameRepositoryCustom.search(criteria, pageable);
+            fillAvailability(result);
+            logger.debug("Found {} game(s) for {}, has next={}", result.getNumberOfElements(), criteria,
+                    result.hasNext());
+            return result;
+        });
+    }
+
+    /**
+     * Copy counts of the game, read from the availability index
+     */
+    public AvailabilityDto availability(long gameId) {
+        return timed("availability", () -> availabilityIndex.availability(gameId));
+    }
+
+    private void fillAvailability(Slice<GameSummaryDto> summaries) {
+        Map<Long, AvailabilityDto> availabilities = availabilityIndex.availabilities(
+                summaries.map(GameSummaryDto::getId).getContent());
+        summaries.forEach(summary -> summary.setAvailability(availabilities.get(summary.getId())));
+    }
+}
@@ -0,0 +1,128 @@
+package org.motoc.gamelibrary.business;
+
+import io.micrometer.core.annotation.Timed;
+import org.motoc.gamelibrary.business.index.LoanStatusCache;
+import org.motoc.gamelibrary.model.enumeration.LoanStatusEnum;
+import org.motoc.gamelibrary.repository.LoanRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Moves the loans returned or cancelled for longer than the retention period to the archive table, so that the loan
+ * table only holds current and recent loans.
+ * <p>Each chunk of loans is copied then deleted in its own transaction, the oldest loans first.</p>
+ *
+ * @author RouzicJ
+ */
+@Component
+public class LoanArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoanArchiver.class);
+
+    private static final List<LoanStatusEnum> CLOSED_STATUSES = List.of(LoanStatusEnum.RETURNED,
+            LoanStatusEnum.CANCELLED);
+
+    private final LoanService loanService;
+
+    private final LoanRepository loanRepository;
+
+    private final LoanStatusCache loanStatusCache;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Duration retention;
+
+    private final int chunkSize;
+
+    private final Clock clock;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final AtomicLong totalArchivedLoans = new AtomicLong();
+
+    @Autowired
+    public LoanArchiver(LoanService loanService, LoanRepository loanRepository, LoanStatusCache loanStatusCache,
+                        TransactionTemplate transactionTemplate,
+                        @Value("${loan.archiver.retention:P90D}") Duration retention,
+                        @Value("${loan.archiver.chunk-size:500}") int chunkSize) {
+        this(loanService, loanRepository, loanStatusCache, transactionTemplate, retention, chunkSize,
+                Clock.systemDefaultZone());
+    }
+
+    LoanArchiver(LoanService loanService, LoanRepository loanRepository, LoanStatusCache loanStatusCache,
+                 TransactionTemplate transactionTemplate, Duration retention, int chunkSize, Clock clock) {
+        this.loanService = loanService;
+        this.loanRepository = loanRepository;
+        this.loanStatusCache = loanStatusCache;
+        this.transactionTemplate = transactionTemplate;
+        this.retention = retention;
+        this.chunkSize = chunkSize;
+        this.clock = clock;
+    }
+
+    @Scheduled(cron = "${loan.archiver.cron:0 30 3 * * *}")
+    @Timed(value = "gamelibrary.service", histogram = true,
+            extraTags = {"entity", "loan", "operation", "scheduledArchive"})
+    public void scheduledArchive() {
+        try {
+            archive();
+        } catch (RuntimeException e) {
+            // chunks already committed stay archived, the others wait for the next run
+            logger.error("Loan archiving failed", e);
+        }
+    }
+
+    /**
+     * Archives the loans closed before the retention period, unless an archiving is already running. Not timed : the
+     * scheduled archiving calls it on this instance, its own timer measures it.
+     *
+     * @return the number of loans archived, -1 if an archiving was already running
+     */
+    public long archive() {
+        if (!running.compareAndSet(false, true))
+            return -1;
+        try {
+            return archiveEndedBefore(LocalDateTime.now(clock).minus(retention));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public long totalArchivedLoans() {
+        return totalArchivedLoans.get();
+    }
+
+    private long archiveEndedBefore(LocalDateTime limit) {
+        List<Long> statusIds = CLOSED_STATUSES.stream().map(loanStatusCache::idOf).collect(Collectors.toList());
+        long begin = System.nanoTime();
+        long archived = 0;
+        while (true) {
+            // archived loans leave the table : the next chunk is always the oldest remaining one
+            Integer moved = transactionTemplate.execute(status -> loanService.archive(
+                    loanRepository.findEndedIds(statusIds, limit, PageRequest.of(0, chunkSize))));
+            archived += moved;
+            totalArchivedLoans.addAndGet(moved);
+            if (moved > 0)
+                logger.debug("Loan archiving : {} loan(s) archived", archived);
+            if (moved < chunkSize)
+                break;
+        }
+        logger.info("Loan archiving done in {} ms : {} loan(s) ended before {} archived",
+                Duration.ofNanos(System.nanoTime() - begin).toMillis(), archived, limit);
+        return archived;
+    }
+}
@@ -0,0 +1,154 @@
+package org.motoc.gamelibrary.business;
+
+import io.micrometer.core.annotation.Timed;
+import org.motoc.gamelibrary.business.index.LoanCalendar;
+import org.motoc.gamelibrary.business.index.LoanStatusCache;
+import org.motoc.gamelibrary.model.GameCopy;
+import org.motoc.gamelibrary.model.Loan;
+import org.motoc.gamelibrary.model.enumeration.LoanStatusEnum;
+import org.motoc.gamelibrary.repository.LoanRepository;
+import org.motoc.gamelibrary.repository.LoanStatusRepository;
+import org.motoc.gamelibrary.technical.exception.BadRequestException;
+import org.motoc.gamelibrary.technical.exception.LoanConflictException;
+import org.motoc.gamelibrary.technical.exception.NotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Books game copies without double booking.
+ * <p>Bookings of a same copy are serialized by a lock, taken among a fixed set of stripes by copy id : bookings of
+ * different copies mostly run in parallel. The lock is held around the whole transaction, so that the next booking
+ * of the copy sees the committed loan. Between instances, each booking increments the version of the copy : the
+ * second of two concurrent commits fails and is retried against the database.</p>
+ *
+ * @author RouzicJ
+ */
+@Service
+public class LoanBookingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoanBookingService.class);
+
+    /**
+     * A power of two, much larger than the number of request threads
+     */
+    private static final int STRIPES = 256;
+
+    private static final long LOCK_TIMEOUT_SECONDS = 5;
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    private final LoanService loanService;
+
+    private final LoanRepository loanRepository;
+
+    private final LoanStatusRepository loanStatusRepository;
+
+    private final LoanCalendar loanCalendar;
+
+    private final LoanStatusCache loanStatusCache;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public LoanBookingService(LoanService loanService, LoanRepository loanRepository,
+                              LoanStatusRepository loanStatusRepository, LoanCalendar loanCalendar,
+                              LoanStatusCache loanStatusCache, TransactionTemplate transactionTemplate) {
+        this.loanService = loanService;
+        this.loanRepository = loanRepository;
+        this.loanStatusRepository = loanStatusRepository;
+        this.loanCalendar = loanCalendar;
+        this.loanStatusCache = loanStatusCache;
+        this.transactionTemplate = transactionTemplate;
+        for (int i = 0; i < STRIPES; i++)
+            stripes[i] = new ReentrantLock();
+    }
+
+    /**
+     * Saves the loan of the copy, if the copy is not booked over the loan window
+     *
+     * @param loanStatusId the id of an initial status, see {@link LoanStatusEnum#isInitial()}
+     * @throws LoanConflictException if the loan overlaps another loan holding the copy, or if the copy stays
+     *                               contended
+     */
+    @Timed(value = "gamelibrary.service", histogram = true,
+            extraTags = {"entity", "loan", "operation", "book"})
+    public Loan book(Loan loan, long gameCopyId, long loanStatusId) {
+        if (loan.getLoanStartTime() == null || loan.getLoanEndTime() == null ||
+                !loan.getLoanStartTime().isBefore(loan.getLoanEndTime()))
+            throw new BadRequestException("Loan start time must be before its end time");
+        if (loanStatusCache.statusOf(loanStatusId).filter(LoanStatusEnum::isInitial).isEmpty())
+            throw new BadRequestException("A loan must be booked as proposed or validated");
+
+        ReentrantLock lock = stripeOf(gameCopyId);
+        try {
+            if (!lock.tryLock(LOCK_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+                throw new LoanConflictException(gameCopyId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LoanConflictException(gameCopyId);
+        }
+        try {
+            // cheap rejection from the calendar, up to date for this instance as the lock is held
+            checkNoConflict(gameCopyId, loanCalendar.conflicts(gameCopyId, loan.getLoanStartTime(),
+                    loan.getLoanEndTime(), loan.getId() == 0 ? null : loan.getId()));
+            long loanId = loan.getId();
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return transactionTemplate.execute(status -> save(loan, gameCopyId, loanStatusId));
+                } catch (OptimisticLockingFailureException e) {
+                    logger.debug("Copy {} booked concurrently, attempt {}", gameCopyId, attempt);
+                    // the rolled back attempt may have given an id to a new loan
+                    loan.setId(loanId);
+                    if (attempt == MAX_ATTEMPTS)
+                        throw new LoanConflictException(gameCopyId);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs in the booking transaction, the database is the reference between instances
+     */
+    private Loan save(Loan loan, long gameCopyId, long loanStatusId) {
+        GameCopy copy = entityManager.find(GameCopy.class, gameCopyId, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+        if (copy == null)
+            throw new NotFoundException(gameCopyId);
+        checkNoConflict(gameCopyId, loanRepository.findOverlappingLoanIds(gameCopyId, loan.getId(),
+                loan.getLoanStartTime(), loan.getLoanEndTime(), LoanStatusCache.BLOCKING_TAGS,
+                LoanStatusCache.ON_LOAN_TAGS, LocalDateTime.now(loanCalendar.clock())));
+        loan.setGameCopy(copy);
+        loan.setLoanStatus(loanStatusRepository.getOne(loanStatusId));
+        return loanService.save(loan);
+    }
+
+    private void checkNoConflict(long gameCopyId, List<Long> conflicts) {
+        if (!conflicts.isEmpty()) {
+            logger.warn("Booking of copy {} conflicts with loan(s) {}", gameCopyId, conflicts);
+            throw new LoanConflictException(gameCopyId, conflicts);
+        }
+    }
+
+    ReentrantLock stripeOf(long gameCopyId) {
+        int hash = Long.hashCode(gameCopyId);
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+}
@@ -0,0 +1,235 @@
+package org.motoc.gamelibrary.business;
+
+import org.motoc.gamelibrary.business.index.AvailabilityIndex;
+import org.motoc.gamelibrary.business.index.LoanCalendar;
+import org.motoc.gamelibrary.business.index.LoanStatusCache;
+import org.motoc.gamelibrary.business.refactor.SimpleCrudMethodsImpl;
+import org.motoc.gamelibrary.dto.CopyCalendarDto;
+import org.motoc.gamelibrary.dto.LoanHistoryDto;
+import org.motoc.gamelibrary.model.Loan;
+import org.motoc.gamelibrary.model.LoanArchive;
+import org.motoc.gamelibrary.model.enumeration.LoanStatusEnum;
+import org.motoc.gamelibrary.repository.LoanArchiveRepository;
+import org.motoc.gamelibrary.repository.LoanRepository;
+import org.motoc.gamelibrary.repository.LoanStatusRepository;
+import org.motoc.gamelibrary.technical.PersistenceContexts;
+import org.motoc.gamelibrary.technical.TransactionCallbacks;
+import org.motoc.gamelibrary.technical.exception.BadRequestException;
+import org.motoc.gamelibrary.technical.exception.IllegalLoanTransitionException;
+import org.motoc.gamelibrary.technical.exception.NotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.transaction.Transactional;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Perform business logic on the web entity Loan
+ *
+ * @author RouzicJ
+ */
+@Service
+@Transactional
+public class LoanService extends SimpleCrudMethodsImpl<Loan, JpaRepository<Loan, Long>> {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoanService.class);
+
+    private static final Duration MAX_CALENDAR_RANGE = Duration.ofDays(366);
+
+    private static final int MAX_HISTORY_SIZE = 1000;
+
+    private static final Comparator<LoanHistoryDto> LATEST_FIRST = Comparator
+            .comparing(LoanHistoryDto::getLoanStartTime)
+            .thenComparingLong(LoanHistoryDto::getId)
+            .reversed();
+
+    private final LoanCalendar loanCalendar;
+
+    private final AvailabilityIndex availabilityIndex;
+
+    private final LoanRepository loanRepository;
+
+    private final LoanStatusRepository loanStatusRepository;
+
+    private final LoanStatusCache loanStatusCache;
+
+    private final LoanArchiveRepository loanArchiveRepository;
+
+    private final MemberLoanSummaryService memberLoanSummaryService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public LoanService(JpaRepository<Loan, Long> loanGenericRepository, LoanCalendar loanCalendar,
+                       AvailabilityIndex availabilityIndex, LoanRepository loanRepository,
+                       LoanStatusRepository loanStatusRepository, LoanStatusCache loanStatusCache,
+                       LoanArchiveRepository loanArchiveRepository,
+                       MemberLoanSummaryService memberLoanSummaryService) {
+        super(loanGenericRepository, Loan.class);
+        this.loanCalendar = loanCalendar;
+        this.availabilityIndex = availabilityIndex;
+        this.loanRepository = loanRepository;
+        this.loanStatusRepository = loanStatusRepository;
+        this.loanStatusCache = loanStatusCache;
+        this.loanArchiveRepository = loanArchiveRepository;
+        this.memberLoanSummaryService = memberLoanSummaryService;
+    }
+
+    // Methods
+
+    /**
+     * Moves the loan to the target status with a single update, guarded on the statuses allowed to move to it :
+     * concurrent moves of a same loan cannot both succeed.
+     *
+     * @throws IllegalLoanTransitionException if the current status of the loan does not allow this move
+     */
+    public void transition(long loanId, LoanStatusEnum target) {
+        timed("transition", () -> {
+            if (transitionAll(List.of(loanId), target) == 0) {
+                if (!loanRepository.existsById(loanId)) {
+                    logger.warn("No loan found for id={}", loanId);
+                    throw new NotFoundException(loanId);
+                }
+                logger.warn("Loan {} cannot move to {}", loanId, target);
+                throw new IllegalLoanTransitionException(loanId, target);
+            }
+            logger.debug("Moved loan {} to {}", loanId, target);
+            return null;
+        });
+    }
+
+    /**
+     * Moves the loans allowed to, skipping the others
+     *
+     * @return the number of loans moved
+     */
+    public int transitionAll(List<Long> loanIds, LoanStatusEnum target) {
+        return timed("transitionAll", () -> {
+            List<Long> sourceIds = target.previous().stream()
+                    .map(loanStatusCache::idOf)
+                    .collect(Collectors.toList());
+            if (loanIds.isEmpty() || sourceIds.isEmpty())
+                return 0;
+            int moved = loanRepository.transition(loanIds,
+                    loanStatusRepository.getOne(loanStatusCache.idOf(target)), sourceIds);
+            if (moved == 0)
+                return 0;
+            // the other loaded entities of the transaction are left as they are
+            loadedLoans(loanIds).forEach(entityManager::refresh);
+
+            // a bulk update is not seen by the entity listeners
+            List<Object[]> rows = loanRepository.findWindowFields(loanIds);
+            TransactionCallbacks.afterCommit(() -> rows.forEach(row -> {
+                long loanId = (Long) row[0];
+                Long copyId = (Long) row[1];
+                Long statusId = (Long) row[2];
+                LocalDateTime start = (LocalDateTime) row[3];
+                LocalDateTime end = (LocalDateTime) row[4];
+                availabilityIndex.indexLoan(loanId, copyId, statusId, start, end);
+                loanCalendar.index(loanId, copyId, statusId, start, end);
+                memberLoanSummaryService.markDirty((String) row[5]);
+            }));
+            logger.debug("Moved {} loan(s) out of {} to {}", moved, loanIds.size(), target);
+            return moved;
+        });
+    }
+
+    /**
+     * Moves the loans to the archive table, with an insert select then a delete
+     *
+     * @return the number of loans archived
+     */
+    public int archive(List<Long> loanIds) {
+        return timed("archive", () -> {
+            if (loanIds.isEmpty())
+                return 0;
+            int copied = loanArchiveRepository.copyLoans(loanIds);
+            int deleted = loanRepository.deleteAllByIdIn(loanIds);
+            if (copied != deleted)
+                throw new IllegalStateException("Archived " + copied + " loan(s) but deleted " + deleted);
+            loadedLoans(loanIds).forEach(entityManager::detach);
+
+            // a bulk delete is not seen by the entity listeners
+            TransactionCallbacks.afterCommit(() -> loanIds.forEach(loanId -> {
+                availabilityIndex.removeLoan(loanId);
+                loanCalendar.remove(loanId);
+            }));
+            logger.debug("Archived {} loan(s)", deleted);
+            return deleted;
+        });
+    }
+
+    /**
+     * The latest loans of a member (userUuid) or of a copy (copyId), current and archived ones, latest first
+     */
+    public List<LoanHistoryDto> history(String userUuid, Long copyId, int size) {
+        return timed("history", () -> {
+            if ((userUuid == null) == (copyId == null))
+                throw new BadRequestException("Either a user uuid or a copy id is expected");
+            if (size < 1 || size > MAX_HISTORY_SIZE)
+                throw new BadRequestException("History size must be between 1 and " + MAX_HISTORY_SIZE);
+
+            // each table gives its latest loans, the merge keeps the latest of both
+            Pageable latest = PageRequest.of(0, size);
+            List<LoanHistoryDto> result = new ArrayList<>();
+            (userUuid != null ? loanRepository.findHistoryByUser(userUuid, latest) :
+                    loanRepository.findHistoryByCopy(copyId, latest))
+                    .forEach(row -> result.add(new LoanHistoryDto((Long) row[0], (String) row[1],
+                            (LocalDateTime) row[2], (LocalDateTime) row[3], (Long) row[4],
+                            loanStatusCache.statusOf((Long) row[5]).orElse(null), false)));
+            (userUuid != null ? loanArchiveRepository.findByUser(userUuid, latest) :
+                    loanArchiveRepository.findByCopy(copyId, latest))
+                    .forEach(archive -> result.add(historyOf(archive)));
+            result.sort(LATEST_FIRST);
+            List<LoanHistoryDto> page = result.size() > size ? result.subList(0, size) : result;
+            logger.debug("Found {} loan(s) in history of user={} copy={}", page.size(), userUuid, copyId);
+            return page;
+        });
+    }
+
+    /**
+     * The loans of these ids already loaded in the transaction, left stale by the bulk statements
+     */
+    private List<Loan> loadedLoans(List<Long> loanIds) {
+        Set<Long> ids = new HashSet<>(loanIds);
+        return PersistenceContexts.loaded(entityManager, Loan.class).stream()
+                .filter(loan -> ids.contains(loan.getId()))
+                .collect(Collectors.toList());
+    }
+
+    private LoanHistoryDto historyOf(LoanArchive archive) {
+        return new LoanHistoryDto(archive.getId(), archive.getUserUuid(), archive.getLoanStartTime(),
+                archive.getLoanEndTime(), archive.getGameCopyId(),
+                loanStatusCache.statusOf(archive.getLoanStatusId()).orElse(null), true);
+    }
+
+    /**
+     * Free windows of a copy, or of each lendable copy of a game
+     */
+    public List<CopyCalendarDto> calendar(Long copyId, Long gameId, LocalDateTime from, LocalDateTime to) {
+        return timed("calendar", () -> {
+            if ((copyId == null) == (gameId == null))
+                throw new BadRequestException("Either a copy id or a game id is expected");
+            if (!from.isBefore(to) || Duration.between(from, to).compareTo(MAX_CALENDAR_RANGE) > 0)
+                throw new BadRequestException("Calendar range must be positive and at most " +
+                        MAX_CALENDAR_RANGE.toDays() + " days");
+            List<Long> copyIds = copyId != null ? List.of(copyId) : availabilityIndex.lendableCopyIds(gameId);
+            List<CopyCalendarDto> result = copyIds.stream()
+                    .map(id -> new CopyCalendarDto(id, loanCalendar.freeWindows(id, from, to)))
+                    .collect(Collectors.toList());
+            logger.debug("Found calendar of {} copy(ies) from {} to {}", result.size(), from, to);
+            return result;
+        });
+    }
+}
@@ -0,0 +1,188 @@
+package org.motoc.gamelibrary.business;
+
+import io.micrometer.core.annotation.Timed;
+import org.motoc.gamelibrary.business.index.LoanStatusCache;
+import org.motoc.gamelibrary.dto.MemberDashboardDto;
+import org.motoc.gamelibrary.mapper.MemberLoanSummaryMapper;
+import org.motoc.gamelibrary.model.MemberCurrentLoan;
+import org.motoc.gamelibrary.model.MemberLoanSummary;
+import org.motoc.gamelibrary.model.enumeration.LoanStatusEnum;
+import org.motoc.gamelibrary.repository.LoanArchiveRepository;
+import org.motoc.gamelibrary.repository.LoanRepository;
+import org.motoc.gamelibrary.repository.MemberLoanSummaryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the loan summary of each member, read by the member dashboard.
+ * <p>Members whose loans changed are marked as dirty after commit, their summary is then recomputed in the
+ * background. A dashboard read of a dirty member recomputes it first, so that members always see their own
+ * changes. Otherwise the dashboard is a single lookup by user uuid.</p>
+ *
+ * @author RouzicJ
+ */
+@Service
+public class MemberLoanSummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MemberLoanSummaryService.class);
+
+    private static final int STRIPES = 64;
+
+    private static final List<LoanStatusEnum> CURRENT_STATUSES = List.of(LoanStatusEnum.PROPOSED,
+            LoanStatusEnum.VALIDATED, LoanStatusEnum.RUNNING, LoanStatusEnum.OVERDUE);
+
+    private final MemberLoanSummaryRepository summaryRepository;
+
+    private final LoanRepository loanRepository;
+
+    private final LoanArchiveRepository loanArchiveRepository;
+
+    private final LoanStatusCache loanStatusCache;
+
+    private final MemberLoanSummaryMapper mapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Set<String> dirtyUsers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Recomputations and reads of a same member are serialized, so that the last one writes the latest loans and a
+     * read never sees the summary being replaced
+     */
+    private final Object[] stripes = new Object[STRIPES];
+
+    @Autowired
+    public MemberLoanSummaryService(MemberLoanSummaryRepository summaryRepository, LoanRepository loanRepository,
+                                    LoanArchiveRepository loanArchiveRepository, LoanStatusCache loanStatusCache,
+                                    TransactionTemplate transactionTemplate) {
+        this.summaryRepository = summaryRepository;
+        this.loanRepository = loanRepository;
+        this.loanArchiveRepository = loanArchiveRepository;
+        this.loanStatusCache = loanStatusCache;
+        this.mapper = MemberLoanSummaryMapper.INSTANCE;
+        this.transactionTemplate = transactionTemplate;
+        for (int i = 0; i < STRIPES; i++)
+            stripes[i] = new Object();
+    }
+
+    /**
+     * Members with loans but no summary are computed in the background
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Timed(value = "gamelibrary.service", histogram = true,
+            extraTags = {"entity", "memberloansummary", "operation", "markMissing"})
+    public void markMissing() {
+        List<String> missing = summaryRepository.findUsersWithoutSummary();
+        dirtyUsers.addAll(missing);
+        logger.info("Member loan summaries to compute : {}", missing.size());
+    }
+
+    /**
+     * To be called once the loans of the member changed, the summary is recomputed later
+     */
+    public void markDirty(String userUuid) {
+        if (userUuid != null)
+            dirtyUsers.add(userUuid);
+    }
+
+    @Scheduled(fixedDelayString = "${member.summary.refresh-delay:PT1S}")
+    @Timed(value = "gamelibrary.service", histogram = true,
+            extraTags = {"entity", "memberloansummary", "operation", "refreshDirty"})
+    public void refreshDirty() {
+        int refreshed = 0;
+        for (String userUuid : dirtyUsers) {
+            try {
+                synchronized (lockOf(userUuid)) {
+                    // removed under the lock : a dashboard read waits for this refresh
+                    if (dirtyUsers.remove(userUuid)) {
+                        refresh(userUuid);
+                        refreshed++;
+                    }
+                }
+            } catch (RuntimeException e) {
+                dirtyUsers.add(userUuid);
+                logger.error("Loan summary of member {} not refreshed", userUuid, e);
+                return;
+            }
+        }
+        if (refreshed > 0)
+            logger.debug("Refreshed {} member loan summary(ies)", refreshed);
+    }
+
+    @Timed(value = "gamelibrary.service", histogram = true,
+            extraTags = {"entity", "memberloansummary", "operation", "dashboard"})
+    public MemberDashboardDto dashboard(String userUuid) {
+        MemberLoanSummary summary;
+        synchronized (lockOf(userUuid)) {
+            summary = dirtyUsers.remove(userUuid) ? refresh(userUuid) :
+                    summaryRepository.findById(userUuid).orElseGet(() -> refresh(userUuid));
+        }
+        logger.debug("Found loan summary of member {}", userUuid);
+        return mapper.summaryToDashboardDto(summary);
+    }
+
+    /**
+     * Recomputes the summary of the member from their current loans and their loan counts
+     */
+    public MemberLoanSummary refresh(String userUuid) {
+        synchronized (lockOf(userUuid)) {
+            return transactionTemplate.execute(status -> {
+                MemberLoanSummary summary = summaryRepository.findById(userUuid).orElseGet(() -> {
+                    MemberLoanSummary created = new MemberLoanSummary();
+                    created.setUserUuid(userUuid);
+                    return created;
+                });
+
+                Map<LoanStatusEnum, Integer> counts = new EnumMap<>(LoanStatusEnum.class);
+                Stream.concat(loanRepository.countByStatusOfUser(userUuid).stream(),
+                        loanArchiveRepository.countByStatusOfUser(userUuid).stream())
+                        .forEach(row -> loanStatusCache.statusOf((Long) row[0]).ifPresent(loanStatus ->
+                                counts.merge(loanStatus, ((Long) row[1]).intValue(), Integer::sum)));
+                summary.setReservedLoans(counts.getOrDefault(LoanStatusEnum.PROPOSED, 0) +
+                        counts.getOrDefault(LoanStatusEnum.VALIDATED, 0));
+                summary.setRunningLoans(counts.getOrDefault(LoanStatusEnum.RUNNING, 0));
+                summary.setOverdueLoans(counts.getOrDefault(LoanStatusEnum.OVERDUE, 0));
+                summary.setReturnedLoans(counts.getOrDefault(LoanStatusEnum.RETURNED, 0));
+                summary.setCancelledLoans(counts.getOrDefault(LoanStatusEnum.CANCELLED, 0));
+
+                List<MemberCurrentLoan> currentLoans = loanRepository.findLoansOfUser(userUuid,
+                        CURRENT_STATUSES.stream().map(loanStatusCache::idOf).collect(Collectors.toList()))
+                        .stream()
+                        .map(row -> new MemberCurrentLoan((Long) row[0], (Long) row[1], (Long) row[2],
+                                (String) row[3], loanStatusCache.statusOf((Long) row[4]).orElse(null),
+                                (LocalDateTime) row[5], (LocalDateTime) row[6]))
+                        .sorted(Comparator.comparing(MemberCurrentLoan::getLoanStartTime))
+                        .collect(Collectors.toList());
+                summary.getCurrentLoans().clear();
+                summary.getCurrentLoans().addAll(currentLoans);
+                summary.setNextReturn(currentLoans.stream()
+                        .filter(loan -> loan.getStatus() == LoanStatusEnum.RUNNING ||
+                                loan.getStatus() == LoanStatusEnum.OVERDUE)
+                        .map(MemberCurrentLoan::getLoanEndTime)
+                        .min(Comparator.naturalOrder()).orElse(null));
+                summary.setNextStart(currentLoans.stream()
+                        .filter(loan -> loan.getStatus() != null && loan.getStatus().isInitial())
+                        .map(MemberCurrentLoan::getLoanStartTime)
+                        .min(Comparator.naturalOrder()).orElse(null));
+                summary.setRefreshedAt(LocalDateTime.now());
+                return summaryRepository.save(summary);
+            });
+        }
+    }
+
+    private Object lockOf(String userUuid) {
+        return stripes[(userUuid.hashCode() & 0x7fffffff) % STRIPES];
+    }
+}
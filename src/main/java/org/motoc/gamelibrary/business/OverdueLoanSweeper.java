@@ -0,0 +1,213 @@
+package org.motoc.gamelibrary.business;
+
+import io.micrometer.core.annotation.Timed;
+import org.motoc.gamelibrary.business.index.AvailabilityIndex;
+import org.motoc.gamelibrary.business.index.LoanStatusCache;
+import org.motoc.gamelibrary.dto.SweepStatusDto;
+import org.motoc.gamelibrary.model.enumeration.GeneralStateEnum;
+import org.motoc.gamelibrary.model.enumeration.LoanStatusEnum;
+import org.motoc.gamelibrary.repository.GameCopyRepository;
+import org.motoc.gamelibrary.repository.LoanRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Moves the running loans past their end to overdue, then the copies of the loans overdue for longer than the grace
+ * period to unreturned.
+ * <p>Loans and copies are read by chunks of ids, in keyset order, and each chunk is updated in bulk in its own
+ * transaction : no entity is loaded, however many loans are to sweep, and a failure only rolls back one chunk.</p>
+ *
+ * @author RouzicJ
+ */
+@Component
+public class OverdueLoanSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverdueLoanSweeper.class);
+
+    /**
+     * Before any loan end time, postgres timestamps do not go down to LocalDateTime.MIN
+     */
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1, 1, 1, 0, 0);
+
+    /**
+     * General states which are not overridden by unreturned
+     */
+    private static final List<GeneralStateEnum> SETTLED_STATES =
+            List.of(GeneralStateEnum.UNRETURNED, GeneralStateEnum.LOST, GeneralStateEnum.DONATION);
+
+    private final LoanService loanService;
+
+    private final LoanRepository loanRepository;
+
+    private final GameCopyRepository gameCopyRepository;
+
+    private final LoanStatusCache loanStatusCache;
+
+    private final AvailabilityIndex availabilityIndex;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Duration gracePeriod;
+
+    private final int chunkSize;
+
+    private final Clock clock;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong failedRuns = new AtomicLong();
+    private final AtomicLong totalOverdueLoans = new AtomicLong();
+    private final AtomicLong totalUnreturnedCopies = new AtomicLong();
+    private final AtomicLong totalChunks = new AtomicLong();
+    private final AtomicLong lastOverdueLoans = new AtomicLong();
+    private final AtomicLong lastUnreturnedCopies = new AtomicLong();
+    private volatile LocalDateTime lastStart;
+    private volatile long lastDurationMillis;
+
+    @Autowired
+    public OverdueLoanSweeper(LoanService loanService, LoanRepository loanRepository,
+                              GameCopyRepository gameCopyRepository, LoanStatusCache loanStatusCache,
+                              AvailabilityIndex availabilityIndex, TransactionTemplate transactionTemplate,
+                              @Value("${loan.sweeper.grace-period:P7D}") Duration gracePeriod,
+                              @Value("${loan.sweeper.chunk-size:500}") int chunkSize) {
+        this(loanService, loanRepository, gameCopyRepository, loanStatusCache, availabilityIndex, transactionTemplate,
+                gracePeriod, chunkSize, Clock.systemDefaultZone());
+    }
+
+    OverdueLoanSweeper(LoanService loanService, LoanRepository loanRepository, GameCopyRepository gameCopyRepository,
+                       LoanStatusCache loanStatusCache, AvailabilityIndex availabilityIndex,
+                       TransactionTemplate transactionTemplate, Duration gracePeriod, int chunkSize, Clock clock) {
+        this.loanService = loanService;
+        this.loanRepository = loanRepository;
+        this.gameCopyRepository = gameCopyRepository;
+        this.loanStatusCache = loanStatusCache;
+        this.availabilityIndex = availabilityIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.gracePeriod = gracePeriod;
+        this.chunkSize = chunkSize;
+        this.clock = clock;
+    }
+
+    @Scheduled(initialDelayString = "${loan.sweeper.initial-delay:PT1M}",
+            fixedDelayString = "${loan.sweeper.delay:PT15M}")
+    @Timed(value = "gamelibrary.service", histogram = true,
+            extraTags = {"entity", "loan", "operation", "scheduledSweep"})
+    public void scheduledSweep() {
+        try {
+            sweep();
+        } catch (RuntimeException e) {
+            // the next run starts over, chunks already committed are not swept again
+            failedRuns.incrementAndGet();
+            logger.error("Overdue loan sweep failed", e);
+        }
+    }
+
+    /**
+     * Runs a sweep, unless one is already running. Not timed : the scheduled sweep calls it on this instance, the
+     * timer of the scheduled sweep measures it.
+     *
+     * @return false if a sweep was already running
+     */
+    public boolean sweep() {
+        if (!running.compareAndSet(false, true))
+            return false;
+        try {
+            LocalDateTime now = LocalDateTime.now(clock);
+            lastStart = now;
+            lastOverdueLoans.set(0);
+            lastUnreturnedCopies.set(0);
+            long begin = System.nanoTime();
+            runs.incrementAndGet();
+
+            sweepOverdueLoans(now);
+            sweepUnreturnedCopies(now.minus(gracePeriod));
+
+            lastDurationMillis = Duration.ofNanos(System.nanoTime() - begin).toMillis();
+            logger.info("Overdue loan sweep done in {} ms : {} loan(s) overdue, {} copy(ies) unreturned",
+                    lastDurationMillis, lastOverdueLoans.get(), lastUnreturnedCopies.get());
+            return true;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Timed(value = "gamelibrary.service", histogram = true,
+            extraTags = {"entity", "loan", "operation", "status"})
+    public SweepStatusDto status() {
+        return new SweepStatusDto(running.get(), runs.get(), lastStart, lastDurationMillis, lastOverdueLoans.get(),
+                lastUnreturnedCopies.get(), totalOverdueLoans.get(), totalUnreturnedCopies.get(), totalChunks.get(),
+                failedRuns.get());
+    }
+
+    private void sweepOverdueLoans(LocalDateTime now) {
+        long runningId = loanStatusCache.idOf(LoanStatusEnum.RUNNING);
+        LocalDateTime afterEnd = KEYSET_START;
+        long afterId = 0;
+        while (true) {
+            LocalDateTime seekEnd = afterEnd;
+            long seekId = afterId;
+            int[] moved = new int[1];
+            List<Object[]> chunk = transactionTemplate.execute(status -> {
+                List<Object[]> rows = loanRepository.findEndedChunk(runningId, now, seekEnd, seekId,
+                        PageRequest.of(0, chunkSize));
+                moved[0] = loanService.transitionAll(
+                        rows.stream().map(row -> (Long) row[0]).collect(Collectors.toList()),
+                        LoanStatusEnum.OVERDUE);
+                return rows;
+            });
+            if (chunk.isEmpty())
+                return;
+            lastOverdueLoans.addAndGet(moved[0]);
+            totalOverdueLoans.addAndGet(moved[0]);
+            totalChunks.incrementAndGet();
+            Object[] last = chunk.get(chunk.size() - 1);
+            afterEnd = (LocalDateTime) last[1];
+            afterId = (Long) last[0];
+            logger.debug("Overdue loan sweep at end time {} : {} loan(s) overdue", afterEnd, lastOverdueLoans.get());
+            if (chunk.size() < chunkSize)
+                return;
+        }
+    }
+
+    private void sweepUnreturnedCopies(LocalDateTime limit) {
+        long overdueId = loanStatusCache.idOf(LoanStatusEnum.OVERDUE);
+        long afterId = 0;
+        while (true) {
+            int[] updated = new int[1];
+            List<Long> copyIds = loanRepository.findHeldCopyIdsChunk(overdueId, limit, SETTLED_STATES, afterId,
+                    PageRequest.of(0, chunkSize));
+            if (copyIds.isEmpty())
+                return;
+            List<Object[]> rows = transactionTemplate.execute(status -> {
+                updated[0] = gameCopyRepository.updateGeneralState(copyIds, GeneralStateEnum.UNRETURNED);
+                return gameCopyRepository.findAvailabilityFields(copyIds);
+            });
+            lastUnreturnedCopies.addAndGet(updated[0]);
+            totalUnreturnedCopies.addAndGet(updated[0]);
+            // committed, the bulk update is not seen by the entity listeners
+            rows.forEach(row -> availabilityIndex.indexCopy((Long) row[0], (Long) row[1], (Boolean) row[2],
+                    (GeneralStateEnum) row[3]));
+            totalChunks.incrementAndGet();
+            afterId = copyIds.get(copyIds.size() - 1);
+            logger.debug("Unreturned copy sweep at copy {} : {} copy(ies) unreturned", afterId,
+                    lastUnreturnedCopies.get());
+            if (copyIds.size() < chunkSize)
+                return;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.motoc.gamelibrary.business;
+
+import io.micrometer.core.annotation.Timed;
+import org.motoc.gamelibrary.business.index.FullTextIndex;
+import org.motoc.gamelibrary.business.index.SuggestIndex;
+import org.motoc.gamelibrary.dto.SuggestionDto;
+import org.motoc.gamelibrary.dto.TextSearchHitDto;
+import org.motoc.gamelibrary.technical.exception.BadRequestException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Full text search over the games and the articles, name suggestions
+ *
+ * @author RouzicJ
+ */
+@Service
+public class SearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchService.class);
+
+    private static final int MAX_SIZE = 100;
+
+    private final FullTextIndex fullTextIndex;
+
+    private final SuggestIndex suggestIndex;
+
+    @Autowired
+    public SearchService(FullTextIndex fullTextIndex, SuggestIndex suggestIndex) {
+        this.fullTextIndex = fullTextIndex;
+        this.suggestIndex = suggestIndex;
+    }
+
+    @Timed(value = "gamelibrary.service", histogram = true,
+            extraTags = {"entity", "catalog", "operation", "search"})
+    public List<TextSearchHitDto> search(String query, int size) {
+        if (query == null || query.isBlank())
+            throw new BadRequestException("Search query cannot be blank");
+        if (size < 1 || size > MAX_SIZE)
+            throw new BadRequestException("Search size must be between 1 and " + MAX_SIZE);
+        List<TextSearchHitDto> result = fullTextIndex.search(query, size);
+        logger.debug("Found {} hit(s) for query={}", result.size(), query);
+        return result;
+    }
+
+    /**
+     * @param type null for every type
+     */
+    @Timed(value = "gamelibrary.service", histogram = true,
+            extraTags = {"entity", "catalog", "operation", "suggest"})
+    public List<SuggestionDto> suggest(String prefix, SuggestIndex.SuggestionType type, int size) {
+        if (size < 1 || size > MAX_SIZE)
+            throw new BadRequestException("Suggestion size must be between 1 and " + MAX_SIZE);
+        List<SuggestionDto> result = suggestIndex.suggest(prefix, type, size);
+        logger.debug("Found {} suggestion(s) for prefix={}", result.size(), prefix);
+        return result;
+    }
+}
@@ -1,16 +1,23 @@
 package org.motoc.gamelibrary.business;
 
+import org.motoc.gamelibrary.business.index.GameFacetIndex;
+import org.motoc.gamelibrary.business.index.SuggestIndex;
 import org.motoc.gamelibrary.business.refactor.SimpleCrudMethodsImpl;
+import org.motoc.gamelibrary.business.refactor.cache.BoundedEntityCache;
 import org.motoc.gamelibrary.model.Theme;
 import org.motoc.gamelibrary.repository.ThemeRepository;
 import org.motoc.gamelibrary.repository.ThemeRepositoryCustom;
+import org.motoc.gamelibrary.technical.TransactionCallbacks;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
 
 import javax.transaction.Transactional;
+import java.time.Duration;
+import java.util.List;
 
 /**
  * Perform business logic on the web entity Theme
@@ -27,34 +34,94 @@ public class ThemeService extends SimpleCrudMethodsImpl<Theme, JpaRepository<The
 
     private final ThemeRepositoryCustom themeRepositoryCustom;
 
+    private final SuggestIndex suggestIndex;
+
+    private final GameFacetIndex facetIndex;
 
     @Autowired
     public ThemeService(ThemeRepository themeRepository, ThemeRepositoryCustom themeRepositoryCustom,
-                        JpaRepository<Theme, Long> themeGenericRepository) {
-        super(themeGenericRepository, Theme.class);
+                        JpaRepository<Theme, Long> themeGenericRepository, SuggestIndex suggestIndex,
+                        GameFacetIndex facetIndex, @Value("${theme.cache.max-size:1000}") int cacheMaxSize,
+                        @Value("${theme.cache.time-to-live:PT10M}") Duration cacheTimeToLive) {
+        // themes are found by id without their games
+        super(themeGenericRepository, Theme.class, Theme::getId, theme -> new Theme(theme.getId(), theme.getName()),
+                new BoundedEntityCache<>(cacheMaxSize, cacheTimeToLive));
         this.themeRepository = themeRepository;
         this.themeRepositoryCustom = themeRepositoryCustom;
+        this.suggestIndex = suggestIndex;
+        this.facetIndex = facetIndex;
     }
 
     // Methods
+
+    /**
+     * The suggest and facet indexes are updated once the transaction is committed
+     */
+    @Override
+    public Theme save(Theme theme) {
+        Theme result = super.save(theme);
+        suggest(result);
+        return result;
+    }
+
+    @Override
+    public List<Theme> saveAll(List<Theme> themes) {
+        List<Theme> result = super.saveAll(themes);
+        result.forEach(this::suggest);
+        return result;
+    }
+
+    @Override
+    public void deleteOne(Theme theme) {
+        super.deleteOne(theme);
+        unindex(theme.getId());
+    }
+
+    @Override
+    public void deleteById(long id) {
+        super.deleteById(id);
+        unindex(id);
+    }
+
     public Theme edit(Theme theme, Long id) {
-        return themeRepository.findById(id)
+        return timed("edit", () -> themeRepository.findById(id)
                 .map(themeFromPersistence -> {
                     themeFromPersistence.setName(theme.getName());
                     logger.debug("Found theme of id={} : {}", id, themeFromPersistence);
-                    return themeRepository.save(themeFromPersistence);
+                    evict(id);
+                    return suggest(themeRepository.save(themeFromPersistence));
                 })
                 .orElseGet(() -> {
                     theme.setId(id);
                     logger.debug("No theme of id={} found. Set theme : {}", id, theme);
-                    return themeRepository.save(theme);
-                });
+                    evict(id);
+                    return suggest(themeRepository.save(theme));
+                }));
     }
 
     /**
      * Calls the DAO to delete a theme by id
      */
     public void remove(Long id) {
-        themeRepositoryCustom.remove(id);
+        timed("remove", () -> {
+            themeRepositoryCustom.remove(id);
+            evict(id);
+            unindex(id);
+            return null;
+        });
+    }
+
+    private Theme suggest(Theme theme) {
+        long id = theme.getId();
+        String name = theme.getName();
+        TransactionCallbacks.afterCommit(() -> suggestIndex.put(SuggestIndex.SuggestionType.THEME, id, name));
+        return theme;
+    }
+
+    private void unindex(long id) {
+        TransactionCallbacks.afterCommit(() -> {
+            suggestIndex.remove(SuggestIndex.SuggestionType.THEME, id);
+            facetIndex.removeValue(GameFacetIndex.THEME, id);
+        });
     }
 }
@@ -0,0 +1,290 @@
+package org.motoc.gamelibrary.business.index;
+
+import org.motoc.gamelibrary.business.index.LoanStatusCache.LoanKind;
+import org.motoc.gamelibrary.dto.AvailabilityDto;
+import org.motoc.gamelibrary.model.enumeration.GeneralStateEnum;
+import org.motoc.gamelibrary.repository.GameCopyRepository;
+import org.motoc.gamelibrary.repository.LoanRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In memory availability of the game copies : available, on loan or reserved.
+ * <p>It holds each copy with its open loans, the loans which have not ended or are still running. Counts are
+ * computed at read time, so that a reservation stops counting once its window is over.
+ * It is built on startup, then kept up to date by {@link LoanIndexListener}.</p>
+ *
+ * @author RouzicJ
+ */
+@Component
+public class AvailabilityIndex {
+
+    /**
+     * States in which a loanable copy can be lent
+     */
+    private static final Set<GeneralStateEnum> LENDABLE_STATES = EnumSet.of(GeneralStateEnum.IN_ACTIVITY,
+            GeneralStateEnum.READY_TO_PLAY, GeneralStateEnum.TO_BE_PROTECTED);
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityIndex.class);
+
+    private final GameCopyRepository gameCopyRepository;
+
+    private final LoanRepository loanRepository;
+
+    private final LoanStatusCache loanStatusCache;
+
+    private final Clock clock;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private final Map<Long, CopyState> copies = new HashMap<>();
+    private final Map<Long, Set<Long>> copyIdsByGameId = new HashMap<>();
+    private final Map<Long, OpenLoan> loans = new HashMap<>();
+    private final Map<Long, Set<Long>> loanIdsByCopyId = new HashMap<>();
+
+    @Autowired
+    public AvailabilityIndex(GameCopyRepository gameCopyRepository, LoanRepository loanRepository,
+                             LoanStatusCache loanStatusCache) {
+        this(gameCopyRepository, loanRepository, loanStatusCache, Clock.systemDefaultZone());
+    }
+
+    AvailabilityIndex(GameCopyRepository gameCopyRepository, LoanRepository loanRepository,
+                      LoanStatusCache loanStatusCache, Clock clock) {
+        this.gameCopyRepository = gameCopyRepository;
+        this.loanRepository = loanRepository;
+        this.loanStatusCache = loanStatusCache;
+        this.clock = clock;
+    }
+
+    /**
+     * Loads the copies, then the loans which are open : not ended, or ended but still running
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        List<Object[]> copyRows = gameCopyRepository.findAllAvailabilityFields();
+        List<Object[]> loanRows = loanRepository.findOpenLoans(LocalDateTime.now(clock), LoanStatusCache.ON_LOAN_TAGS);
+        Map<Long, LoanKind> kindByLoanId = new HashMap<>();
+        for (Object[] row : loanRows)
+            kindByLoanId.put((Long) row[0], loanStatusCache.kindOf((Long) row[2]));
+
+        lock.writeLock().lock();
+        try {
+            copies.clear();
+            copyIdsByGameId.clear();
+            loans.clear();
+            loanIdsByCopyId.clear();
+            for (Object[] row : copyRows)
+                putCopy((Long) row[0], (Long) row[1], (Boolean) row[2], (GeneralStateEnum) row[3]);
+            for (Object[] row : loanRows)
+                putLoan((Long) row[0], (Long) row[1], kindByLoanId.get((Long) row[0]), (LocalDateTime) row[3],
+                        (LocalDateTime) row[4]);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Availability index built with {} copy(ies) and {} open loan(s)", copyRows.size(),
+                loanRows.size());
+    }
+
+    public void indexCopy(long copyId, long gameId, boolean loanable, GeneralStateEnum generalState) {
+        lock.writeLock().lock();
+        try {
+            CopyState previous = copies.get(copyId);
+            if (previous != null && previous.gameId != gameId)
+                detachFromGame(copyId, previous.gameId);
+            putCopy(copyId, gameId, loanable, generalState);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeCopy(long copyId) {
+        lock.writeLock().lock();
+        try {
+            CopyState removed = copies.remove(copyId);
+            if (removed == null)
+                return;
+            Set<Long> loanIds = loanIdsByCopyId.remove(copyId);
+            if (loanIds != null)
+                loanIds.forEach(loans::remove);
+            detachFromGame(copyId, removed.gameId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param copyId   null if the loan is not, or no more, attached to a copy
+     * @param statusId null if the loan has no status
+     */
+    public void indexLoan(long loanId, Long copyId, Long statusId, LocalDateTime start, LocalDateTime end) {
+        // resolved outside of the lock, the status may have to be read
+        LoanKind kind = loanStatusCache.kindOf(statusId);
+        lock.writeLock().lock();
+        try {
+            removeLoanLocked(loanId);
+            if (copyId != null && kind.isBlocking())
+                putLoan(loanId, copyId, kind, start, end);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeLoan(long loanId) {
+        lock.writeLock().lock();
+        try {
+            removeLoanLocked(loanId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Copy counts of the game, a game without copy has only zeros
+     */
+    public AvailabilityDto availability(long gameId) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        lock.readLock().lock();
+        try {
+            return availabilityLocked(gameId, now);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copy counts of each game, under a single lock acquisition
+     */
+    public Map<Long, AvailabilityDto> availabilities(Collection<Long> gameIds) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        Map<Long, AvailabilityDto> result = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            gameIds.forEach(gameId -> result.put(gameId, availabilityLocked(gameId, now)));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Copies of the game which can be lent, whatever their loans
+     */
+    public List<Long> lendableCopyIds(long gameId) {
+        lock.readLock().lock();
+        try {
+            List<Long> result = new ArrayList<>();
+            for (long copyId : copyIdsByGameId.getOrDefault(gameId, Collections.emptySet()))
+                if (copies.get(copyId).lendable)
+                    result.add(copyId);
+            Collections.sort(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private AvailabilityDto availabilityLocked(long gameId, LocalDateTime now) {
+        AvailabilityDto result = new AvailabilityDto();
+        for (long copyId : copyIdsByGameId.getOrDefault(gameId, Collections.emptySet())) {
+            CopyState copy = copies.get(copyId);
+            if (!copy.lendable)
+                continue;
+            boolean onLoan = false;
+            boolean reserved = false;
+            for (long loanId : loanIdsByCopyId.getOrDefault(copyId, Collections.emptySet())) {
+                OpenLoan loan = loans.get(loanId);
+                if (loan.kind == LoanKind.ON_LOAN)
+                    onLoan = true;
+                else if (!loan.start.isAfter(now) && loan.end.isAfter(now))
+                    reserved = true;
+            }
+            if (onLoan)
+                result.setOnLoan(result.getOnLoan() + 1);
+            else if (reserved)
+                result.setReserved(result.getReserved() + 1);
+            else
+                result.setAvailable(result.getAvailable() + 1);
+        }
+        return result;
+    }
+
+    /**
+     * Must be called with the write lock
+     */
+    private void putCopy(long copyId, long gameId, boolean loanable, GeneralStateEnum generalState) {
+        copies.put(copyId, new CopyState(gameId, loanable && LENDABLE_STATES.contains(generalState)));
+        copyIdsByGameId.computeIfAbsent(gameId, id -> new HashSet<>()).add(copyId);
+    }
+
+    /**
+     * Must be called with the write lock
+     */
+    private void detachFromGame(long copyId, long gameId) {
+        Set<Long> gameCopies = copyIdsByGameId.get(gameId);
+        gameCopies.remove(copyId);
+        if (gameCopies.isEmpty())
+            copyIdsByGameId.remove(gameId);
+    }
+
+    /**
+     * Must be called with the write lock. The copy of the loan may be indexed afterwards, by its own event.
+     */
+    private void putLoan(long loanId, long copyId, LoanKind kind, LocalDateTime start, LocalDateTime end) {
+        if (!kind.isBlocking())
+            return;
+        loans.put(loanId, new OpenLoan(copyId, kind, start, end));
+        loanIdsByCopyId.computeIfAbsent(copyId, id -> new HashSet<>()).add(loanId);
+    }
+
+    /**
+     * Must be called with the write lock
+     */
+    private void removeLoanLocked(long loanId) {
+        OpenLoan removed = loans.remove(loanId);
+        if (removed == null)
+            return;
+        Set<Long> loanIds = loanIdsByCopyId.get(removed.copyId);
+        loanIds.remove(loanId);
+        if (loanIds.isEmpty())
+            loanIdsByCopyId.remove(removed.copyId);
+    }
+
+    private static final class CopyState {
+
+        private final long gameId;
+        private final boolean lendable;
+
+        private CopyState(long gameId, boolean lendable) {
+            this.gameId = gameId;
+            this.lendable = lendable;
+        }
+    }
+
+    private static final class OpenLoan {
+
+        private final long copyId;
+        private final LoanKind kind;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        private OpenLoan(long copyId, LoanKind kind, LocalDateTime start, LocalDateTime end) {
+            this.copyId = copyId;
+            this.kind = kind;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
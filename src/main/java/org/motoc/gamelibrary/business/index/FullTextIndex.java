@@ -0,0 +1,199 @@
+package org.motoc.gamelibrary.business.index;
+
+import org.motoc.gamelibrary.dto.TextSearchHitDto;
+import org.motoc.gamelibrary.model.enumeration.GameNatureEnum;
+import org.motoc.gamelibrary.repository.ArticleRepository;
+import org.motoc.gamelibrary.repository.GameRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In memory inverted index of the game and article texts, ranked with BM25.
+ * <p>It is built on startup, then kept up to date by {@link FullTextIndexListener} on each persisted write.</p>
+ *
+ * @author RouzicJ
+ */
+@Component
+public class FullTextIndex {
+
+    public enum DocumentType {GAME, ARTICLE}
+
+    /**
+     * Usual BM25 parameters : term frequency saturation and length normalization
+     */
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final Logger logger = LoggerFactory.getLogger(FullTextIndex.class);
+
+    private final GameRepository gameRepository;
+
+    private final ArticleRepository articleRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private final Map<String, Map<DocumentKey, Integer>> postings = new HashMap<>();
+    private final Map<DocumentKey, TextDocument> documents = new HashMap<>();
+    private long totalLength;
+
+    @Autowired
+    public FullTextIndex(GameRepository gameRepository, ArticleRepository articleRepository) {
+        this.gameRepository = gameRepository;
+        this.articleRepository = articleRepository;
+    }
+
+    /**
+     * Reads the texts through projections, the entities and their associations are not loaded
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        List<TextDocument> loaded = new ArrayList<>();
+        for (Object[] row : gameRepository.findAllTextFields())
+            loaded.add(TextDocument.game((Long) row[0], (String) row[1], (GameNatureEnum) row[2], (String) row[3],
+                    (String) row[4], (String) row[5], (String) row[6]));
+        for (Object[] row : articleRepository.findAllTextFields())
+            loaded.add(TextDocument.article((Long) row[0], (String) row[1], (String) row[2]));
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            totalLength = 0;
+            loaded.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Full text index built with {} document(s) and {} term(s)", loaded.size(), postings.size());
+    }
+
+    public void index(TextDocument document) {
+        lock.writeLock().lock();
+        try {
+            remove(document.getKey());
+            put(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(DocumentType type, long id) {
+        lock.writeLock().lock();
+        try {
+            remove(new DocumentKey(type, id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Documents containing any of the query words, the best ranked first
+     *
+     * @param query folded the same way as the texts, so that "societe" finds "Société"
+     * @param limit maximum number of hits
+     */
+    public List<TextSearchHitDto> search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(TextNormalizer.terms(query));
+        lock.readLock().lock();
+        try {
+            if (documents.isEmpty())
+                return Collections.emptyList();
+            int documentCount = documents.size();
+            double averageLength = Math.max(1d, (double) totalLength / documentCount);
+
+            Map<DocumentKey, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                Map<DocumentKey, Integer> frequencies = postings.get(term);
+                if (frequencies == null)
+                    continue;
+                double idf = Math.log(1 + (documentCount - frequencies.size() + 0.5) / (frequencies.size() + 0.5));
+                frequencies.forEach((key, frequency) -> {
+                    double norm = K1 * (1 - B + B * documents.get(key).getLength() / averageLength);
+                    scores.merge(key, idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+                });
+            }
+
+            // keeps the best hits only, the lowest score on top
+            PriorityQueue<Map.Entry<DocumentKey, Double>> best =
+                    new PriorityQueue<>(Math.max(1, limit), Map.Entry.comparingByValue());
+            for (Map.Entry<DocumentKey, Double> score : scores.entrySet()) {
+                best.offer(score);
+                if (best.size() > limit)
+                    best.poll();
+            }
+            List<TextSearchHitDto> hits = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                Map.Entry<DocumentKey, Double> hit = best.poll();
+                hits.add(new TextSearchHitDto(hit.getKey().type, hit.getKey().id,
+                        documents.get(hit.getKey()).getTitle(), hit.getValue()));
+            }
+            Collections.reverse(hits);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Must be called with the write lock, the document not being indexed
+     */
+    private void put(TextDocument document) {
+        documents.put(document.getKey(), document);
+        totalLength += document.getLength();
+        document.getTermFrequencies().forEach((term, frequency) ->
+                postings.computeIfAbsent(term, t -> new HashMap<>()).put(document.getKey(), frequency));
+    }
+
+    /**
+     * Must be called with the write lock
+     */
+    private void remove(DocumentKey key) {
+        TextDocument removed = documents.remove(key);
+        if (removed == null)
+            return;
+        totalLength -= removed.getLength();
+        removed.getTermFrequencies().keySet().forEach(term -> {
+            Map<DocumentKey, Integer> frequencies = postings.get(term);
+            frequencies.remove(key);
+            if (frequencies.isEmpty())
+                postings.remove(term);
+        });
+    }
+
+    /**
+     * Games and articles have their own id sequences
+     */
+    static final class DocumentKey {
+
+        private final DocumentType type;
+        private final long id;
+
+        DocumentKey(DocumentType type, long id) {
+            this.type = type;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            DocumentKey that = (DocumentKey) o;
+            return id == that.id && type == that.type;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, id);
+        }
+    }
+}
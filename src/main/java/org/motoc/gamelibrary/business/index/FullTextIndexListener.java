@@ -0,0 +1,51 @@
+package org.motoc.gamelibrary.business.index;
+
+import org.motoc.gamelibrary.model.Article;
+import org.motoc.gamelibrary.model.Game;
+import org.motoc.gamelibrary.technical.TransactionCallbacks;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * JPA listener of the indexed entities, created by hibernate through the Spring bean container.
+ * The texts are read when the write is flushed, the index is updated once it is committed.
+ *
+ * @author RouzicJ
+ */
+@Component
+public class FullTextIndexListener {
+
+    /**
+     * Resolved lazily : the index needs the repositories, which need the entity manager factory creating this listener
+     */
+    private final ObjectProvider<FullTextIndex> index;
+
+    @Autowired
+    public FullTextIndexListener(ObjectProvider<FullTextIndex> index) {
+        this.index = index;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void saved(Object entity) {
+        TextDocument document = entity instanceof Game ? TextDocument.of((Game) entity) :
+                TextDocument.of((Article) entity);
+        TransactionCallbacks.afterCommit(() -> index.getObject().index(document));
+    }
+
+    @PostRemove
+    public void removed(Object entity) {
+        if (entity instanceof Game) {
+            long id = ((Game) entity).getId();
+            TransactionCallbacks.afterCommit(() -> index.getObject().remove(FullTextIndex.DocumentType.GAME, id));
+        } else {
+            long id = ((Article) entity).getId();
+            TransactionCallbacks.afterCommit(() -> index.getObject().remove(FullTextIndex.DocumentType.ARTICLE, id));
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package org.motoc.gamelibrary.business.index;
+
+import org.motoc.gamelibrary.dto.GameFacetsDto;
+import org.motoc.gamelibrary.model.Category;
+import org.motoc.gamelibrary.model.Game;
+import org.motoc.gamelibrary.model.Theme;
+import org.motoc.gamelibrary.model.enumeration.GameNatureEnum;
+import org.motoc.gamelibrary.repository.GameRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In memory index of the game facets (nature, themes, categories, number of player and age buckets).
+ * <p>Each game gets a document number, each facet value a bit set of the documents having it, so that filtered facet
+ * counts are bit set intersections. It is built on startup, then kept up to date by the game service.</p>
+ *
+ * @author RouzicJ
+ */
+@Component
+public class GameFacetIndex {
+
+    public static final String NATURE = "nature";
+    public static final String THEME = "theme";
+    public static final String CATEGORY = "category";
+    public static final String NUMBER_OF_PLAYER = "numberOfPlayer";
+    public static final String AGE = "age";
+
+    public static final List<String> FACETS = List.of(NATURE, THEME, CATEGORY, NUMBER_OF_PLAYER, AGE);
+
+    private static final Logger logger = LoggerFactory.getLogger(GameFacetIndex.class);
+
+    private final GameRepository gameRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private final Map<Long, Integer> documentByGameId = new HashMap<>();
+    private final BitSet liveDocuments = new BitSet();
+    private final Map<String, Map<String, BitSet>> facets = new HashMap<>();
+
+    @Autowired
+    public GameFacetIndex(GameRepository gameRepository) {
+        this.gameRepository = gameRepository;
+        FACETS.forEach(facet -> facets.put(facet, new HashMap<>()));
+    }
+
+    /**
+     * Loads every game with three queries : the facet columns, then the theme and category links
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        Map<Long, FacetDocument> documents = new HashMap<>();
+        for (Object[] row : gameRepository.findAllFacetFields()) {
+            long gameId = (Long) row[0];
+            documents.put(gameId, new FacetDocument(gameId, (GameNatureEnum) row[1], (Short) row[2], (Short) row[3],
+                    (Short) row[4], (Short) row[5], new HashSet<>(), new HashSet<>()));
+        }
+        for (Object[] link : gameRepository.findAllThemeLinks())
+            documents.get((Long) link[0]).themeIds.add((Long) link[1]);
+        for (Object[] link : gameRepository.findAllCategoryLinks())
+            documents.get((Long) link[0]).categoryIds.add((Long) link[1]);
+
+        lock.writeLock().lock();
+        try {
+            documentByGameId.clear();
+            liveDocuments.clear();
+            facets.values().forEach(Map::clear);
+            documents.values().forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Game facet index built with {} game(s)", documents.size());
+    }
+
+    /**
+     * Reads the facet values of a game, its themes and categories must be loadable
+     */
+    public static FacetDocument documentOf(Game game) {
+        return new FacetDocument(game.getId(), game.getNature(), game.getMinNumberOfPlayer(),
+                game.getMaxNumberOfPlayer(), game.getMinAge(), game.getMinMonth(),
+                game.getThemes().stream().map(Theme::getId).collect(Collectors.toSet()),
+                game.getCategories().stream().map(Category::getId).collect(Collectors.toSet()));
+    }
+
+    public void index(FacetDocument document) {
+        lock.writeLock().lock();
+        try {
+            remove(document.gameId);
+            put(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long gameId) {
+        lock.writeLock().lock();
+        try {
+            Integer document = documentByGameId.remove(gameId);
+            if (document == null)
+                return;
+            liveDocuments.clear(document);
+            facets.values().forEach(values -> values.values().forEach(bits -> bits.clear(document)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a value from a facet, once the theme or category it stands for is deleted
+     */
+    public void removeValue(String facet, long id) {
+        lock.writeLock().lock();
+        try {
+            facets.get(facet).remove(String.valueOf(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the games of each facet value, among the games matching the selection.
+     * Values of a same facet are OR-ed, facets are AND-ed. The counts of a facet ignore its own selected values, so
+     * that the other values of this facet can still be offered.
+     *
+     * @param selection selected values by facet name, names out of {@link #FACETS} (paging, cache busters) are ignored
+     */
+    public GameFacetsDto count(Map<String, List<String>> selection) {
+        lock.readLock().lock();
+        try {
+            Map<String, BitSet> selectedByFacet = new HashMap<>();
+            selection.forEach((facet, values) -> {
+                Map<String, BitSet> facetValues = facets.get(facet);
+                if (facetValues == null)
+                    return;
+                BitSet selected = new BitSet();
+                values.stream().map(facetValues::get).filter(Objects::nonNull).forEach(selected::or);
+                selectedByFacet.put(facet, selected);
+            });
+
+            Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+            // reused by every intersection of the call, its words are allocated once
+            BitSet intersection = new BitSet(liveDocuments.length());
+            for (String facet : FACETS) {
+                BitSet filter = matching(selectedByFacet, facet);
+                Map<String, Integer> facetCounts = new TreeMap<>();
+                facets.get(facet).forEach((value, bits) -> {
+                    // the values of removed games may be left without any game
+                    if (bits.isEmpty())
+                        return;
+                    intersection.clear();
+                    intersection.or(bits);
+                    intersection.and(filter);
+                    int count = intersection.cardinality();
+                    if (count > 0)
+                        facetCounts.put(value, count);
+                });
+                counts.put(facet, facetCounts);
+            }
+            return new GameFacetsDto(matching(selectedByFacet, null).cardinality(), counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Live documents matching the selected values of every facet but the ignored one
+     */
+    private BitSet matching(Map<String, BitSet> selectedByFacet, String ignoredFacet) {
+        BitSet filter = (BitSet) liveDocuments.clone();
+        selectedByFacet.forEach((facet, selected) -> {
+            if (!facet.equals(ignoredFacet))
+                filter.and(selected);
+        });
+        return filter;
+    }
+
+    /**
+     * Must be called with the write lock, the game not being indexed
+     */
+    private void put(FacetDocument document) {
+        // the lowest free document number is reused, so that bit sets stay dense
+        int number = liveDocuments.nextClearBit(0);
+        documentByGameId.put(document.gameId, number);
+        liveDocuments.set(number);
+        if (document.nature != null)
+            set(NATURE, document.nature.name(), number);
+        document.themeIds.forEach(themeId -> set(THEME, String.valueOf(themeId), number));
+        document.categoryIds.forEach(categoryId -> set(CATEGORY, String.valueOf(categoryId), number));
+        numberOfPlayerBuckets(document.minNumberOfPlayer, document.maxNumberOfPlayer)
+                .forEach(bucket -> set(NUMBER_OF_PLAYER, bucket, number));
+        set(AGE, ageBucket(document.minAge, document.minMonth), number);
+    }
+
+    private void set(String facet, String value, int document) {
+        facets.get(facet).computeIfAbsent(value, v -> new BitSet()).set(document);
+    }
+
+    /**
+     * Every bucket covered by the number of player range of the game, a max of 0 meaning no upper bound
+     */
+    static List<String> numberOfPlayerBuckets(short min, short max) {
+        List<String> buckets = new ArrayList<>();
+        int[][] bounds = {{1, 1}, {2, 2}, {3, 3}, {4, 4}, {5, 6}, {7, Integer.MAX_VALUE}};
+        String[] labels = {"1", "2", "3", "4", "5-6", "7+"};
+        for (int i = 0; i < bounds.length; i++)
+            if (min <= bounds[i][1] && (max == 0 || max >= bounds[i][0]))
+                buckets.add(labels[i]);
+        return buckets;
+    }
+
+    /**
+     * The bucket of the age from which the game can be played
+     */
+    static String ageBucket(short minAge, short minMonth) {
+        if (minMonth > 0 || minAge < 3)
+            return "0-2";
+        if (minAge < 6)
+            return "3-5";
+        if (minAge < 8)
+            return "6-7";
+        if (minAge < 12)
+            return "8-11";
+        if (minAge < 16)
+            return "12-15";
+        return "16+";
+    }
+
+    /**
+     * The facet values of a game, detached from any persistence context
+     */
+    public static class FacetDocument {
+
+        private final long gameId;
+        private final GameNatureEnum nature;
+        private final short minNumberOfPlayer;
+        private final short maxNumberOfPlayer;
+        private final short minAge;
+        private final short minMonth;
+        private final Set<Long> themeIds;
+        private final Set<Long> categoryIds;
+
+        FacetDocument(long gameId, GameNatureEnum nature, short minNumberOfPlayer, short maxNumberOfPlayer,
+                      short minAge, short minMonth, Set<Long> themeIds, Set<Long> categoryIds) {
+            this.gameId = gameId;
+            this.nature = nature;
+            this.minNumberOfPlayer = minNumberOfPlayer;
+            this.maxNumberOfPlayer = maxNumberOfPlayer;
+            this.minAge = minAge;
+            this.minMonth = minMonth;
+            this.themeIds = themeIds;
+            this.categoryIds = categoryIds;
+        }
+    }
+}
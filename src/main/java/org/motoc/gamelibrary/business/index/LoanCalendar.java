@@ -0,0 +1,258 @@
+package org.motoc.gamelibrary.business.index;
+
+import org.motoc.gamelibrary.business.index.LoanStatusCache.LoanKind;
+import org.motoc.gamelibrary.dto.TimeWindowDto;
+import org.motoc.gamelibrary.repository.LoanRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In memory calendar of the copy loans which hold the copy (proposed, validated or running).
+ * <p>The loans of a copy are sorted by start time. As the longest loan of the copy is known, the loans which may
+ * overlap a window all start between its start minus this duration and its end : a conflict check is a sub map
+ * lookup in O(log n), plus the few loans in this range. A running loan past its end keeps the copy until it is
+ * returned.</p>
+ *
+ * @author RouzicJ
+ */
+@Component
+public class LoanCalendar {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoanCalendar.class);
+
+    private final LoanRepository loanRepository;
+
+    private final LoanStatusCache loanStatusCache;
+
+    private final Clock clock;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private final Map<Long, CopyLoans> loansByCopyId = new HashMap<>();
+    private final Map<Long, Booking> bookingByLoanId = new HashMap<>();
+
+    @Autowired
+    public LoanCalendar(LoanRepository loanRepository, LoanStatusCache loanStatusCache) {
+        this(loanRepository, loanStatusCache, Clock.systemDefaultZone());
+    }
+
+    LoanCalendar(LoanRepository loanRepository, LoanStatusCache loanStatusCache, Clock clock) {
+        this.loanRepository = loanRepository;
+        this.loanStatusCache = loanStatusCache;
+        this.clock = clock;
+    }
+
+    /**
+     * The clock telling which loans are still running, for the database checks which must agree with the calendar
+     */
+    public Clock clock() {
+        return clock;
+    }
+
+    /**
+     * Loads the loans which are not ended, or still running
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        List<Booking> bookings = new ArrayList<>();
+        for (Object[] row : loanRepository.findOpenLoans(LocalDateTime.now(clock), LoanStatusCache.ON_LOAN_TAGS)) {
+            LoanKind kind = loanStatusCache.kindOf((Long) row[2]);
+            if (kind.isBlocking())
+                bookings.add(new Booking((Long) row[0], (Long) row[1], (LocalDateTime) row[3],
+                        (LocalDateTime) row[4], kind == LoanKind.ON_LOAN));
+        }
+
+        lock.writeLock().lock();
+        try {
+            loansByCopyId.clear();
+            bookingByLoanId.clear();
+            bookings.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Loan calendar built with {} booking(s)", bookings.size());
+    }
+
+    /**
+     * @param copyId   null if the loan is not, or no more, attached to a copy
+     * @param statusId null if the loan has no status
+     */
+    public void index(long loanId, Long copyId, Long statusId, LocalDateTime start, LocalDateTime end) {
+        LoanKind kind = loanStatusCache.kindOf(statusId);
+        lock.writeLock().lock();
+        try {
+            removeLocked(loanId);
+            if (copyId != null && kind.isBlocking())
+                put(new Booking(loanId, copyId, start, end, kind == LoanKind.ON_LOAN));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long loanId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(loanId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the loans of the copy overlapping [start, end), the ignored loan excepted
+     *
+     * @param ignoredLoanId the loan being edited, or null
+     */
+    public List<Long> conflicts(long copyId, LocalDateTime start, LocalDateTime end, Long ignoredLoanId) {
+        lock.readLock().lock();
+        try {
+            List<Long> result = new ArrayList<>();
+            for (Booking booking : overlapping(copyId, start, end))
+                if (!Objects.equals(booking.loanId, ignoredLoanId))
+                    result.add(booking.loanId);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Windows of [from, to) in which the copy is not booked, in chronological order
+     */
+    public List<TimeWindowDto> freeWindows(long copyId, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        lock.readLock().lock();
+        try {
+            List<TimeWindowDto> result = new ArrayList<>();
+            LocalDateTime cursor = from;
+            for (Booking booking : overlapping(copyId, from, to)) {
+                if (booking.start.isAfter(cursor))
+                    result.add(new TimeWindowDto(cursor, booking.start));
+                if (booking.endAt(now).isAfter(cursor))
+                    cursor = booking.endAt(now);
+                if (!cursor.isBefore(to))
+                    return result;
+            }
+            if (cursor.isBefore(to))
+                result.add(new TimeWindowDto(cursor, to));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Must be called with the read lock. Bookings overlapping [start, end), sorted by start.
+     */
+    private List<Booking> overlapping(long copyId, LocalDateTime start, LocalDateTime end) {
+        CopyLoans copyLoans = loansByCopyId.get(copyId);
+        if (copyLoans == null || !start.isBefore(end))
+            return Collections.emptyList();
+        LocalDateTime now = LocalDateTime.now(clock);
+        // a booking starting before start minus the longest duration ends before start
+        Slot lowest = new Slot(start.minus(copyLoans.longest), Long.MIN_VALUE);
+        Slot highest = new Slot(end, Long.MIN_VALUE);
+        Map<Slot, Booking> result = new TreeMap<>();
+        for (Map.Entry<Slot, Booking> booking : copyLoans.byStart.subMap(lowest, true, highest, false).entrySet())
+            if (booking.getValue().endAt(now).isAfter(start))
+                result.put(booking.getKey(), booking.getValue());
+        // overdue loans may start earlier
+        for (Booking booking : copyLoans.running.values())
+            if (booking.start.isBefore(end) && booking.endAt(now).isAfter(start))
+                result.put(new Slot(booking.start, booking.loanId), booking);
+        return new ArrayList<>(result.values());
+    }
+
+    /**
+     * Must be called with the write lock, the loan not being indexed
+     */
+    private void put(Booking booking) {
+        CopyLoans copyLoans = loansByCopyId.computeIfAbsent(booking.copyId, id -> new CopyLoans());
+        copyLoans.byStart.put(new Slot(booking.start, booking.loanId), booking);
+        Duration duration = Duration.between(booking.start, booking.end);
+        if (duration.compareTo(copyLoans.longest) > 0)
+            copyLoans.longest = duration;
+        if (booking.running)
+            copyLoans.running.put(booking.loanId, booking);
+        bookingByLoanId.put(booking.loanId, booking);
+    }
+
+    /**
+     * Must be called with the write lock. The longest duration of the copy is kept, it only widens the lookups.
+     */
+    private void removeLocked(long loanId) {
+        Booking removed = bookingByLoanId.remove(loanId);
+        if (removed == null)
+            return;
+        CopyLoans copyLoans = loansByCopyId.get(removed.copyId);
+        copyLoans.byStart.remove(new Slot(removed.start, loanId));
+        copyLoans.running.remove(loanId);
+        if (copyLoans.byStart.isEmpty())
+            loansByCopyId.remove(removed.copyId);
+    }
+
+    private static final class CopyLoans {
+
+        private final NavigableMap<Slot, Booking> byStart = new TreeMap<>();
+        private final Map<Long, Booking> running = new HashMap<>();
+        private Duration longest = Duration.ZERO;
+    }
+
+    /**
+     * Sort key of a booking, the loan id breaking ties between equal start times
+     */
+    private static final class Slot implements Comparable<Slot> {
+
+        private final LocalDateTime start;
+        private final long loanId;
+
+        private Slot(LocalDateTime start, long loanId) {
+            this.start = start;
+            this.loanId = loanId;
+        }
+
+        @Override
+        public int compareTo(Slot other) {
+            int byStart = start.compareTo(other.start);
+            return byStart != 0 ? byStart : Long.compare(loanId, other.loanId);
+        }
+    }
+
+    private static final class Booking {
+
+        private final long loanId;
+        private final long copyId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final boolean running;
+
+        private Booking(long loanId, long copyId, LocalDateTime start, LocalDateTime end, boolean running) {
+            this.loanId = loanId;
+            this.copyId = copyId;
+            this.start = start;
+            this.end = end;
+            this.running = running;
+        }
+
+        /**
+         * A running loan past its end holds the copy with no known end
+         */
+        private LocalDateTime endAt(LocalDateTime now) {
+            return running && !end.isAfter(now) ? LocalDateTime.MAX : end;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.motoc.gamelibrary.business.index;
+
+import org.hibernate.proxy.HibernateProxy;
+import org.motoc.gamelibrary.business.MemberLoanSummaryService;
+import org.motoc.gamelibrary.model.Game;
+import org.motoc.gamelibrary.model.GameCopy;
+import org.motoc.gamelibrary.model.Loan;
+import org.motoc.gamelibrary.model.LoanStatus;
+import org.motoc.gamelibrary.model.enumeration.GeneralStateEnum;
+import org.motoc.gamelibrary.technical.TransactionCallbacks;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import java.time.LocalDateTime;
+import java.util.function.ToLongFunction;
+
+/**
+ * JPA listener of the game copies and the loans, feeding the availability index, the loan calendar and the member loan
+ * summaries. It is created by
+ * hibernate through the Spring bean container. Associations are read by id, so that no lazy proxy is initialized
+ * during a flush.
+ *
+ * @author RouzicJ
+ */
+@Component
+public class LoanIndexListener {
+
+    /**
+     * Resolved lazily : the indexes need the repositories, which need the entity manager factory creating this listener
+     */
+    private final ObjectProvider<AvailabilityIndex> availabilityIndex;
+
+    private final ObjectProvider<LoanCalendar> loanCalendar;
+
+    private final ObjectProvider<MemberLoanSummaryService> memberLoanSummaryService;
+
+    @Autowired
+    public LoanIndexListener(ObjectProvider<AvailabilityIndex> availabilityIndex,
+                             ObjectProvider<LoanCalendar> loanCalendar,
+                             ObjectProvider<MemberLoanSummaryService> memberLoanSummaryService) {
+        this.availabilityIndex = availabilityIndex;
+        this.loanCalendar = loanCalendar;
+        this.memberLoanSummaryService = memberLoanSummaryService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void saved(Object entity) {
+        if (entity instanceof GameCopy) {
+            GameCopy copy = (GameCopy) entity;
+            long copyId = copy.getId();
+            Long gameId = idOf(copy.getGame(), Game::getId);
+            boolean loanable = copy.isLoanable();
+            GeneralStateEnum generalState = copy.getGeneralState();
+            if (gameId != null)
+                TransactionCallbacks.afterCommit(() ->
+                        availabilityIndex.getObject().indexCopy(copyId, gameId, loanable, generalState));
+        } else {
+            Loan loan = (Loan) entity;
+            long loanId = loan.getId();
+            Long copyId = idOf(loan.getGameCopy(), GameCopy::getId);
+            Long statusId = idOf(loan.getLoanStatus(), LoanStatus::getId);
+            LocalDateTime start = loan.getLoanStartTime();
+            LocalDateTime end = loan.getLoanEndTime();
+            String userUuid = loan.getUserUuid();
+            TransactionCallbacks.afterCommit(() -> {
+                availabilityIndex.getObject().indexLoan(loanId, copyId, statusId, start, end);
+                loanCalendar.getObject().index(loanId, copyId, statusId, start, end);
+                memberLoanSummaryService.getObject().markDirty(userUuid);
+            });
+        }
+    }
+
+    @PostRemove
+    public void removed(Object entity) {
+        if (entity instanceof GameCopy) {
+            long copyId = ((GameCopy) entity).getId();
+            TransactionCallbacks.afterCommit(() -> availabilityIndex.getObject().removeCopy(copyId));
+        } else {
+            Loan loan = (Loan) entity;
+            long loanId = loan.getId();
+            String userUuid = loan.getUserUuid();
+            TransactionCallbacks.afterCommit(() -> {
+                availabilityIndex.getObject().removeLoan(loanId);
+                loanCalendar.getObject().remove(loanId);
+                memberLoanSummaryService.getObject().markDirty(userUuid);
+            });
+        }
+    }
+
+    /**
+     * The id of an associated entity, without initializing it when it is a proxy
+     */
+    private static <T> Long idOf(T reference, ToLongFunction<T> getId) {
+        if (reference == null)
+            return null;
+        if (reference instanceof HibernateProxy)
+            return (Long) ((HibernateProxy) reference).getHibernateLazyInitializer().getIdentifier();
+        return getId.applyAsLong(reference);
+    }
+}
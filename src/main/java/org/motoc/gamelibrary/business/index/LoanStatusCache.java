@@ -0,0 +1,147 @@
+package org.motoc.gamelibrary.business.index;
+
+import org.motoc.gamelibrary.model.enumeration.LoanStatusEnum;
+import org.motoc.gamelibrary.repository.LoanStatusRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.motoc.gamelibrary.model.enumeration.LoanStatusEnum.*;
+
+/**
+ * The loan statuses by id and by step, so that loans can be read and moved without looking statuses up.
+ * <p>Loan statuses are reference data : they are loaded on startup in an immutable snapshot, replaced as a whole
+ * when an unknown status is met.</p>
+ *
+ * @author RouzicJ
+ */
+@Component
+public class LoanStatusCache {
+
+    public enum LoanKind {
+
+        /**
+         * The copy is booked over the loan window
+         */
+        RESERVED,
+
+        /**
+         * The copy is out until it is returned
+         */
+        ON_LOAN,
+
+        /**
+         * The loan does not hold the copy anymore
+         */
+        CLOSED;
+
+        /**
+         * The copy cannot be lent to someone else over the loan window
+         */
+        public boolean isBlocking() {
+            return this != CLOSED;
+        }
+    }
+
+    /**
+     * Tags of the statuses holding the copy
+     */
+    public static final List<String> BLOCKING_TAGS = tags(PROPOSED, VALIDATED, RUNNING, OVERDUE);
+
+    /**
+     * Tags of the statuses of a copy which is out
+     */
+    public static final List<String> ON_LOAN_TAGS = tags(RUNNING, OVERDUE);
+
+    private static final Logger logger = LoggerFactory.getLogger(LoanStatusCache.class);
+
+    private final LoanStatusRepository loanStatusRepository;
+
+    private volatile Snapshot snapshot = new Snapshot(Collections.emptyList());
+
+    @Autowired
+    public LoanStatusCache(LoanStatusRepository loanStatusRepository) {
+        this.loanStatusRepository = loanStatusRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        snapshot = new Snapshot(loanStatusRepository.findAllTags());
+        logger.info("Loan status cache loaded with {} status(es)", snapshot.tagById.size());
+    }
+
+    /**
+     * @throws IllegalStateException if no status has the tag of this step
+     */
+    public long idOf(LoanStatusEnum status) {
+        Long id = snapshot.idByStatus.get(status);
+        if (id == null) {
+            load();
+            id = snapshot.idByStatus.get(status);
+        }
+        if (id == null)
+            throw new IllegalStateException("No loan status tagged " + status.getTag());
+        return id;
+    }
+
+    /**
+     * @return empty for a status which is not a known step, or an unknown id
+     */
+    public Optional<LoanStatusEnum> statusOf(Long statusId) {
+        if (statusId == null)
+            return Optional.empty();
+        Snapshot current = snapshot;
+        if (!current.tagById.containsKey(statusId)) {
+            load();
+            current = snapshot;
+        }
+        return Optional.ofNullable(current.tagById.get(statusId)).flatMap(LoanStatusEnum::fromTag);
+    }
+
+    /**
+     * @param statusId null if the loan has no status
+     */
+    public LoanKind kindOf(Long statusId) {
+        return statusOf(statusId).map(LoanStatusCache::kindOf).orElse(LoanKind.CLOSED);
+    }
+
+    static LoanKind kindOf(LoanStatusEnum status) {
+        switch (status) {
+            case PROPOSED:
+            case VALIDATED:
+                return LoanKind.RESERVED;
+            case RUNNING:
+            case OVERDUE:
+                return LoanKind.ON_LOAN;
+            default:
+                return LoanKind.CLOSED;
+        }
+    }
+
+    private static List<String> tags(LoanStatusEnum... statuses) {
+        return Arrays.stream(statuses).map(LoanStatusEnum::getTag).collect(Collectors.toUnmodifiableList());
+    }
+
+    private static final class Snapshot {
+
+        private final Map<Long, String> tagById;
+        private final Map<LoanStatusEnum, Long> idByStatus;
+
+        private Snapshot(List<Object[]> rows) {
+            Map<Long, String> tags = new HashMap<>();
+            Map<LoanStatusEnum, Long> ids = new EnumMap<>(LoanStatusEnum.class);
+            for (Object[] row : rows) {
+                tags.put((Long) row[0], (String) row[1]);
+                LoanStatusEnum.fromTag((String) row[1]).ifPresent(status -> ids.put(status, (Long) row[0]));
+            }
+            this.tagById = Map.copyOf(tags);
+            this.idByStatus = Collections.unmodifiableMap(ids);
+        }
+    }
+}
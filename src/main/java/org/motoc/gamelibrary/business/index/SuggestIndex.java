@@ -0,0 +1,222 @@
+package org.motoc.gamelibrary.business.index;
+
+import org.motoc.gamelibrary.dto.SuggestionDto;
+import org.motoc.gamelibrary.repository.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Prefix index of the names shown in the admin forms : games, creators, publishers, sellers, themes and keywords.
+ * <p>Each word start of a folded name is a key of a sorted map, prefixed by the type of the name, so that suggesting
+ * is a sub map walk per type, stopped once enough names are found. The starts of names and the other words have a
+ * map each, so that the names starting with the prefix come first without walking the others.
+ * Lookups do not lock, writes are serialized.</p>
+ *
+ * @author RouzicJ
+ */
+@Component
+public class SuggestIndex {
+
+    public enum SuggestionType {GAME, CREATOR, PUBLISHER, SELLER, THEME, KEYWORD}
+
+    private static final Logger logger = LoggerFactory.getLogger(SuggestIndex.class);
+
+    /**
+     * Separates the matched text from the owner in the keys, lower than any character of a name
+     */
+    private static final char SEPARATOR = '\u0000';
+
+    private final GameRepository gameRepository;
+    private final CreatorRepository creatorRepository;
+    private final PublisherRepository publisherRepository;
+    private final SellerRepository sellerRepository;
+    private final ThemeRepository themeRepository;
+    private final KeywordRepository keywordRepository;
+
+    private static final List<SuggestionType> TYPES = List.of(SuggestionType.values());
+
+    private final ConcurrentSkipListMap<String, SuggestionDto> nameStarts = new ConcurrentSkipListMap<>();
+
+    private final ConcurrentSkipListMap<String, SuggestionDto> innerWords = new ConcurrentSkipListMap<>();
+
+    /**
+     * Keys of each indexed name, to remove them on rename or deletion
+     */
+    private final Map<Owner, List<String>> keysByOwner = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SuggestIndex(GameRepository gameRepository, CreatorRepository creatorRepository,
+                        PublisherRepository publisherRepository, SellerRepository sellerRepository,
+                        ThemeRepository themeRepository, KeywordRepository keywordRepository) {
+        this.gameRepository = gameRepository;
+        this.creatorRepository = creatorRepository;
+        this.publisherRepository = publisherRepository;
+        this.sellerRepository = sellerRepository;
+        this.themeRepository = themeRepository;
+        this.keywordRepository = keywordRepository;
+    }
+
+    /**
+     * Loads the names through one projection query per type
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        nameStarts.clear();
+        innerWords.clear();
+        keysByOwner.clear();
+        load(SuggestionType.GAME, gameRepository.findAllNames());
+        for (Object[] row : creatorRepository.findAllNames())
+            put(SuggestionType.CREATOR, (Long) row[0], creatorLabel((String) row[1], (String) row[2]));
+        load(SuggestionType.PUBLISHER, publisherRepository.findAllNames());
+        load(SuggestionType.SELLER, sellerRepository.findAllNames());
+        load(SuggestionType.THEME, themeRepository.findAllNames());
+        load(SuggestionType.KEYWORD, keywordRepository.findAllTags());
+        logger.info("Suggest index built with {} name(s) and {} key(s)", keysByOwner.size(),
+                nameStarts.size() + innerWords.size());
+    }
+
+    private void load(SuggestionType type, List<Object[]> rows) {
+        for (Object[] row : rows)
+            put(type, (Long) row[0], (String) row[1]);
+    }
+
+    /**
+     * The first name is optional, the creators imported or generated often have none
+     */
+    static String creatorLabel(String firstName, String lastName) {
+        StringJoiner label = new StringJoiner(" ");
+        if (firstName != null && !firstName.isBlank())
+            label.add(firstName);
+        if (lastName != null && !lastName.isBlank())
+            label.add(lastName);
+        return label.length() == 0 ? null : label.toString();
+    }
+
+    /**
+     * Indexes the name, replacing the previous one of this owner
+     */
+    public synchronized void put(SuggestionType type, long id, String label) {
+        Owner owner = new Owner(type, id);
+        remove(owner);
+        if (label == null)
+            return;
+        String folded = fold(label);
+        List<String> keys = new ArrayList<>();
+        SuggestionDto suggestion = new SuggestionDto(type, id, label);
+        int start = 0;
+        while (start >= 0 && !folded.isEmpty()) {
+            String key = String.valueOf(type.ordinal()) + SEPARATOR + folded.substring(start) + SEPARATOR + id;
+            (start == 0 ? nameStarts : innerWords).put(key, suggestion);
+            keys.add(key);
+            int space = folded.indexOf(' ', start);
+            start = space < 0 ? -1 : space + 1;
+        }
+        keysByOwner.put(owner, keys);
+    }
+
+    public synchronized void remove(SuggestionType type, long id) {
+        remove(new Owner(type, id));
+    }
+
+    private void remove(Owner owner) {
+        List<String> keys = keysByOwner.remove(owner);
+        if (keys != null)
+            keys.forEach(key -> {
+                nameStarts.remove(key);
+                innerWords.remove(key);
+            });
+    }
+
+    /**
+     * Names having a word starting by the prefix, those starting by it first
+     *
+     * @param type  null for every type
+     * @param limit maximum number of suggestions
+     */
+    public List<SuggestionDto> suggest(String prefix, SuggestionType type, int limit) {
+        String folded = fold(prefix);
+        if (folded.isEmpty())
+            return Collections.emptyList();
+        List<SuggestionType> types = type == null ? TYPES : List.of(type);
+        Map<Owner, SuggestionDto> result = new LinkedHashMap<>();
+        collect(nameStarts, folded, types, result, limit);
+        collect(innerWords, folded, types, result, limit);
+        return new ArrayList<>(result.values());
+    }
+
+    /**
+     * Walks the keys of each type up to the names still missing, then keeps the first of them by matched text
+     */
+    private static void collect(ConcurrentSkipListMap<String, SuggestionDto> map, String folded,
+                                List<SuggestionType> types, Map<Owner, SuggestionDto> result, int limit) {
+        int missing = limit - result.size();
+        if (missing <= 0)
+            return;
+        // matched text, then type and id, as a single type would be walked
+        NavigableMap<String, SuggestionDto> candidates = new TreeMap<>();
+        for (SuggestionType type : types) {
+            String from = String.valueOf(type.ordinal()) + SEPARATOR + folded;
+            Set<Owner> found = new HashSet<>();
+            for (Map.Entry<String, SuggestionDto> entry :
+                    map.subMap(from, true, from + Character.MAX_VALUE, false).entrySet()) {
+                SuggestionDto suggestion = entry.getValue();
+                Owner owner = new Owner(suggestion.getType(), suggestion.getId());
+                // a name may match by several words, or already be suggested by the previous walk
+                if (result.containsKey(owner) || !found.add(owner))
+                    continue;
+                String key = entry.getKey();
+                int idStart = key.lastIndexOf(SEPARATOR);
+                candidates.put(key.substring(key.indexOf(SEPARATOR) + 1, idStart) + SEPARATOR + type.ordinal() +
+                        key.substring(idStart), suggestion);
+                if (found.size() >= missing)
+                    break;
+            }
+        }
+        for (SuggestionDto suggestion : candidates.values()) {
+            if (result.size() >= limit)
+                return;
+            result.putIfAbsent(new Owner(suggestion.getType(), suggestion.getId()), suggestion);
+        }
+    }
+
+    /**
+     * Folded words separated by single spaces
+     */
+    private static String fold(String text) {
+        return String.join(" ", TextNormalizer.words(text));
+    }
+
+    private static final class Owner {
+
+        private final SuggestionType type;
+        private final long id;
+
+        private Owner(SuggestionType type, long id) {
+            this.type = type;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Owner owner = (Owner) o;
+            return id == owner.id && type == owner.type;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, id);
+        }
+    }
+}
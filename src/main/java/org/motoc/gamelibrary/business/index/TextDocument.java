@@ -0,0 +1,87 @@
+package org.motoc.gamelibrary.business.index;
+
+import org.motoc.gamelibrary.model.Article;
+import org.motoc.gamelibrary.model.Game;
+import org.motoc.gamelibrary.model.enumeration.GameNatureEnum;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The weighted terms of a game or an article, detached from any persistence context
+ *
+ * @author RouzicJ
+ */
+public class TextDocument {
+
+    /**
+     * A word of the title counts as much as three words of the texts
+     */
+    private static final int TITLE_WEIGHT = 3;
+
+    private final FullTextIndex.DocumentKey key;
+
+    private final String title;
+
+    private final Map<String, Integer> termFrequencies = new HashMap<>();
+
+    private int length;
+
+    private TextDocument(FullTextIndex.DocumentKey key, String title) {
+        this.key = key;
+        this.title = title;
+        add(title, TITLE_WEIGHT);
+    }
+
+    public static TextDocument of(Game game) {
+        return game(game.getId(), game.getName(), game.getNature(), game.getDescription(), game.getGoal(),
+                game.getCoreRules(), game.getStuff());
+    }
+
+    public static TextDocument of(Article article) {
+        return article(article.getId(), article.getShortDescription(), article.getHtmlContent());
+    }
+
+    static TextDocument game(long id, String name, GameNatureEnum nature, String description, String goal,
+                             String coreRules, String stuff) {
+        TextDocument document = new TextDocument(new FullTextIndex.DocumentKey(FullTextIndex.DocumentType.GAME, id),
+                name);
+        if (nature != null)
+            document.add(nature.getFrenchTranslation(), 1);
+        document.add(description, 1);
+        document.add(goal, 1);
+        document.add(coreRules, 1);
+        document.add(stuff, 1);
+        return document;
+    }
+
+    static TextDocument article(long id, String shortDescription, String htmlContent) {
+        TextDocument document = new TextDocument(
+                new FullTextIndex.DocumentKey(FullTextIndex.DocumentType.ARTICLE, id), shortDescription);
+        document.add(TextNormalizer.stripHtml(htmlContent), 1);
+        return document;
+    }
+
+    private void add(String text, int weight) {
+        List<String> terms = TextNormalizer.terms(text);
+        terms.forEach(term -> termFrequencies.merge(term, weight, Integer::sum));
+        length += terms.size() * weight;
+    }
+
+    FullTextIndex.DocumentKey getKey() {
+        return key;
+    }
+
+    String getTitle() {
+        return title;
+    }
+
+    Map<String, Integer> getTermFrequencies() {
+        return termFrequencies;
+    }
+
+    int getLength() {
+        return length;
+    }
+}
@@ -0,0 +1,77 @@
+package org.motoc.gamelibrary.business.index;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Turns french texts into index terms : lower case, without accents nor ligatures, without the most common words.
+ *
+ * @author RouzicJ
+ */
+public final class TextNormalizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Pattern HTML_TAG = Pattern.compile("<[^>]*>");
+
+    /**
+     * Already folded
+     */
+    private static final Set<String> STOP_WORDS = Set.of(
+            "le", "la", "les", "un", "une", "des", "du", "de", "au", "aux", "et", "ou", "en", "dans", "sur", "par",
+            "pour", "avec", "sans", "que", "qui", "ne", "pas", "se", "ce", "ces", "son", "sa", "ses", "il", "elle",
+            "ils", "elles", "on", "est", "sont", "a", "l", "d", "s", "n", "qu", "c", "j", "m", "t");
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Lower case, accents removed ("Société" gives "societe"), ligatures split ("cœur" gives "coeur")
+     */
+    public static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("")
+                .toLowerCase(Locale.FRENCH)
+                .replace("œ", "oe")
+                .replace("æ", "ae");
+    }
+
+    /**
+     * The folded words of the text, stop words excluded, in order and with repetitions
+     */
+    public static List<String> terms(String text) {
+        List<String> terms = words(text);
+        terms.removeIf(STOP_WORDS::contains);
+        return terms;
+    }
+
+    /**
+     * The folded words of the text, in order and with repetitions
+     */
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null)
+            return words;
+        for (String word : NON_WORD.split(fold(text)))
+            if (!word.isEmpty())
+                words.add(word);
+        return words;
+    }
+
+    /**
+     * The text of an html fragment, tags replaced by spaces and entities decoded
+     */
+    public static String stripHtml(String html) {
+        if (html == null)
+            return null;
+        return HtmlUtils.htmlUnescape(HTML_TAG.matcher(html).replaceAll(" "));
+    }
+}
@@ -0,0 +1,54 @@
+package org.motoc.gamelibrary.business.refactor;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Approximate total count of an entity type : the count query result is kept until it is invalidated by a write or
+ * until its time to live is over (writes made by other instances or outside of the services are seen this way).
+ *
+ * @author RouzicJ
+ */
+public class CachedCount {
+
+    private final long timeToLiveNanos;
+
+    private long value;
+
+    private long loadedAt;
+
+    private boolean valid;
+
+    /**
+     * Bumped by each invalidation, so that a count loaded while a write happened is not kept
+     */
+    private long generation;
+
+    public CachedCount(Duration timeToLive) {
+        this.timeToLiveNanos = timeToLive.toNanos();
+    }
+
+    public long get(LongSupplier countQuery) {
+        long loadingGeneration;
+        synchronized (this) {
+            if (valid && System.nanoTime() - loadedAt < timeToLiveNanos)
+                return value;
+            loadingGeneration = generation;
+        }
+        // the query runs outside of the lock, concurrent callers may count twice but never wait on each other
+        long count = countQuery.getAsLong();
+        synchronized (this) {
+            if (loadingGeneration == generation) {
+                value = count;
+                loadedAt = System.nanoTime();
+                valid = true;
+            }
+        }
+        return count;
+    }
+
+    public synchronized void invalidate() {
+        generation++;
+        valid = false;
+    }
+}
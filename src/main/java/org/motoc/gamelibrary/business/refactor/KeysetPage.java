@@ -0,0 +1,40 @@
+package org.motoc.gamelibrary.business.refactor;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A chunk of elements found by seeking after the last element of the previous chunk (keyset pagination).
+ * The next token is opaque, it has to be sent back as is to get the following chunk.
+ *
+ * @author RouzicJ
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPage<T> {
+
+    private List<T> content;
+
+    /**
+     * Token of the next chunk, null if this chunk is the last one
+     */
+    private String nextToken;
+
+    private boolean hasNext;
+
+    /**
+     * Only filled if the client asked for it, as it costs a count query
+     */
+    private Long totalElements;
+
+    public <U> KeysetPage<U> map(Function<? super T, ? extends U> converter) {
+        List<U> converted = content.stream().map(converter).collect(Collectors.toList());
+        return new KeysetPage<>(converted, nextToken, hasNext, totalElements);
+    }
+}
@@ -0,0 +1,45 @@
+package org.motoc.gamelibrary.business.refactor;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.motoc.gamelibrary.technical.exception.BadRequestException;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Continuation token of the keyset pagination : the sort key, its direction and the last (value, id) pair seen.
+ * Encoded in base64 so that clients handle it as an opaque string.
+ *
+ * @author RouzicJ
+ */
+@Data
+@AllArgsConstructor
+class KeysetToken {
+
+    private static final String SEPARATOR = "|";
+
+    private Sort.Direction direction;
+    private String sortKey;
+    private long lastId;
+    private String lastValue;
+
+    String encode() {
+        String raw = direction.name() + SEPARATOR + sortKey + SEPARATOR + lastId + SEPARATOR + lastValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static KeysetToken decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // the last value may contain the separator, so it is kept whole
+            String[] parts = raw.split("\\" + SEPARATOR, 4);
+            if (parts.length != 4)
+                throw new BadRequestException("Malformed page token");
+            return new KeysetToken(Sort.Direction.valueOf(parts[0]), parts[1], Long.parseLong(parts[2]), parts[3]);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Malformed page token");
+        }
+    }
+}
@@ -2,6 +2,10 @@ package org.motoc.gamelibrary.business.refactor;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
 
 /**
  * Part of a strategy pattern, the goal is to factorize basics business methods.
@@ -16,7 +20,12 @@ public interface SimpleCrudMethods<T> {
     T save(T t);
 
     /**
-     * Count the number of T in persistence
+     * Persist all T, statements are sent in JDBC batches by a single flush
+     */
+    List<T> saveAll(List<T> ts);
+
+    /**
+     * Count the number of T in persistence, the result may be cached for a short time
      */
     long count();
 
@@ -30,6 +39,18 @@ public interface SimpleCrudMethods<T> {
      */
     Page<T> findPage(Pageable pageable);
 
+    /**
+     * Find slice : like a page, but only tells if there is a next one, so no count query is made
+     */
+    Slice<T> findSlice(Pageable pageable);
+
+    /**
+     * Find the chunk following the one the token was given with, without offset nor count query (keyset pagination).
+     * The sort key must be a non null attribute of T, the id being used as a tie-breaker.
+     * A null token gives the first chunk, the total is only counted if asked.
+     */
+    KeysetPage<T> findKeysetPage(String sortKey, Sort.Direction direction, String token, int size, boolean withTotal);
+
     /**
      * Delete T
      */
@@ -1,14 +1,39 @@
 package org.motoc.gamelibrary.business.refactor;
 
+import io.micrometer.core.instrument.*;
+import org.motoc.gamelibrary.business.refactor.cache.CacheStatistics;
+import org.motoc.gamelibrary.business.refactor.cache.EntityCache;
+import org.motoc.gamelibrary.technical.TransactionCallbacks;
+import org.motoc.gamelibrary.technical.exception.BadRequestException;
 import org.motoc.gamelibrary.technical.exception.NotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.domain.*;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.format.datetime.standard.DateTimeFormatterRegistrar;
+import org.springframework.format.support.DefaultFormattingConversionService;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.*;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.SingularAttribute;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
 
 /**
  * Part of a strategy pattern, the goal is to factorize basics business methods.
+ * <p>Each method is timed by the gamelibrary.crud timer, tagged by entity, operation and exception.</p>
  *
  * @author RouzicJ
  */
@@ -18,56 +43,338 @@ public abstract class SimpleCrudMethodsImpl<T, T_Repo extends JpaRepository<T, L
 
     private static final Logger logger = LoggerFactory.getLogger(SimpleCrudMethodsImpl.class);
 
+    private static final String ID = "id";
+
+    private static final Duration COUNT_TIME_TO_LIVE = Duration.ofSeconds(30);
+
+    private static final String TIMER = "gamelibrary.crud";
+
+    private static final String NO_EXCEPTION = "none";
+
+    /**
+     * Writes the sort values in the page tokens and reads them back, ISO-8601 for the dates and times
+     */
+    private static final ConversionService SORT_VALUE_CONVERSION = sortValueConversion();
+
     final Class<T> type;
 
+    private final CachedCount cachedCount = new CachedCount(COUNT_TIME_TO_LIVE);
+
+    private final ToLongFunction<T> idOf;
+
+    private final UnaryOperator<T> copyOf;
+
+    private final EntityCache<T> cache;
+
+    private final String entity;
+
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     public SimpleCrudMethodsImpl(T_Repo genericRepository, Class<T> type) {
+        this(genericRepository, type, null, UnaryOperator.identity(), EntityCache.none());
+    }
+
+    /**
+     * The cache only holds copies : findById hands out a new copy of a cached T, or the T read by the repository on a
+     * miss, so that a T found by id is shared with no other caller. A cached copy is detached, its changes are not
+     * saved : a T to modify or to navigate is to be read from the repository.
+     *
+     * @param idOf   gives the id of a T, so that writes can evict it from the cache
+     * @param copyOf copies the basic attributes of a T, leaving its associations out
+     * @param cache  consulted by findById before the repository
+     */
+    public SimpleCrudMethodsImpl(T_Repo genericRepository, Class<T> type, ToLongFunction<T> idOf,
+                                 UnaryOperator<T> copyOf, EntityCache<T> cache) {
         this.genericRepository = genericRepository;
         this.type = type;
+        this.idOf = idOf;
+        this.copyOf = copyOf;
+        this.cache = cache;
+        this.entity = type.getSimpleName().toLowerCase();
+    }
+
+    /**
+     * Registers the timers, and the counters of the cache if there is one, in the application registry
+     */
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        if (idOf == null)
+            return;
+        FunctionCounter.builder("gamelibrary.cache.gets", this, crud -> crud.cacheStatistics().getHitCount())
+                .tags("entity", entity, "result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("gamelibrary.cache.gets", this, crud -> crud.cacheStatistics().getMissCount())
+                .tags("entity", entity, "result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("gamelibrary.cache.evictions", this,
+                crud -> crud.cacheStatistics().getEvictionCount())
+                .tag("entity", entity)
+                .register(meterRegistry);
+        Gauge.builder("gamelibrary.cache.size", this, crud -> crud.cacheStatistics().getSize())
+                .tag("entity", entity)
+                .register(meterRegistry);
     }
 
     @Override
     public T save(T t) {
-        T result = genericRepository.saveAndFlush(t);
-        logger.debug("Saved a {} : {}", type.getSimpleName().toLowerCase(), result.toString());
-        return result;
+        return timed("save", () -> {
+            T result = genericRepository.saveAndFlush(t);
+            evict(result);
+            logger.debug("Saved a {} : {}", entity, result);
+            return result;
+        });
+    }
+
+    @Override
+    public List<T> saveAll(List<T> ts) {
+        return timed("saveAll", () -> {
+            List<T> result = genericRepository.saveAll(ts);
+            // statements are ordered and batched by hibernate, see hibernate.jdbc.batch_size
+            genericRepository.flush();
+            evictAll(result);
+            logger.debug("Saved {} {}(s)", result.size(), entity);
+            return result;
+        });
     }
 
     @Override
     public long count() {
-        long result = genericRepository.count();
-        logger.debug("Count {}={}", type.getSimpleName().toLowerCase(), result);
-        return result;
+        return timed("count", () -> {
+            long result = cachedCount.get(genericRepository::count);
+            logger.debug("Count {}={}", entity, result);
+            return result;
+        });
     }
 
     @Override
     public T findById(long id) {
-        return genericRepository.findById(id)
-                .map(result -> {
-                    logger.debug("Found {} for id={}", type.getSimpleName().toLowerCase(), id);
-                    return result;
-                })
-                .orElseThrow(() -> {
-                    logger.warn("No {} found for id={}", type.getSimpleName().toLowerCase(), id);
-                    throw new NotFoundException(id);
-                });
+        return timed("findById", () -> {
+            T cached = cache.get(id);
+            if (cached != null) {
+                logger.debug("Found {} for id={} in cache", entity, id);
+                return copyOf.apply(cached);
+            }
+            // taken before the read : a write committed meanwhile evicts, and the stale T is not kept
+            long generation = cache.generation();
+            return genericRepository.findById(id)
+                    .map(result -> {
+                        logger.debug("Found {} for id={}", entity, id);
+                        cache.put(id, copyOf.apply(result), generation);
+                        return result;
+                    })
+                    .orElseThrow(() -> {
+                        logger.warn("No {} found for id={}", entity, id);
+                        throw new NotFoundException(id);
+                    });
+        });
     }
 
     @Override
     public Page<T> findPage(Pageable pageable) {
-        Page<T> result = genericRepository.findAll(pageable);
-        logger.debug("Found {} element(s) through {} page(s)", result.getTotalElements(), result.getTotalPages());
-        return result;
+        return timed("findPage", () -> {
+            Page<T> result = genericRepository.findAll(pageable);
+            logger.debug("Found {} element(s) through {} page(s)", result.getTotalElements(),
+                    result.getTotalPages());
+            return result;
+        });
+    }
+
+    @Override
+    public Slice<T> findSlice(Pageable pageable) {
+        return timed("findSlice", () -> slice(pageable));
+    }
+
+    @Override
+    public KeysetPage<T> findKeysetPage(String sortKey, Sort.Direction direction, String token, int size,
+                                        boolean withTotal) {
+        return timed("findKeysetPage", () -> keysetPage(sortKey, direction, token, size, withTotal));
     }
 
     @Override
     public void deleteOne(T t) {
-        genericRepository.delete(t);
-        logger.debug("Deleted {} : {}", t.getClass().getSimpleName().toLowerCase(), t);
+        timed("deleteOne", () -> {
+            genericRepository.delete(t);
+            evict(t);
+            logger.debug("Deleted {} : {}", t.getClass().getSimpleName().toLowerCase(), t);
+            return null;
+        });
     }
 
     @Override
     public void deleteById(long id) {
-        genericRepository.deleteById(id);
-        logger.debug("Deleted {} of id {}", type.getSimpleName().toLowerCase(), id);
+        timed("deleteById", () -> {
+            genericRepository.deleteById(id);
+            evict(id);
+            logger.debug("Deleted {} of id {}", entity, id);
+            return null;
+        });
+    }
+
+    public CacheStatistics cacheStatistics() {
+        return cache.statistics();
+    }
+
+    /**
+     * Times the call, so that the latency and the throughput of each operation can be followed by entity
+     */
+    protected <R> R timed(String operation, Supplier<R> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = NO_EXCEPTION;
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(TIMER)
+                    .tags("entity", entity, "operation", operation, "exception", exception)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    private Slice<T> slice(Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(type);
+        Root<T> root = query.from(type);
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<T> typedQuery = entityManager.createQuery(query);
+        if (pageable.isUnpaged())
+            return new SliceImpl<>(typedQuery.getResultList());
+
+        // one more element than asked tells if there is a next slice
+        List<T> content = typedQuery
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext)
+            content = content.subList(0, pageable.getPageSize());
+        logger.debug("Found {} element(s) in slice {}, has next={}", content.size(), pageable.getPageNumber(), hasNext);
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private KeysetPage<T> keysetPage(String sortKey, Sort.Direction direction, String token, int size,
+                                     boolean withTotal) {
+        if (size < 1)
+            throw new BadRequestException("Page size must be greater than 0");
+        checkSortKey(sortKey);
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(type);
+        Root<T> root = query.from(type);
+        Path<Comparable> key = root.get(sortKey);
+        Path<Long> id = root.get(ID);
+
+        if (token != null) {
+            KeysetToken previous = KeysetToken.decode(token);
+            if (previous.getDirection() != direction || !previous.getSortKey().equals(sortKey))
+                throw new BadRequestException("Page token does not match the requested sort");
+            Comparable lastValue = convertSortValue(previous.getLastValue(), key.getJavaType());
+            // seek after (lastValue, lastId), the id breaking ties between equal sort values
+            query.where(direction.isAscending() ?
+                    cb.or(cb.greaterThan(key, lastValue),
+                            cb.and(cb.equal(key, lastValue), cb.greaterThan(id, previous.getLastId()))) :
+                    cb.or(cb.lessThan(key, lastValue),
+                            cb.and(cb.equal(key, lastValue), cb.lessThan(id, previous.getLastId()))));
+        }
+        query.orderBy(direction.isAscending() ?
+                List.of(cb.asc(key), cb.asc(id)) :
+                List.of(cb.desc(key), cb.desc(id)));
+
+        // one more element than asked tells if there is a next chunk
+        List<T> content = entityManager.createQuery(query).setMaxResults(size + 1).getResultList();
+        boolean hasNext = content.size() > size;
+        if (hasNext)
+            content = content.subList(0, size);
+
+        String nextToken = null;
+        if (hasNext) {
+            BeanWrapper last = new BeanWrapperImpl(content.get(size - 1));
+            nextToken = new KeysetToken(direction, sortKey, (Long) last.getPropertyValue(ID),
+                    SORT_VALUE_CONVERSION.convert(last.getPropertyValue(sortKey), String.class)).encode();
+        }
+        Long total = withTotal ? count() : null;
+        logger.debug("Found {} {}(s) after token={}, has next={}", content.size(), entity, token, hasNext);
+        return new KeysetPage<>(content, nextToken, hasNext, total);
+    }
+
+    /**
+     * Evicts the T of this id from the cache and invalidates the count.
+     * To be called by subclasses writing T without the methods above.
+     */
+    protected void evict(long id) {
+        cache.evict(id);
+        cachedCount.invalidate();
+        // a read made by another thread before the commit would otherwise be kept
+        TransactionCallbacks.afterCompletion(() -> {
+            cache.evict(id);
+            cachedCount.invalidate();
+        });
+    }
+
+    private void evict(T t) {
+        if (idOf != null) {
+            evict(idOf.applyAsLong(t));
+        } else {
+            // without id function there is no cache, only the count is to invalidate
+            cachedCount.invalidate();
+            TransactionCallbacks.afterCompletion(cachedCount::invalidate);
+        }
+    }
+
+    private void evictAll(List<T> ts) {
+        if (idOf != null)
+            ts.forEach(t -> cache.evict(idOf.applyAsLong(t)));
+        cachedCount.invalidate();
+        TransactionCallbacks.afterCompletion(() -> {
+            if (idOf != null)
+                ts.forEach(t -> cache.evict(idOf.applyAsLong(t)));
+            cachedCount.invalidate();
+        });
+    }
+
+    /**
+     * The sort key must be a basic attribute that cannot be null : the seek predicates never match a null value, the
+     * rows having one would be skipped
+     */
+    private void checkSortKey(String sortKey) {
+        SingularAttribute<? super T, ?> attribute;
+        try {
+            attribute = entityManager.getMetamodel().entity(type).getSingularAttribute(sortKey);
+        } catch (IllegalArgumentException e) {
+            attribute = null;
+        }
+        if (attribute == null || attribute.getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC) {
+            logger.warn("No attribute {} to sort {} by", sortKey, entity);
+            throw new BadRequestException("Cannot sort by " + sortKey);
+        }
+        if (attribute.isOptional()) {
+            logger.warn("Attribute {} of {} is optional, it cannot be a keyset", sortKey, entity);
+            throw new BadRequestException("Cannot sort by " + sortKey + ", it may be null");
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Comparable convertSortValue(String value, Class<?> javaType) {
+        try {
+            return (Comparable) SORT_VALUE_CONVERSION.convert(value, javaType);
+        } catch (ConversionException | ClassCastException e) {
+            throw new BadRequestException("Malformed page token");
+        }
+    }
+
+    private static ConversionService sortValueConversion() {
+        DefaultFormattingConversionService conversionService = new DefaultFormattingConversionService(false);
+        DateTimeFormatterRegistrar registrar = new DateTimeFormatterRegistrar();
+        registrar.setUseIsoFormat(true);
+        registrar.registerFormatters(conversionService);
+        return conversionService;
     }
 }
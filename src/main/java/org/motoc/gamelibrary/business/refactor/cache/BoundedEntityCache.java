@@ -0,0 +1,104 @@
+package org.motoc.gamelibrary.business.refactor.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * An entity cache bounded in size and in time : the least recently used entry is evicted when the cache is full, and
+ * entries expire after their time to live (they are dropped when read).
+ *
+ * @author RouzicJ
+ */
+public class BoundedEntityCache<T> implements EntityCache<T> {
+
+    private final int maxSize;
+
+    private final long timeToLiveNanos;
+
+    /**
+     * Access ordered, so that the first entry is the least recently used one
+     */
+    private final LinkedHashMap<Long, Entry<T>> entries;
+
+    private long generation;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public BoundedEntityCache(int maxSize, Duration timeToLive) {
+        if (maxSize < 1)
+            throw new IllegalArgumentException("Max size must be greater than 0");
+        this.maxSize = maxSize;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    @Override
+    public synchronized T get(long id) {
+        Entry<T> entry = entries.get(id);
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        if (isExpired(entry, System.nanoTime())) {
+            entries.remove(id);
+            evictionCount++;
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.value;
+    }
+
+    @Override
+    public synchronized long generation() {
+        return generation;
+    }
+
+    @Override
+    public synchronized void put(long id, T t, long generation) {
+        if (generation != this.generation)
+            return;
+        entries.put(id, new Entry<>(t, System.nanoTime()));
+        if (entries.size() > maxSize) {
+            Iterator<Long> eldest = entries.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+            evictionCount++;
+        }
+    }
+
+    @Override
+    public synchronized void evict(long id) {
+        generation++;
+        entries.remove(id);
+    }
+
+    @Override
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    @Override
+    public synchronized CacheStatistics statistics() {
+        return new CacheStatistics(hitCount, missCount, evictionCount, entries.size());
+    }
+
+    private boolean isExpired(Entry<T> entry, long now) {
+        return now - entry.storedAt >= timeToLiveNanos;
+    }
+
+    private static class Entry<T> {
+
+        private final T value;
+        private final long storedAt;
+
+        private Entry(T value, long storedAt) {
+            this.value = value;
+            this.storedAt = storedAt;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.motoc.gamelibrary.business.refactor.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Snapshot of the counters of an entity cache
+ *
+ * @author RouzicJ
+ */
+@Data
+@AllArgsConstructor
+public class CacheStatistics {
+
+    private long hitCount;
+    private long missCount;
+
+    /**
+     * Entries removed because the cache was full or because they expired, explicit evictions are not counted
+     */
+    private long evictionCount;
+
+    private long size;
+}
@@ -0,0 +1,67 @@
+package org.motoc.gamelibrary.business.refactor.cache;
+
+/**
+ * A cache of entities by id, consulted by the generic business methods before the repository.
+ * The generic methods only put detached copies in it, and hand out copies of them : only cache data which is read,
+ * not modified nor navigated.
+ *
+ * @author RouzicJ
+ */
+public interface EntityCache<T> {
+
+    /**
+     * Returns the cached entity, or null if it is absent or expired
+     */
+    T get(long id);
+
+    /**
+     * Bumped by each eviction, read before loading an entity to put
+     */
+    long generation();
+
+    /**
+     * Keeps the entity unless an eviction happened since the generation was read : it may have been loaded before
+     * a write was committed
+     */
+    void put(long id, T t, long generation);
+
+    void evict(long id);
+
+    void clear();
+
+    CacheStatistics statistics();
+
+    /**
+     * A cache that never keeps anything, for entities that should always be read from the database
+     */
+    static <T> EntityCache<T> none() {
+        return new EntityCache<>() {
+            @Override
+            public T get(long id) {
+                return null;
+            }
+
+            @Override
+            public long generation() {
+                return 0;
+            }
+
+            @Override
+            public void put(long id, T t, long generation) {
+            }
+
+            @Override
+            public void evict(long id) {
+            }
+
+            @Override
+            public void clear() {
+            }
+
+            @Override
+            public CacheStatistics statistics() {
+                return new CacheStatistics(0, 0, 0, 0);
+            }
+        };
+    }
+}
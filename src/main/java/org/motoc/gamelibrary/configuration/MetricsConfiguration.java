@@ -0,0 +1,23 @@
+package org.motoc.gamelibrary.configuration;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Times the methods annotated with {@link io.micrometer.core.annotation.Timed} : the custom repositories, and the
+ * entry points of the services which are not CRUD services, called by controllers and schedulers.
+ * Every public method of a CRUD service is timed by SimpleCrudMethodsImpl#timed instead.
+ * The controllers are timed by spring boot, under http.server.requests.
+ *
+ * @author RouzicJ
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
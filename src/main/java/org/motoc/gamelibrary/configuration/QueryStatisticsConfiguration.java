@@ -0,0 +1,35 @@
+package org.motoc.gamelibrary.configuration;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.motoc.gamelibrary.technical.statistics.QueryStatisticsInspector;
+import org.motoc.gamelibrary.technical.statistics.QueryStatisticsIntegrator;
+import org.motoc.gamelibrary.technical.statistics.QueryStatisticsSessionListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Plugs the query statistics into hibernate, see {@link org.motoc.gamelibrary.technical.statistics.QueryStatistics}
+ *
+ * @author RouzicJ
+ */
+@Configuration
+@ConditionalOnProperty(name = "query-statistics.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryStatisticsConfiguration {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryStatisticsCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryStatisticsInspector());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER,
+                    QueryStatisticsSessionListener.class.getName());
+            properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+                    (IntegratorProvider) () -> List.of(new QueryStatisticsIntegrator()));
+        };
+    }
+}
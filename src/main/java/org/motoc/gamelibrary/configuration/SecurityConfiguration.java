@@ -7,6 +7,7 @@ import org.keycloak.adapters.springsecurity.KeycloakConfiguration;
 import org.keycloak.adapters.springsecurity.authentication.KeycloakAuthenticationProvider;
 import org.keycloak.adapters.springsecurity.config.KeycloakWebSecurityConfigurerAdapter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.HttpMethod;
@@ -19,6 +20,8 @@ import org.springframework.security.web.authentication.logout.LogoutFilter;
 import org.springframework.security.web.authentication.preauth.x509.X509AuthenticationFilter;
 import org.springframework.security.web.authentication.session.NullAuthenticatedSessionStrategy;
 import org.springframework.security.web.authentication.session.SessionAuthenticationStrategy;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -32,6 +35,16 @@ import javax.servlet.http.HttpServletResponse;
 @ConditionalOnProperty(name = "keycloak.enabled", havingValue = "true", matchIfMissing = true)
 public class SecurityConfiguration extends KeycloakWebSecurityConfigurerAdapter {
 
+    /**
+     * Port of the actuator when it has one of its own, -1 otherwise
+     */
+    private final int managementPort;
+
+    public SecurityConfiguration(@Value("${server.port:8080}") int serverPort,
+                                 @Value("${management.server.port:-1}") int managementPort) {
+        this.managementPort = managementPort == serverPort ? -1 : managementPort;
+    }
+
     /**
      * Defines the session authentication strategy.
      */
@@ -92,8 +105,16 @@ public class SecurityConfiguration extends KeycloakWebSecurityConfigurerAdapter
                 // manage routes security here
                 .authorizeRequests().antMatchers(HttpMethod.OPTIONS).permitAll()
                 .antMatchers("/").permitAll()
+                .antMatchers("/actuator/health").permitAll()
+                // scraped by prometheus without keycloak token, on the management port only, not exposed publicly
+                .requestMatchers(new AndRequestMatcher(new AntPathRequestMatcher("/actuator/prometheus"),
+                        request -> request.getLocalPort() == managementPort)).permitAll()
+                .antMatchers("/actuator/**").hasRole("ADMIN")
                 .antMatchers("/user").hasRole("USER")
                 .antMatchers("/user").hasRole("ADMIN")
+                .antMatchers("/games/**").hasAnyRole("USER", "ADMIN")
+                .antMatchers("/search/**").hasAnyRole("USER", "ADMIN")
+                .antMatchers("/loans/**").hasAnyRole("USER", "ADMIN")
                 .antMatchers("/admin/**").hasRole("ADMIN")
                 .anyRequest().denyAll();
     }
@@ -0,0 +1,25 @@
+package org.motoc.gamelibrary.controller;
+
+import org.motoc.gamelibrary.technical.exception.BadRequestException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Custom exception for invalid client parameters
+ *
+ * @author RouzicJ
+ */
+
+@ControllerAdvice
+public class BadRequestAdvice {
+
+    @ResponseBody
+    @ExceptionHandler(BadRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    String BadRequestHandler(BadRequestException ex) {
+        return ex.getMessage();
+    }
+}
@@ -0,0 +1,67 @@
+package org.motoc.gamelibrary.controller;
+
+import org.motoc.gamelibrary.business.CatalogExportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Defines export endpoints, the rows being streamed to the response as they are read
+ *
+ * @author RouzicJ
+ */
+@CrossOrigin(origins = "http://localhost:4200")
+@RestController
+public class CatalogExportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogExportController.class);
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    private final CatalogExportService service;
+
+    @Autowired
+    public CatalogExportController(CatalogExportService service) {
+        this.service = service;
+    }
+
+    /**
+     * Every game with its creators, themes, categories and copies, e.g. ?format=CSV
+     */
+    @GetMapping("/admin/exports/catalog")
+    ResponseEntity<StreamingResponseBody> exportCatalog(
+            @RequestParam(value = "format", defaultValue = "NDJSON") CatalogExportService.Format format) {
+        logger.debug("Export catalog called");
+        return attachment("catalog", format, output -> service.exportCatalog(output, format));
+    }
+
+    /**
+     * Every copy with the name of its game
+     */
+    @GetMapping("/admin/exports/inventory")
+    ResponseEntity<StreamingResponseBody> exportInventory(
+            @RequestParam(value = "format", defaultValue = "NDJSON") CatalogExportService.Format format) {
+        logger.debug("Export inventory called");
+        return attachment("inventory", format, output -> service.exportInventory(output, format));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> attachment(String name, CatalogExportService.Format format,
+                                                                    StreamingResponseBody body) {
+        boolean csv = format == CatalogExportService.Format.CSV;
+        return ResponseEntity.ok()
+                .contentType(csv ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + name + (csv ? ".csv" : ".ndjson") + "\"")
+                .body(body);
+    }
+}
@@ -0,0 +1,99 @@
+package org.motoc.gamelibrary.controller;
+
+import org.motoc.gamelibrary.business.GameImportService;
+import org.motoc.gamelibrary.business.GameService;
+import org.motoc.gamelibrary.dto.GameDto;
+import org.motoc.gamelibrary.dto.GameFacetsDto;
+import org.motoc.gamelibrary.dto.GameSearchCriteria;
+import org.motoc.gamelibrary.dto.GameSummaryDto;
+import org.motoc.gamelibrary.dto.ImportReportDto;
+import org.motoc.gamelibrary.mapper.GameMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+
+/**
+ * Defines game endpoint
+ *
+ * @author RouzicJ
+ */
+@CrossOrigin(origins = "http://localhost:4200")
+@RestController
+public class GameController {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameController.class);
+
+    private final GameService service;
+
+    private final GameImportService importService;
+
+    private final GameMapper mapper;
+
+    @Autowired
+    public GameController(GameService service, GameImportService importService) {
+        this.service = service;
+        this.importService = importService;
+        this.mapper = GameMapper.INSTANCE;
+    }
+
+    @GetMapping("/admin/games/count")
+    Long count() {
+        return service.count();
+    }
+
+    /**
+     * The only endpoint giving the rule texts of a game
+     */
+    @GetMapping("/admin/games")
+    GameDto findById(@RequestParam(value = "id") Long id) {
+        GameDto result = mapper.gameToGameDto(service.findById(id));
+        result.setAvailability(service.availability(id));
+        return result;
+    }
+
+    @GetMapping("/admin/games/page")
+    Page<GameSummaryDto> findPage(Pageable pageable) {
+        return service.findSummaryPage(pageable);
+    }
+
+    @GetMapping("/games/search")
+    Slice<GameSummaryDto> search(GameSearchCriteria criteria, Pageable pageable) {
+        return service.search(criteria, pageable);
+    }
+
+    /**
+     * Facet counts, the selection being given as facet=value parameters, e.g. ?theme=3&theme=5&numberOfPlayer=2
+     */
+    @GetMapping("/games/facets")
+    GameFacetsDto facets(@RequestParam MultiValueMap<String, String> selection) {
+        return service.facets(selection);
+    }
+
+    @PostMapping("/admin/games")
+    GameDto save(@RequestBody GameDto game) {
+        logger.debug("Save game called");
+        return mapper.gameToGameDto(service.save(mapper.gameDtoToGame(game)));
+    }
+
+    /**
+     * Imports a catalog, streamed from the request body : a CSV file with a header line, or JSON objects
+     */
+    @PostMapping(value = "/admin/games/import", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE,
+            "application/x-ndjson"})
+    ImportReportDto importGames(HttpServletRequest request) throws IOException {
+        logger.debug("Import games called");
+        GameImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType("text/csv")) ?
+                GameImportService.Format.CSV : GameImportService.Format.JSON;
+        return importService.importGames(request.getInputStream(), format);
+    }
+}
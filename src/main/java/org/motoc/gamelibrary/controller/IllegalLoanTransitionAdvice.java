@@ -0,0 +1,25 @@
+package org.motoc.gamelibrary.controller;
+
+import org.motoc.gamelibrary.technical.exception.IllegalLoanTransitionException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Custom exception for loan status changes not allowed from the current status
+ *
+ * @author RouzicJ
+ */
+
+@ControllerAdvice
+public class IllegalLoanTransitionAdvice {
+
+    @ResponseBody
+    @ExceptionHandler(IllegalLoanTransitionException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    String IllegalLoanTransitionHandler(IllegalLoanTransitionException ex) {
+        return ex.getMessage();
+    }
+}
@@ -0,0 +1,25 @@
+package org.motoc.gamelibrary.controller;
+
+import org.motoc.gamelibrary.technical.exception.LoanConflictException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Custom exception for loans overlapping on a same copy
+ *
+ * @author RouzicJ
+ */
+
+@ControllerAdvice
+public class LoanConflictAdvice {
+
+    @ResponseBody
+    @ExceptionHandler(LoanConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    String LoanConflictHandler(LoanConflictException ex) {
+        return ex.getMessage();
+    }
+}
@@ -0,0 +1,148 @@
+package org.motoc.gamelibrary.controller;
+
+import org.motoc.gamelibrary.business.LoanArchiver;
+import org.motoc.gamelibrary.business.LoanBookingService;
+import org.motoc.gamelibrary.business.LoanService;
+import org.motoc.gamelibrary.business.MemberLoanSummaryService;
+import org.motoc.gamelibrary.business.OverdueLoanSweeper;
+import org.motoc.gamelibrary.dto.CopyCalendarDto;
+import org.motoc.gamelibrary.dto.LoanDto;
+import org.motoc.gamelibrary.dto.LoanHistoryDto;
+import org.motoc.gamelibrary.dto.MemberDashboardDto;
+import org.motoc.gamelibrary.dto.SweepStatusDto;
+import org.motoc.gamelibrary.mapper.LoanMapper;
+import org.motoc.gamelibrary.model.enumeration.LoanStatusEnum;
+import org.motoc.gamelibrary.technical.exception.BadRequestException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Defines loan endpoints
+ *
+ * @author RouzicJ
+ */
+@CrossOrigin(origins = "http://localhost:4200")
+@RestController
+public class LoanController {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoanController.class);
+
+    private final LoanService service;
+
+    private final LoanBookingService bookingService;
+
+    private final OverdueLoanSweeper sweeper;
+
+    private final LoanArchiver archiver;
+
+    private final MemberLoanSummaryService memberLoanSummaryService;
+
+    private final LoanMapper mapper;
+
+    @Autowired
+    public LoanController(LoanService service, LoanBookingService bookingService, OverdueLoanSweeper sweeper,
+                          LoanArchiver archiver, MemberLoanSummaryService memberLoanSummaryService) {
+        this.service = service;
+        this.bookingService = bookingService;
+        this.sweeper = sweeper;
+        this.archiver = archiver;
+        this.memberLoanSummaryService = memberLoanSummaryService;
+        this.mapper = LoanMapper.INSTANCE;
+    }
+
+    @GetMapping("/admin/loans")
+    LoanDto findById(@RequestParam(value = "id") Long id) {
+        return mapper.loanToLoanDto(service.findById(id));
+    }
+
+    /**
+     * Responds 409 if the copy is already booked over the loan window
+     */
+    @PostMapping("/admin/loans")
+    LoanDto book(@RequestBody LoanDto loan) {
+        logger.debug("Book loan called");
+        if (loan.getGameCopyId() == null || loan.getLoanStatusId() == null)
+            throw new BadRequestException("A loan needs a copy id and a status id");
+        return mapper.loanToLoanDto(bookingService.book(mapper.loanDtoToLoan(loan), loan.getGameCopyId(),
+                loan.getLoanStatusId()));
+    }
+
+    /**
+     * Moves the loan to the status, responds 409 if its current status does not allow it
+     */
+    @PutMapping("/admin/loans/status")
+    LoanDto transition(@RequestParam(value = "id") Long id, @RequestParam(value = "status") LoanStatusEnum status) {
+        logger.debug("Loan transition called");
+        service.transition(id, status);
+        return mapper.loanToLoanDto(service.findById(id));
+    }
+
+    @GetMapping("/admin/loans/sweeps")
+    SweepStatusDto sweepStatus() {
+        return sweeper.status();
+    }
+
+    /**
+     * Runs an overdue loan sweep now, unless one is already running
+     */
+    @PostMapping("/admin/loans/sweeps")
+    SweepStatusDto sweep() {
+        logger.debug("Overdue loan sweep called");
+        sweeper.sweep();
+        return sweeper.status();
+    }
+
+    /**
+     * Archives the loans closed before the retention period now
+     *
+     * @return the number of loans archived, -1 if an archiving was already running
+     */
+    @PostMapping("/admin/loans/archives")
+    long archive() {
+        logger.debug("Loan archiving called");
+        return archiver.archive();
+    }
+
+    /**
+     * The latest loans of a member (userUuid) or of a copy (copyId), current and archived ones
+     */
+    @GetMapping("/admin/loans/history")
+    List<LoanHistoryDto> history(@RequestParam(value = "userUuid", required = false) String userUuid,
+                                 @RequestParam(value = "copyId", required = false) Long copyId,
+                                 @RequestParam(value = "size", defaultValue = "100") int size) {
+        return service.history(userUuid, copyId, size);
+    }
+
+    /**
+     * The loan dashboard of the authenticated member
+     */
+    @GetMapping("/loans/dashboard")
+    MemberDashboardDto dashboard(Principal principal) {
+        return memberLoanSummaryService.dashboard(principal.getName());
+    }
+
+    @GetMapping("/admin/loans/dashboard")
+    MemberDashboardDto dashboard(@RequestParam(value = "userUuid") String userUuid) {
+        return memberLoanSummaryService.dashboard(userUuid);
+    }
+
+    /**
+     * Free windows of a copy (copyId) or of the lendable copies of a game (gameId), between from and to
+     */
+    @GetMapping("/games/calendar")
+    List<CopyCalendarDto> calendar(@RequestParam(value = "copyId", required = false) Long copyId,
+                                   @RequestParam(value = "gameId", required = false) Long gameId,
+                                   @RequestParam(value = "from")
+                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                   @RequestParam(value = "to")
+                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return service.calendar(copyId, gameId, from, to);
+    }
+}
@@ -0,0 +1,43 @@
+package org.motoc.gamelibrary.controller;
+
+import org.motoc.gamelibrary.business.SearchService;
+import org.motoc.gamelibrary.business.index.SuggestIndex;
+import org.motoc.gamelibrary.dto.SuggestionDto;
+import org.motoc.gamelibrary.dto.TextSearchHitDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Defines full text search and suggestion endpoints
+ *
+ * @author RouzicJ
+ */
+@CrossOrigin(origins = "http://localhost:4200")
+@RestController
+public class SearchController {
+
+    private final SearchService service;
+
+    @Autowired
+    public SearchController(SearchService service) {
+        this.service = service;
+    }
+
+    @GetMapping("/search")
+    List<TextSearchHitDto> search(@RequestParam(value = "q") String query,
+                                  @RequestParam(value = "size", defaultValue = "20") int size) {
+        return service.search(query, size);
+    }
+
+    /**
+     * Names starting by the prefix, or having a word starting by it, for the admin forms
+     */
+    @GetMapping("/admin/suggest")
+    List<SuggestionDto> suggest(@RequestParam(value = "q") String prefix,
+                                @RequestParam(value = "type", required = false) SuggestIndex.SuggestionType type,
+                                @RequestParam(value = "size", defaultValue = "10") int size) {
+        return service.suggest(prefix, type, size);
+    }
+}
@@ -1,6 +1,7 @@
 package org.motoc.gamelibrary.controller;
 
 import org.motoc.gamelibrary.business.ThemeService;
+import org.motoc.gamelibrary.business.refactor.KeysetPage;
 import org.motoc.gamelibrary.dto.ThemeDto;
 import org.motoc.gamelibrary.mapper.ThemeMapper;
 import org.slf4j.Logger;
@@ -8,8 +9,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * Defines theme endpoint
  *
@@ -64,12 +69,32 @@ public class ThemeController {
         return mapper.themePageToThemePageDto(service.findPage(pageable));
     }
 
+    @GetMapping("/admin/themes/slice")
+    Slice<ThemeDto> findSlice(Pageable pageable) {
+        return mapper.themeSliceToThemeSliceDto(service.findSlice(pageable));
+    }
+
+    @GetMapping("/admin/themes/keyset")
+    KeysetPage<ThemeDto> findKeysetPage(@RequestParam(value = "token", required = false) String token,
+                                        @RequestParam(value = "size", defaultValue = "20") int size,
+                                        @RequestParam(value = "sort", defaultValue = "name") String sort,
+                                        @RequestParam(value = "direction", defaultValue = "ASC") Sort.Direction direction,
+                                        @RequestParam(value = "withTotal", defaultValue = "false") boolean withTotal) {
+        return mapper.themeKeysetPageToThemeKeysetPageDto(service.findKeysetPage(sort, direction, token, size, withTotal));
+    }
+
     @PostMapping("/admin/themes")
     ThemeDto save(@RequestBody ThemeDto theme) {
         logger.debug("Save theme called");
         return mapper.themeToThemeDto(service.save(mapper.themeDtoToTheme(theme)));
     }
 
+    @PostMapping("/admin/themes/bulk")
+    List<ThemeDto> saveAll(@RequestBody List<ThemeDto> themes) {
+        logger.debug("Save {} themes called", themes.size());
+        return mapper.themesToThemeDtos(service.saveAll(mapper.themeDtosToThemes(themes)));
+    }
+
     @PutMapping("/admin/themes/{id}")
     ThemeDto edit(@RequestBody ThemeDto theme,
                   @PathVariable Long id) {
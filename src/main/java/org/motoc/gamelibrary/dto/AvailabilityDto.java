@@ -0,0 +1,20 @@
+package org.motoc.gamelibrary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Copy counts of a game, copies which cannot be lent are not counted
+ *
+ * @author RouzicJ
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityDto {
+
+    private int available;
+    private int onLoan;
+    private int reserved;
+}
@@ -0,0 +1,21 @@
+package org.motoc.gamelibrary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The windows in which a game copy can be booked
+ *
+ * @author RouzicJ
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CopyCalendarDto {
+
+    private long copyId;
+    private List<TimeWindowDto> freeWindows;
+}
@@ -0,0 +1,35 @@
+package org.motoc.gamelibrary.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A copy of the exported inventory
+ *
+ * @author RouzicJ
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonPropertyOrder({"id", "objectCode", "gameId", "gameName", "generalState", "wearCondition", "loanable", "location",
+        "price", "dateOfPurchase", "registerDate", "seller"})
+public class CopyExportRowDto {
+
+    private long id;
+    private String objectCode;
+    private long gameId;
+    private String gameName;
+    private String generalState;
+    private String wearCondition;
+    private boolean loanable;
+    private String location;
+    private BigDecimal price;
+    private LocalDate dateOfPurchase;
+    private LocalDate registerDate;
+    private String seller;
+}
@@ -0,0 +1,38 @@
+package org.motoc.gamelibrary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.motoc.gamelibrary.model.enumeration.GameNatureEnum;
+
+/**
+ * Game's DTO, with the rule texts : only used for the detail of a game
+ *
+ * @author RouzicJ
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameDto {
+
+    private long id;
+    private String name;
+    private String description;
+    private String playTime;
+    private short minNumberOfPlayer;
+    private short maxNumberOfPlayer;
+    private short minAge;
+    private short maxAge;
+    private short minMonth;
+    private String stuff;
+    private String preparation;
+    private String goal;
+    private String coreRules;
+    private String variant;
+    private String ending;
+    private GameNatureEnum nature;
+    private String size;
+    private String editionNumber;
+    private String publisherName;
+    private AvailabilityDto availability;
+}
@@ -0,0 +1,44 @@
+package org.motoc.gamelibrary.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A game of the exported catalog, with its references given by name.
+ * The columns are the ones of {@link GameImportRowDto}, so that an export can be imported again.
+ *
+ * @author RouzicJ
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonPropertyOrder({"id", "name", "description", "playTime", "minNumberOfPlayer", "maxNumberOfPlayer", "minAge",
+        "maxAge", "minMonth", "stuff", "goal", "nature", "publisher", "creators", "themes", "categories", "copies"})
+public class GameExportRowDto {
+
+    private long id;
+    private String name;
+    private String description;
+    private String playTime;
+    private short minNumberOfPlayer;
+    private short maxNumberOfPlayer;
+    private short minAge;
+    private short maxAge;
+    private short minMonth;
+    private String stuff;
+    private String goal;
+    private String nature;
+    private String publisher;
+    private List<String> creators;
+    private List<String> themes;
+    private List<String> categories;
+
+    /**
+     * Object codes of the copies
+     */
+    private List<String> copies;
+}
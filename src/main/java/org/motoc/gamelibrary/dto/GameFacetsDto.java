@@ -0,0 +1,28 @@
+package org.motoc.gamelibrary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Facet counts of the games matching a selection
+ *
+ * @author RouzicJ
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameFacetsDto {
+
+    /**
+     * Number of games matching the whole selection
+     */
+    private int total;
+
+    /**
+     * Number of games by facet value, by facet name
+     */
+    private Map<String, Map<String, Integer>> counts;
+}
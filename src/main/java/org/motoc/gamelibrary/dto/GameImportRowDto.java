@@ -0,0 +1,47 @@
+package org.motoc.gamelibrary.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A game of an imported catalog, with its references given by name.
+ * In CSV, the list values are separated by '|', creators are "first name last name" or "last name".
+ *
+ * @author RouzicJ
+ */
+@Data
+@NoArgsConstructor
+public class GameImportRowDto {
+
+    private String name;
+    private String description;
+    private String playTime;
+    private Short minNumberOfPlayer;
+    private Short maxNumberOfPlayer;
+    private Short minAge;
+    private Short maxAge;
+    private Short minMonth;
+    private String stuff;
+    private String goal;
+
+    /**
+     * A nature name or its french translation
+     */
+    private String nature;
+    private String publisher;
+    private List<String> creators;
+    private List<String> themes;
+    private List<String> categories;
+
+    /**
+     * Object codes of the copies to create
+     */
+    private List<String> copies;
+
+    /**
+     * Wear condition of the copies
+     */
+    private String wearCondition;
+}
@@ -0,0 +1,35 @@
+package org.motoc.gamelibrary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.motoc.gamelibrary.model.enumeration.GameNatureEnum;
+
+/**
+ * Filters of a game search, a null filter is not applied.
+ * <p>Number of players and ages are ranges of the group who wants to play : a game matches if its own range overlaps
+ * it, a max of 0 in a game meaning no upper bound.</p>
+ *
+ * @author RouzicJ
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameSearchCriteria {
+
+    private Short minNumberOfPlayer;
+    private Short maxNumberOfPlayer;
+    private Short minAge;
+    private Short maxAge;
+
+    /**
+     * Age of the youngest player in months, for games made for toddlers
+     */
+    private Short minMonth;
+
+    private GameNatureEnum nature;
+    private Long themeId;
+    private Long categoryId;
+    private Long creatorId;
+    private Long publisherId;
+}
@@ -0,0 +1,46 @@
+package org.motoc.gamelibrary.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.motoc.gamelibrary.model.enumeration.GameNatureEnum;
+
+/**
+ * Game's light DTO, for lists and searches : it carries none of the rule texts
+ *
+ * @author RouzicJ
+ */
+@Data
+@NoArgsConstructor
+public class GameSummaryDto {
+
+    private long id;
+    private String name;
+    private short minNumberOfPlayer;
+    private short maxNumberOfPlayer;
+    private short minAge;
+    private short maxAge;
+    private short minMonth;
+    private GameNatureEnum nature;
+    private String publisherName;
+
+    /**
+     * Filled from the availability index, not by the queries
+     */
+    private AvailabilityDto availability;
+
+    /**
+     * Used by the JPQL constructor expressions of the repositories
+     */
+    public GameSummaryDto(long id, String name, short minNumberOfPlayer, short maxNumberOfPlayer, short minAge,
+                          short maxAge, short minMonth, GameNatureEnum nature, String publisherName) {
+        this.id = id;
+        this.name = name;
+        this.minNumberOfPlayer = minNumberOfPlayer;
+        this.maxNumberOfPlayer = maxNumberOfPlayer;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+        this.minMonth = minMonth;
+        this.nature = nature;
+        this.publisherName = publisherName;
+    }
+}
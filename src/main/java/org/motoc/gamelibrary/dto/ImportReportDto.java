@@ -0,0 +1,37 @@
+package org.motoc.gamelibrary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a catalog import : the counts of what was read and created, and the first rejected rows
+ *
+ * @author RouzicJ
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportReportDto {
+
+    private long rowsRead;
+    private long gamesCreated;
+    private long copiesCreated;
+    private long publishersCreated;
+    private long creatorsCreated;
+    private long themesCreated;
+    private long categoriesCreated;
+    private long rejectedRows;
+
+    /**
+     * Capped, see rejectedRows for the total
+     */
+    private List<ImportErrorDto> errors;
+
+    /**
+     * The import stopped before the end of the file
+     */
+    private boolean aborted;
+}
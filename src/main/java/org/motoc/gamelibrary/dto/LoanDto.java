@@ -0,0 +1,25 @@
+package org.motoc.gamelibrary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A loan, its copy and status given by id
+ *
+ * @author RouzicJ
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanDto {
+
+    private long id;
+    private String userUuid;
+    private LocalDateTime loanStartTime;
+    private LocalDateTime loanEndTime;
+    private Long gameCopyId;
+    private Long loanStatusId;
+}
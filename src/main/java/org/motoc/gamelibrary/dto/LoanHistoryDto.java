@@ -0,0 +1,31 @@
+package org.motoc.gamelibrary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.motoc.gamelibrary.model.enumeration.LoanStatusEnum;
+
+import java.time.LocalDateTime;
+
+/**
+ * A loan of a member or copy history, current or archived
+ *
+ * @author RouzicJ
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanHistoryDto {
+
+    private long id;
+    private String userUuid;
+    private LocalDateTime loanStartTime;
+    private LocalDateTime loanEndTime;
+    private Long gameCopyId;
+
+    /**
+     * Null for a status which is not a step of the loan workflow
+     */
+    private LoanStatusEnum status;
+    private boolean archived;
+}
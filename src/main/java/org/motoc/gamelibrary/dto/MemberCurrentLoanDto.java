@@ -0,0 +1,27 @@
+package org.motoc.gamelibrary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.motoc.gamelibrary.model.enumeration.LoanStatusEnum;
+
+import java.time.LocalDateTime;
+
+/**
+ * A reserved, running or overdue loan of a member, with the name of its game
+ *
+ * @author RouzicJ
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberCurrentLoanDto {
+
+    private long loanId;
+    private Long gameCopyId;
+    private Long gameId;
+    private String gameName;
+    private LoanStatusEnum status;
+    private LocalDateTime loanStartTime;
+    private LocalDateTime loanEndTime;
+}
@@ -0,0 +1,30 @@
+package org.motoc.gamelibrary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The loans of a member : counts by status, next dates and current loans
+ *
+ * @author RouzicJ
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberDashboardDto {
+
+    private String userUuid;
+    private int reservedLoans;
+    private int runningLoans;
+    private int overdueLoans;
+    private int returnedLoans;
+    private int cancelledLoans;
+    private LocalDateTime nextReturn;
+    private LocalDateTime nextStart;
+    private LocalDateTime refreshedAt;
+    private List<MemberCurrentLoanDto> currentLoans;
+}
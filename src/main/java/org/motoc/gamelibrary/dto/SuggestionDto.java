@@ -0,0 +1,21 @@
+package org.motoc.gamelibrary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.motoc.gamelibrary.business.index.SuggestIndex;
+
+/**
+ * A name suggested while typing
+ *
+ * @author RouzicJ
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDto {
+
+    private SuggestIndex.SuggestionType type;
+    private long id;
+    private String label;
+}
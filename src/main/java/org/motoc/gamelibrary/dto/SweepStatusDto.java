@@ -0,0 +1,34 @@
+package org.motoc.gamelibrary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of the overdue loan sweeps : the current or last run, and the totals since startup
+ *
+ * @author RouzicJ
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SweepStatusDto {
+
+    private boolean running;
+    private long runs;
+    private LocalDateTime lastStart;
+    private long lastDurationMillis;
+
+    /**
+     * Loans moved to overdue and copies moved to unreturned by the current or last run
+     */
+    private long lastOverdueLoans;
+    private long lastUnreturnedCopies;
+
+    private long totalOverdueLoans;
+    private long totalUnreturnedCopies;
+    private long totalChunks;
+    private long failedRuns;
+}
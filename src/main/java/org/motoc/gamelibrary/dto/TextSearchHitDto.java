@@ -0,0 +1,27 @@
+package org.motoc.gamelibrary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.motoc.gamelibrary.business.index.FullTextIndex;
+
+/**
+ * A full text search result : a game or an article
+ *
+ * @author RouzicJ
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TextSearchHitDto {
+
+    private FullTextIndex.DocumentType type;
+    private long id;
+
+    /**
+     * Name of the game, short description of the article
+     */
+    private String title;
+
+    private double score;
+}
@@ -0,0 +1,32 @@
+package org.motoc.gamelibrary.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.factory.Mappers;
+import org.motoc.gamelibrary.dto.GameDto;
+import org.motoc.gamelibrary.model.Game;
+
+/**
+ * Maps model to dto and and dto to model
+ *
+ * @author RouzicJ
+ */
+@Mapper(componentModel = "spring")
+public interface GameMapper {
+
+    GameMapper INSTANCE = Mappers.getMapper(GameMapper.class);
+
+    @Mapping(source = "publisher.name", target = "publisherName")
+    @Mapping(target = "availability", ignore = true)
+    GameDto gameToGameDto(Game game);
+
+    @Mapping(target = "coreGame", ignore = true)
+    @Mapping(target = "productLine", ignore = true)
+    @Mapping(target = "publisher", ignore = true)
+    @Mapping(target = "images", ignore = true)
+    @Mapping(target = "creators", ignore = true)
+    @Mapping(target = "categories", ignore = true)
+    @Mapping(target = "themes", ignore = true)
+    @Mapping(target = "gameCopies", ignore = true)
+    Game gameDtoToGame(GameDto game);
+}
@@ -0,0 +1,26 @@
+package org.motoc.gamelibrary.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.factory.Mappers;
+import org.motoc.gamelibrary.dto.LoanDto;
+import org.motoc.gamelibrary.model.Loan;
+
+/**
+ * Maps loan entities and DTOs, the associations being resolved by the service
+ *
+ * @author RouzicJ
+ */
+@Mapper(componentModel = "spring")
+public interface LoanMapper {
+
+    LoanMapper INSTANCE = Mappers.getMapper(LoanMapper.class);
+
+    @Mapping(source = "gameCopy.id", target = "gameCopyId")
+    @Mapping(source = "loanStatus.id", target = "loanStatusId")
+    LoanDto loanToLoanDto(Loan loan);
+
+    @Mapping(target = "gameCopy", ignore = true)
+    @Mapping(target = "loanStatus", ignore = true)
+    Loan loanDtoToLoan(LoanDto loan);
+}
@@ -0,0 +1,23 @@
+package org.motoc.gamelibrary.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.factory.Mappers;
+import org.motoc.gamelibrary.dto.MemberCurrentLoanDto;
+import org.motoc.gamelibrary.dto.MemberDashboardDto;
+import org.motoc.gamelibrary.model.MemberCurrentLoan;
+import org.motoc.gamelibrary.model.MemberLoanSummary;
+
+/**
+ * Maps member loan summaries to dashboard DTOs
+ *
+ * @author RouzicJ
+ */
+@Mapper(componentModel = "spring")
+public interface MemberLoanSummaryMapper {
+
+    MemberLoanSummaryMapper INSTANCE = Mappers.getMapper(MemberLoanSummaryMapper.class);
+
+    MemberDashboardDto summaryToDashboardDto(MemberLoanSummary summary);
+
+    MemberCurrentLoanDto currentLoanToDto(MemberCurrentLoan currentLoan);
+}
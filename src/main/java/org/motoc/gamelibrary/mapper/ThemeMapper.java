@@ -3,9 +3,13 @@ package org.motoc.gamelibrary.mapper;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
+import org.motoc.gamelibrary.business.refactor.KeysetPage;
 import org.motoc.gamelibrary.dto.ThemeDto;
 import org.motoc.gamelibrary.model.Theme;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
 
 /**
  * Maps model to dto and and dto to model
@@ -21,8 +25,20 @@ public interface ThemeMapper {
         return themePage.map(this::themeToThemeDto);
     }
 
+    default Slice<ThemeDto> themeSliceToThemeSliceDto(Slice<Theme> themeSlice) {
+        return themeSlice.map(this::themeToThemeDto);
+    }
+
+    default KeysetPage<ThemeDto> themeKeysetPageToThemeKeysetPageDto(KeysetPage<Theme> themePage) {
+        return themePage.map(this::themeToThemeDto);
+    }
+
     ThemeDto themeToThemeDto(Theme theme);
 
     @Mapping(target = "games", ignore = true)
     Theme themeDtoToTheme(ThemeDto theme);
+
+    List<ThemeDto> themesToThemeDtos(List<Theme> themes);
+
+    List<Theme> themeDtosToThemes(List<ThemeDto> themes);
 }
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.validator.constraints.Range;
+import org.motoc.gamelibrary.business.index.FullTextIndexListener;
 import org.motoc.gamelibrary.model.enumeration.GameNatureEnum;
 import org.motoc.gamelibrary.validation.annotation.ConsistentAgeRange;
 import org.motoc.gamelibrary.validation.annotation.ConsistentNumberOfPlayer;
@@ -28,7 +29,14 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(uniqueConstraints = @UniqueConstraint(columnNames = "name"))
+@EntityListeners(FullTextIndexListener.class)
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = "name"),
+        indexes = {
+                // range filters of the game search
+                @Index(name = "idx_game_number_of_player", columnList = "minNumberOfPlayer, maxNumberOfPlayer"),
+                @Index(name = "idx_game_age", columnList = "minAge, maxAge, minMonth"),
+                @Index(name = "idx_game_nature", columnList = "nature"),
+                @Index(name = "idx_game_publisher", columnList = "fk_publisher")})
 public class Game {
 
     @Id
@@ -143,21 +151,27 @@ public class Game {
     @JoinTable(
             name = "game_creator",
             joinColumns = {@JoinColumn(name = "fk_game")},
-            inverseJoinColumns = {@JoinColumn(name = "fk_creator")})
+            inverseJoinColumns = {@JoinColumn(name = "fk_creator")},
+            // the primary key starts with fk_game, this one serves lookups by creator
+            indexes = @Index(name = "idx_game_creator_creator", columnList = "fk_creator, fk_game"))
     private Set<Creator> creators = new HashSet<>();
 
     @ManyToMany
     @JoinTable(
             name = "game_category",
             joinColumns = {@JoinColumn(name = "fk_game")},
-            inverseJoinColumns = {@JoinColumn(name = "fk_category")})
+            inverseJoinColumns = {@JoinColumn(name = "fk_category")},
+            // the primary key starts with fk_game, this one serves lookups by category
+            indexes = @Index(name = "idx_game_category_category", columnList = "fk_category, fk_game"))
     private Set<Category> categories = new HashSet<>();
 
     @ManyToMany
     @JoinTable(
             name = "game_theme",
             joinColumns = {@JoinColumn(name = "fk_game")},
-            inverseJoinColumns = {@JoinColumn(name = "fk_theme")})
+            inverseJoinColumns = {@JoinColumn(name = "fk_theme")},
+            // the primary key starts with fk_game, this one serves lookups by theme
+            indexes = @Index(name = "idx_game_theme_theme", columnList = "fk_theme, fk_game"))
     private Set<Theme> themes = new HashSet<>();
 
     @OneToMany(mappedBy = "game")
@@ -3,6 +3,7 @@ package org.motoc.gamelibrary.model;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.motoc.gamelibrary.business.index.LoanIndexListener;
 import org.motoc.gamelibrary.model.enumeration.GeneralStateEnum;
 
 import javax.persistence.*;
@@ -22,6 +23,7 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners(LoanIndexListener.class)
 @Table(uniqueConstraints = @UniqueConstraint(columnNames = "objectCode"))
 public class GameCopy {
 
@@ -61,6 +63,12 @@ public class GameCopy {
 
     private boolean isLoanable;
 
+    /**
+     * Incremented by each booking of the copy, so that concurrent bookings from several instances conflict
+     */
+    @Version
+    private long version;
+
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "fk_game")
     private Game game;
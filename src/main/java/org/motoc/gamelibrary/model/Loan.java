@@ -3,6 +3,7 @@ package org.motoc.gamelibrary.model;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.motoc.gamelibrary.business.index.LoanIndexListener;
 import org.motoc.gamelibrary.validation.annotation.ConsistentDateTime;
 
 import javax.persistence.*;
@@ -22,6 +23,14 @@ import java.util.Objects;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners(LoanIndexListener.class)
+@Table(indexes = {
+        // overlap checks of a copy : on postgres, an exclusion constraint over tsrange(start, end) needs btree_gist
+        @Index(name = "idx_loan_copy_window", columnList = "fk_game_copy, loanStartTime, loanEndTime"),
+        // overdue sweeps : loans of a status ended before a time
+        @Index(name = "idx_loan_end_status", columnList = "loanEndTime, fk_loan_status"),
+        // member history
+        @Index(name = "idx_loan_user", columnList = "userUuid, loanStartTime")})
 public class Loan {
 
     @Id
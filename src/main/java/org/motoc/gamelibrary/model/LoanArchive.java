@@ -0,0 +1,43 @@
+package org.motoc.gamelibrary.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A closed loan moved out of the loan table, so that the queries on current loans only read recent rows.
+ * The copy and the status are kept by id : archived loans outlive the copies they refer to.
+ *
+ * @author RouzicJ
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_loan_archive_user", columnList = "userUuid, loanStartTime"),
+        @Index(name = "idx_loan_archive_copy", columnList = "gameCopyId, loanStartTime")})
+public class LoanArchive {
+
+    /**
+     * The id the loan had
+     */
+    @Id
+    private long id;
+
+    @Column(nullable = false, length = 50)
+    private String userUuid;
+
+    @Column(nullable = false)
+    private LocalDateTime loanStartTime;
+
+    @Column(nullable = false)
+    private LocalDateTime loanEndTime;
+
+    private Long gameCopyId;
+
+    private Long loanStatusId;
+}
@@ -0,0 +1,37 @@
+package org.motoc.gamelibrary.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.motoc.gamelibrary.model.enumeration.LoanStatusEnum;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import java.time.LocalDateTime;
+
+/**
+ * A current loan of a member summary, with the name of its game
+ *
+ * @author RouzicJ
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class MemberCurrentLoan {
+
+    @Column(nullable = false)
+    private long loanId;
+
+    private Long gameCopyId;
+
+    private Long gameId;
+
+    private String gameName;
+
+    private LoanStatusEnum status;
+
+    private LocalDateTime loanStartTime;
+
+    private LocalDateTime loanEndTime;
+}
@@ -0,0 +1,67 @@
+package org.motoc.gamelibrary.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The loans of a member summed up, read model of the member dashboard.
+ * It is recomputed from the loans of the member when they change, and read with its current loans in one query.
+ *
+ * @author RouzicJ
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class MemberLoanSummary {
+
+    @Id
+    @Column(length = 50)
+    private String userUuid;
+
+    /**
+     * Proposed or validated loans
+     */
+    private int reservedLoans;
+
+    private int runningLoans;
+
+    private int overdueLoans;
+
+    /**
+     * Returned loans, archived ones included
+     */
+    private int returnedLoans;
+
+    /**
+     * Cancelled loans, archived ones included
+     */
+    private int cancelledLoans;
+
+    /**
+     * The earliest end of the running or overdue loans
+     */
+    private LocalDateTime nextReturn;
+
+    /**
+     * The earliest start of the reserved loans
+     */
+    private LocalDateTime nextStart;
+
+    @Column(nullable = false)
+    private LocalDateTime refreshedAt;
+
+    /**
+     * The reserved, running and overdue loans
+     */
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "member_current_loan", joinColumns = @JoinColumn(name = "fk_member_loan_summary"))
+    @OrderBy("loanStartTime")
+    private List<MemberCurrentLoan> currentLoans = new ArrayList<>();
+}
@@ -11,6 +11,13 @@ public enum GameNatureEnum {
     BOARD_GAME("Jeu de société"),
     BIG_GAME("Grand jeu");
 
+    private final String frenchTranslation;
+
     GameNatureEnum(String frenchTranslation) {
+        this.frenchTranslation = frenchTranslation;
+    }
+
+    public String getFrenchTranslation() {
+        return frenchTranslation;
     }
 }
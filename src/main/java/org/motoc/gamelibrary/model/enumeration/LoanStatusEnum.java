@@ -0,0 +1,71 @@
+package org.motoc.gamelibrary.model.enumeration;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The steps of a loan, each one matching the LoanStatus of same tag, and the moves allowed between them
+ *
+ * @author RouzicJ
+ */
+public enum LoanStatusEnum {
+
+    PROPOSED("Proposé"),
+    VALIDATED("Validé"),
+    RUNNING("En cours"),
+    OVERDUE("En retard"),
+    RETURNED("Rendu"),
+    CANCELLED("Annulé");
+
+    private final String tag;
+
+    LoanStatusEnum(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * The statuses a loan can move to from this one
+     */
+    public Set<LoanStatusEnum> next() {
+        switch (this) {
+            case PROPOSED:
+                return EnumSet.of(VALIDATED, CANCELLED);
+            case VALIDATED:
+                return EnumSet.of(RUNNING, CANCELLED);
+            case RUNNING:
+                return EnumSet.of(RETURNED, OVERDUE);
+            case OVERDUE:
+                return EnumSet.of(RETURNED);
+            default:
+                return EnumSet.noneOf(LoanStatusEnum.class);
+        }
+    }
+
+    /**
+     * The statuses a loan can move to this one from
+     */
+    public Set<LoanStatusEnum> previous() {
+        Set<LoanStatusEnum> result = EnumSet.noneOf(LoanStatusEnum.class);
+        for (LoanStatusEnum status : values())
+            if (status.next().contains(this))
+                result.add(status);
+        return result;
+    }
+
+    /**
+     * A loan can be created with this status
+     */
+    public boolean isInitial() {
+        return this == PROPOSED || this == VALIDATED;
+    }
+
+    public static Optional<LoanStatusEnum> fromTag(String tag) {
+        return Arrays.stream(values()).filter(status -> status.tag.equals(tag)).findFirst();
+    }
+}
@@ -2,8 +2,11 @@ package org.motoc.gamelibrary.repository;
 
 import org.motoc.gamelibrary.model.Article;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * This repository takes advantage of Spring data / JPA
  *
@@ -11,4 +14,10 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface ArticleRepository extends JpaRepository<Article, Long> {
+
+    /**
+     * Indexed texts of every article : id, short description and html content
+     */
+    @Query("select a.id, a.shortDescription, a.htmlContent from Article a")
+    List<Object[]> findAllTextFields();
 }
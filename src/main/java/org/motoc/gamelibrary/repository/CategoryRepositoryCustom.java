@@ -0,0 +1,12 @@
+package org.motoc.gamelibrary.repository;
+
+/**
+ * It's the category custom repository, made to create / use javax persistence objects, criteria, queryDSL (if needed)
+ */
+public interface CategoryRepositoryCustom {
+
+    /**
+     * Removes a category, removing it from games and from its sub categories before
+     */
+    void remove(Long id);
+}
@@ -2,8 +2,11 @@ package org.motoc.gamelibrary.repository;
 
 import org.motoc.gamelibrary.model.Creator;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * This repository takes advantage of Spring data / JPA
  *
@@ -11,4 +14,10 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface CreatorRepository extends JpaRepository<Creator, Long> {
+
+    /**
+     * Id, first name and last name of every creator
+     */
+    @Query("select c.id, c.firstName, c.lastName from Creator c")
+    List<Object[]> findAllNames();
 }
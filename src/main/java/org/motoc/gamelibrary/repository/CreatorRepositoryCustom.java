@@ -0,0 +1,12 @@
+package org.motoc.gamelibrary.repository;
+
+/**
+ * It's the creator custom repository, made to create / use javax persistence objects, criteria, queryDSL (if needed)
+ */
+public interface CreatorRepositoryCustom {
+
+    /**
+     * Removes a creator, removing it from games before
+     */
+    void remove(Long id);
+}
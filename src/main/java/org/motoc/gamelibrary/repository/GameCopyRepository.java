@@ -1,9 +1,16 @@
 package org.motoc.gamelibrary.repository;
 
 import org.motoc.gamelibrary.model.GameCopy;
+import org.motoc.gamelibrary.model.enumeration.GeneralStateEnum;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * This repository takes advantage of Spring data / JPA
  *
@@ -11,4 +18,33 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface GameCopyRepository extends JpaRepository<GameCopy, Long> {
+
+    /**
+     * Id, game id, loanable flag and general state of every copy
+     */
+    @Query("select c.id, c.game.id, c.isLoanable, c.generalState from GameCopy c")
+    List<Object[]> findAllAvailabilityFields();
+
+    /**
+     * Id, game id, loanable flag and general state of the copies
+     */
+    @Query("select c.id, c.game.id, c.isLoanable, c.generalState from GameCopy c where c.id in :copyIds")
+    List<Object[]> findAvailabilityFields(@Param("copyIds") Collection<Long> copyIds);
+
+    /**
+     * Sets the general state of the copies not having it yet, incrementing their version as bookings rely on it.
+     * Bypasses the persistence context and the entity listeners.
+     *
+     * @return the number of copies updated
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update GameCopy c set c.generalState = :state, c.version = c.version + 1 " +
+            "where c.id in :copyIds and c.generalState <> :state")
+    int updateGeneralState(@Param("copyIds") Collection<Long> copyIds, @Param("state") GeneralStateEnum state);
+
+    /**
+     * Object code of every copy
+     */
+    @Query("select c.objectCode from GameCopy c")
+    List<String> findAllObjectCodes();
 }
@@ -1,9 +1,15 @@
 package org.motoc.gamelibrary.repository;
 
+import org.motoc.gamelibrary.dto.GameSummaryDto;
 import org.motoc.gamelibrary.model.Game;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * This repository takes advantage of Spring data / JPA
  *
@@ -11,4 +17,43 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface GameRepository extends JpaRepository<Game, Long> {
+
+    /**
+     * Selects only the summary columns, so that the rule LOBs are not read
+     */
+    @Query(value = "select new org.motoc.gamelibrary.dto.GameSummaryDto(g.id, g.name, g.minNumberOfPlayer, " +
+            "g.maxNumberOfPlayer, g.minAge, g.maxAge, g.minMonth, g.nature, p.name) " +
+            "from Game g left join g.publisher p",
+            countQuery = "select count(g) from Game g")
+    Page<GameSummaryDto> findSummaryPage(Pageable pageable);
+
+    /**
+     * Facet columns of every game : id, nature, min and max number of player, min age and min month
+     */
+    @Query("select g.id, g.nature, g.minNumberOfPlayer, g.maxNumberOfPlayer, g.minAge, g.minMonth from Game g")
+    List<Object[]> findAllFacetFields();
+
+    /**
+     * Every (game id, theme id) couple
+     */
+    @Query("select g.id, t.id from Game g join g.themes t")
+    List<Object[]> findAllThemeLinks();
+
+    /**
+     * Every (game id, category id) couple
+     */
+    @Query("select g.id, c.id from Game g join g.categories c")
+    List<Object[]> findAllCategoryLinks();
+
+    /**
+     * Indexed texts of every game : id, name, nature, description, goal, core rules and stuff
+     */
+    @Query("select g.id, g.name, g.nature, g.description, g.goal, g.coreRules, g.stuff from Game g")
+    List<Object[]> findAllTextFields();
+
+    /**
+     * Id and name of every game
+     */
+    @Query("select g.id, g.name from Game g")
+    List<Object[]> findAllNames();
 }
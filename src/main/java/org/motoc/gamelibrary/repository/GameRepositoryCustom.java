@@ -0,0 +1,20 @@
+package org.motoc.gamelibrary.repository;
+
+import org.motoc.gamelibrary.dto.GameSearchCriteria;
+import org.motoc.gamelibrary.dto.GameSummaryDto;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+/**
+ * It's the game custom repository, made to create / use javax persistence objects, criteria, queryDSL (if needed)
+ */
+public interface GameRepositoryCustom {
+
+    /**
+     * Finds the summaries of games matching every given criteria, without count query
+     *
+     * @throws org.motoc.gamelibrary.technical.exception.BadRequestException if sorted by an attribute which is not
+     *                                                                       one of the summary
+     */
+    Slice<GameSummaryDto> search(GameSearchCriteria criteria, Pageable pageable);
+}
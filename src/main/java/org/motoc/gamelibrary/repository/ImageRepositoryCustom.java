@@ -0,0 +1,12 @@
+package org.motoc.gamelibrary.repository;
+
+/**
+ * It's the image custom repository, made to create / use javax persistence objects, criteria, queryDSL (if needed)
+ */
+public interface ImageRepositoryCustom {
+
+    /**
+     * Removes a image, removing it from games and articles before
+     */
+    void remove(Long id);
+}
@@ -2,8 +2,11 @@ package org.motoc.gamelibrary.repository;
 
 import org.motoc.gamelibrary.model.Keyword;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * This repository takes advantage of Spring data / JPA
  *
@@ -11,4 +14,10 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface KeywordRepository extends JpaRepository<Keyword, Long> {
+
+    /**
+     * Id and tag of every keyword
+     */
+    @Query("select k.id, k.tag from Keyword k")
+    List<Object[]> findAllTags();
 }
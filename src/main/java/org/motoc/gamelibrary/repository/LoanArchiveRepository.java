@@ -0,0 +1,50 @@
+package org.motoc.gamelibrary.repository;
+
+import org.motoc.gamelibrary.model.LoanArchive;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This repository takes advantage of Spring data / JPA
+ *
+ * @author RouzicJ
+ */
+@Repository
+public interface LoanArchiveRepository extends JpaRepository<LoanArchive, Long> {
+
+    /**
+     * Copies the loans into the archive, with a single insert select
+     *
+     * @return the number of loans copied
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("insert into LoanArchive (id, userUuid, loanStartTime, loanEndTime, gameCopyId, loanStatusId) " +
+            "select l.id, l.userUuid, l.loanStartTime, l.loanEndTime, l.gameCopy.id, l.loanStatus.id from Loan l " +
+            "where l.id in :loanIds")
+    int copyLoans(@Param("loanIds") Collection<Long> loanIds);
+
+    /**
+     * The latest archived loans of the member, served by idx_loan_archive_user
+     */
+    @Query("select a from LoanArchive a where a.userUuid = :userUuid order by a.loanStartTime desc, a.id desc")
+    List<LoanArchive> findByUser(@Param("userUuid") String userUuid, Pageable pageable);
+
+    /**
+     * The latest archived loans of the copy, served by idx_loan_archive_copy
+     */
+    @Query("select a from LoanArchive a where a.gameCopyId = :copyId order by a.loanStartTime desc, a.id desc")
+    List<LoanArchive> findByCopy(@Param("copyId") long copyId, Pageable pageable);
+
+    /**
+     * Status id and archived loan count of each status of the member's loans. Served by idx_loan_archive_user.
+     */
+    @Query("select a.loanStatusId, count(a) from LoanArchive a where a.userUuid = :userUuid group by a.loanStatusId")
+    List<Object[]> countByStatusOfUser(@Param("userUuid") String userUuid);
+}
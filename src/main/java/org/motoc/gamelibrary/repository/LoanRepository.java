@@ -1,9 +1,19 @@
 package org.motoc.gamelibrary.repository;
 
 import org.motoc.gamelibrary.model.Loan;
+import org.motoc.gamelibrary.model.LoanStatus;
+import org.motoc.gamelibrary.model.enumeration.GeneralStateEnum;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 /**
  * This repository takes advantage of Spring data / JPA
  *
@@ -11,4 +21,117 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface LoanRepository extends JpaRepository<Loan, Long> {
+
+    /**
+     * Loans with a status, not ended yet or with their copy still out : id, copy id, status id, start time and end time
+     */
+    @Query("select l.id, l.gameCopy.id, s.id, l.loanStartTime, l.loanEndTime from Loan l join l.loanStatus s " +
+            "where l.gameCopy is not null and (l.loanEndTime > :now or s.tag in :onLoanTags)")
+    List<Object[]> findOpenLoans(@Param("now") LocalDateTime now, @Param("onLoanTags") List<String> onLoanTags);
+
+    /**
+     * Ids of the loans holding the copy over [start, end) : not ended with a blocking status, or with the copy still
+     * out past their end. Served by idx_loan_copy_window.
+     *
+     * @param ignoredLoanId the loan being edited, 0 for a new one
+     */
+    @Query("select l.id from Loan l join l.loanStatus s " +
+            "where l.gameCopy.id = :copyId and l.id <> :ignoredLoanId and l.loanStartTime < :end " +
+            "and s.tag in :blockingTags " +
+            "and (l.loanEndTime > :start or (s.tag in :onLoanTags and l.loanEndTime <= :now))")
+    List<Long> findOverlappingLoanIds(@Param("copyId") long copyId, @Param("ignoredLoanId") long ignoredLoanId,
+                                      @Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+                                      @Param("blockingTags") List<String> blockingTags,
+                                      @Param("onLoanTags") List<String> onLoanTags,
+                                      @Param("now") LocalDateTime now);
+
+    /**
+     * Moves the loans to the target status, only those whose current status is one of the sources.
+     * Bypasses the persistence context and the entity listeners : the loans already loaded are to be refreshed.
+     *
+     * @return the number of loans moved
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update Loan l set l.loanStatus = :target where l.id in :loanIds and l.loanStatus.id in :sourceIds")
+    int transition(@Param("loanIds") Collection<Long> loanIds, @Param("target") LoanStatus target,
+                   @Param("sourceIds") Collection<Long> sourceIds);
+
+    /**
+     * Id, copy id, status id, start time, end time and user uuid of the loans
+     */
+    @Query("select l.id, l.gameCopy.id, l.loanStatus.id, l.loanStartTime, l.loanEndTime, l.userUuid from Loan l " +
+            "where l.id in :loanIds")
+    List<Object[]> findWindowFields(@Param("loanIds") Collection<Long> loanIds);
+
+    /**
+     * Id and end time of the next loans of the status ended before the limit, after (afterEnd, afterId) in end time
+     * then id order. Served by idx_loan_end_status.
+     */
+    @Query("select l.id, l.loanEndTime from Loan l " +
+            "where l.loanEndTime < :limit and l.loanStatus.id = :statusId " +
+            "and (l.loanEndTime > :afterEnd or (l.loanEndTime = :afterEnd and l.id > :afterId)) " +
+            "order by l.loanEndTime, l.id")
+    List<Object[]> findEndedChunk(@Param("statusId") long statusId, @Param("limit") LocalDateTime limit,
+                                  @Param("afterEnd") LocalDateTime afterEnd, @Param("afterId") long afterId,
+                                  Pageable pageable);
+
+    /**
+     * Ids of the next copies held by a loan of the status ended before the limit, after afterId, whose general
+     * state is not one of the excluded ones. Served by idx_loan_end_status.
+     */
+    @Query("select distinct c.id from Loan l join l.gameCopy c " +
+            "where l.loanEndTime < :limit and l.loanStatus.id = :statusId " +
+            "and c.id > :afterId and c.generalState not in :excludedStates order by c.id")
+    List<Long> findHeldCopyIdsChunk(@Param("statusId") long statusId, @Param("limit") LocalDateTime limit,
+                                    @Param("excludedStates") Collection<GeneralStateEnum> excludedStates,
+                                    @Param("afterId") long afterId, Pageable pageable);
+
+    /**
+     * Ids of the oldest loans of the statuses ended before the limit. Served by idx_loan_end_status.
+     */
+    @Query("select l.id from Loan l where l.loanEndTime < :limit and l.loanStatus.id in :statusIds " +
+            "order by l.loanEndTime, l.id")
+    List<Long> findEndedIds(@Param("statusIds") Collection<Long> statusIds, @Param("limit") LocalDateTime limit,
+                            Pageable pageable);
+
+    /**
+     * Bypasses the persistence context and the entity listeners : the loans already loaded are to be detached
+     *
+     * @return the number of loans deleted
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("delete from Loan l where l.id in :loanIds")
+    int deleteAllByIdIn(@Param("loanIds") Collection<Long> loanIds);
+
+    /**
+     * The latest loans of the member : id, user uuid, start time, end time, copy id and status id.
+     * Served by idx_loan_user.
+     */
+    @Query("select l.id, l.userUuid, l.loanStartTime, l.loanEndTime, l.gameCopy.id, l.loanStatus.id from Loan l " +
+            "where l.userUuid = :userUuid order by l.loanStartTime desc, l.id desc")
+    List<Object[]> findHistoryByUser(@Param("userUuid") String userUuid, Pageable pageable);
+
+    /**
+     * The latest loans of the copy : id, user uuid, start time, end time, copy id and status id.
+     * Served by idx_loan_copy_window.
+     */
+    @Query("select l.id, l.userUuid, l.loanStartTime, l.loanEndTime, l.gameCopy.id, l.loanStatus.id from Loan l " +
+            "where l.gameCopy.id = :copyId order by l.loanStartTime desc, l.id desc")
+    List<Object[]> findHistoryByCopy(@Param("copyId") long copyId, Pageable pageable);
+
+    /**
+     * The loans of the member with one of the statuses : id, copy id, game id, game name, status id, start time and
+     * end time. Served by idx_loan_user.
+     */
+    @Query("select l.id, c.id, g.id, g.name, l.loanStatus.id, l.loanStartTime, l.loanEndTime from Loan l " +
+            "left join l.gameCopy c left join c.game g " +
+            "where l.userUuid = :userUuid and l.loanStatus.id in :statusIds")
+    List<Object[]> findLoansOfUser(@Param("userUuid") String userUuid,
+                                   @Param("statusIds") Collection<Long> statusIds);
+
+    /**
+     * Status id and loan count of each status of the member's loans. Served by idx_loan_user.
+     */
+    @Query("select l.loanStatus.id, count(l) from Loan l where l.userUuid = :userUuid group by l.loanStatus.id")
+    List<Object[]> countByStatusOfUser(@Param("userUuid") String userUuid);
 }
@@ -2,8 +2,11 @@ package org.motoc.gamelibrary.repository;
 
 import org.motoc.gamelibrary.model.LoanStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * This repository takes advantage of Spring data / JPA
  *
@@ -11,4 +14,10 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface LoanStatusRepository extends JpaRepository<LoanStatus, Long> {
+
+    /**
+     * Id and tag of every loan status
+     */
+    @Query("select s.id, s.tag from LoanStatus s")
+    List<Object[]> findAllTags();
 }
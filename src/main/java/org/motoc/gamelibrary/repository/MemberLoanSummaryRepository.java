@@ -0,0 +1,24 @@
+package org.motoc.gamelibrary.repository;
+
+import org.motoc.gamelibrary.model.MemberLoanSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * This repository takes advantage of Spring data / JPA
+ *
+ * @author RouzicJ
+ */
+@Repository
+public interface MemberLoanSummaryRepository extends JpaRepository<MemberLoanSummary, String> {
+
+    /**
+     * Members having loans but no summary yet
+     */
+    @Query("select distinct l.userUuid from Loan l " +
+            "where not exists (select s.userUuid from MemberLoanSummary s where s.userUuid = l.userUuid)")
+    List<String> findUsersWithoutSummary();
+}
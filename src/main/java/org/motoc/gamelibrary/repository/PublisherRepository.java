@@ -2,8 +2,11 @@ package org.motoc.gamelibrary.repository;
 
 import org.motoc.gamelibrary.model.Publisher;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * This repository takes advantage of Spring data / JPA
  *
@@ -11,4 +14,10 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface PublisherRepository extends JpaRepository<Publisher, Long> {
+
+    /**
+     * Id and name of every publisher
+     */
+    @Query("select p.id, p.name from Publisher p")
+    List<Object[]> findAllNames();
 }
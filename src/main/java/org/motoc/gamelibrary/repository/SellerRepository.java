@@ -2,7 +2,11 @@ package org.motoc.gamelibrary.repository;
 
 import org.motoc.gamelibrary.model.Seller;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
 /**
  * This repository takes advantage of Spring data / JPA
  *
@@ -10,4 +14,10 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface SellerRepository extends JpaRepository<Seller, Long> {
+
+    /**
+     * Id and name of every seller
+     */
+    @Query("select s.id, s.name from Seller s")
+    List<Object[]> findAllNames();
 }
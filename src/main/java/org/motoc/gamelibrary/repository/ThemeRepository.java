@@ -2,7 +2,11 @@ package org.motoc.gamelibrary.repository;
 
 import org.motoc.gamelibrary.model.Theme;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
 /**
  * This repository takes advantage of Spring data / JPA
  *
@@ -11,4 +15,9 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface ThemeRepository extends JpaRepository<Theme, Long> {
 
+    /**
+     * Id and name of every theme
+     */
+    @Query("select t.id, t.name from Theme t")
+    List<Object[]> findAllNames();
 }
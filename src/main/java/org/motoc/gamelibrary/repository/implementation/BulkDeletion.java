@@ -0,0 +1,90 @@
+package org.motoc.gamelibrary.repository.implementation;
+
+import org.hibernate.Hibernate;
+import org.motoc.gamelibrary.technical.PersistenceContexts;
+import org.motoc.gamelibrary.technical.exception.NotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Deletes an entity behind many-to-many join tables with bulk statements, so that the associated entities are neither
+ * loaded nor dirty checked.
+ * <p>Bulk statements bypass the persistence context. The entities already loaded in the transaction stay managed :
+ * the deleted entity is removed from their loaded collections before the bulk statements, the deleted instance alone
+ * is detached after them.</p>
+ *
+ * @author RouzicJ
+ */
+@Component
+public class BulkDeletion {
+
+    private final EntityManager entityManager;
+
+    @Autowired
+    public BulkDeletion(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Sends pending changes before any bulk statement
+     */
+    public void prepare() {
+        entityManager.flush();
+    }
+
+    /**
+     * Entities of the type managed by the current persistence context, without loading any
+     */
+    public <T> List<T> loaded(Class<T> type) {
+        return PersistenceContexts.loaded(entityManager, type);
+    }
+
+    /**
+     * The entity, or its proxy, has this id
+     */
+    public boolean hasId(Object entity, Long id) {
+        return entity != null &&
+                id.equals(entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity));
+    }
+
+    /**
+     * Deletes the rows of the join table referencing the entity. The loaded owners holding it in their collection lose
+     * it first, their rows being deleted by a flush : these collections would write it back otherwise.
+     *
+     * @param collection the collection of the owner mapped by the join table, left alone while not initialized
+     */
+    public <O> int deleteJoinRows(Class<O> ownerType, Function<O, Collection<?>> collection, String joinTable,
+                                  String joinColumn, Long id) {
+        boolean unlinked = false;
+        for (O owner : loaded(ownerType)) {
+            Collection<?> elements = collection.apply(owner);
+            if (Hibernate.isInitialized(elements))
+                unlinked |= elements.removeIf(element -> hasId(element, id));
+        }
+        if (unlinked)
+            entityManager.flush();
+        return entityManager.createNativeQuery("delete from " + joinTable + " where " + joinColumn + " = :id")
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+
+    /**
+     * Deletes the entity, then detaches its loaded instance, if any
+     */
+    public void deleteEntity(Class<?> type, Long id) {
+        String entityName = entityManager.getMetamodel().entity(type).getName();
+        int deleted = entityManager.createQuery("delete from " + entityName + " e where e.id = :id")
+                .setParameter("id", id)
+                .executeUpdate();
+        if (deleted == 0)
+            throw new NotFoundException(id);
+        loaded(type).stream()
+                .filter(entity -> hasId(entity, id))
+                .forEach(entityManager::detach);
+    }
+}
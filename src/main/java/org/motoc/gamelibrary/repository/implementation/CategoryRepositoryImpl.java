@@ -0,0 +1,43 @@
+package org.motoc.gamelibrary.repository.implementation;
+
+import io.micrometer.core.annotation.Timed;
+import org.motoc.gamelibrary.model.Category;
+import org.motoc.gamelibrary.model.Game;
+import org.motoc.gamelibrary.repository.CategoryRepositoryCustom;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+
+/**
+ * It's the category custom repository implementation, made to create / use javax persistence objects, criteria, queryDSL (if needed)
+ */
+@Repository
+public class CategoryRepositoryImpl implements CategoryRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    private final BulkDeletion bulkDeletion;
+
+    @Autowired
+    public CategoryRepositoryImpl(EntityManager entityManager, BulkDeletion bulkDeletion) {
+        this.entityManager = entityManager;
+        this.bulkDeletion = bulkDeletion;
+    }
+
+    @Override
+    @Timed(value = "gamelibrary.repository", histogram = true,
+            extraTags = {"entity", "category", "operation", "remove"})
+    public void remove(Long id) {
+        // sub categories become root categories, the loaded ones being updated by the flush
+        bulkDeletion.loaded(Category.class).stream()
+                .filter(category -> bulkDeletion.hasId(category.getParent(), id))
+                .forEach(category -> category.setParent(null));
+        bulkDeletion.prepare();
+        entityManager.createQuery("update Category c set c.parent = null where c.parent.id = :id")
+                .setParameter("id", id)
+                .executeUpdate();
+        bulkDeletion.deleteJoinRows(Game.class, Game::getCategories, "game_category", "fk_category", id);
+        bulkDeletion.deleteEntity(Category.class, id);
+    }
+}
@@ -0,0 +1,31 @@
+package org.motoc.gamelibrary.repository.implementation;
+
+import io.micrometer.core.annotation.Timed;
+import org.motoc.gamelibrary.model.Creator;
+import org.motoc.gamelibrary.model.Game;
+import org.motoc.gamelibrary.repository.CreatorRepositoryCustom;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+/**
+ * It's the creator custom repository implementation, made to create / use javax persistence objects, criteria, queryDSL (if needed)
+ */
+@Repository
+public class CreatorRepositoryImpl implements CreatorRepositoryCustom {
+
+    private final BulkDeletion bulkDeletion;
+
+    @Autowired
+    public CreatorRepositoryImpl(BulkDeletion bulkDeletion) {
+        this.bulkDeletion = bulkDeletion;
+    }
+
+    @Override
+    @Timed(value = "gamelibrary.repository", histogram = true,
+            extraTags = {"entity", "creator", "operation", "remove"})
+    public void remove(Long id) {
+        bulkDeletion.prepare();
+        bulkDeletion.deleteJoinRows(Game.class, Game::getCreators, "game_creator", "fk_creator", id);
+        bulkDeletion.deleteEntity(Creator.class, id);
+    }
+}
@@ -0,0 +1,118 @@
+package org.motoc.gamelibrary.repository.implementation;
+
+import io.micrometer.core.annotation.Timed;
+import org.motoc.gamelibrary.dto.GameSearchCriteria;
+import org.motoc.gamelibrary.dto.GameSummaryDto;
+import org.motoc.gamelibrary.model.Game;
+import org.motoc.gamelibrary.model.Publisher;
+import org.motoc.gamelibrary.repository.GameRepositoryCustom;
+import org.motoc.gamelibrary.technical.exception.BadRequestException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * It's the game custom repository implementation, made to create / use javax persistence objects, criteria, queryDSL (if needed)
+ */
+@Repository
+public class GameRepositoryImpl implements GameRepositoryCustom {
+
+    /**
+     * The attributes of the game summary, the publisher name excepted : sorting by it would drop the games without
+     * publisher
+     */
+    private static final Set<String> SORTABLE = Set.of("id", "name", "minNumberOfPlayer", "maxNumberOfPlayer",
+            "minAge", "maxAge", "minMonth", "nature");
+
+    private final EntityManager entityManager;
+
+    @Autowired
+    public GameRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Timed(value = "gamelibrary.repository", histogram = true,
+            extraTags = {"entity", "game", "operation", "search"})
+    public Slice<GameSummaryDto> search(GameSearchCriteria criteria, Pageable pageable) {
+        for (Sort.Order order : pageable.getSort())
+            if (!SORTABLE.contains(order.getProperty()))
+                throw new BadRequestException("Cannot sort by " + order.getProperty());
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<GameSummaryDto> query = cb.createQuery(GameSummaryDto.class);
+        Root<Game> game = query.from(Game.class);
+        Join<Game, Publisher> publisher = game.join("publisher", JoinType.LEFT);
+
+        query.select(cb.construct(GameSummaryDto.class, game.get("id"), game.get("name"),
+                game.get("minNumberOfPlayer"), game.get("maxNumberOfPlayer"), game.get("minAge"), game.get("maxAge"),
+                game.get("minMonth"), game.get("nature"), publisher.get("name")))
+                .where(toPredicates(criteria, cb, game, publisher))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), game, cb));
+
+        TypedQuery<GameSummaryDto> typedQuery = entityManager.createQuery(query);
+        if (pageable.isUnpaged())
+            return new SliceImpl<>(typedQuery.getResultList());
+
+        // one more element than asked tells if there is a next slice
+        List<GameSummaryDto> content = typedQuery
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext)
+            content = content.subList(0, pageable.getPageSize());
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    private Predicate[] toPredicates(GameSearchCriteria criteria, CriteriaBuilder cb, Root<Game> game,
+                                     Join<Game, Publisher> publisher) {
+        List<Predicate> predicates = new ArrayList<>();
+
+        addOverlap(predicates, cb, game.get("minNumberOfPlayer"), game.get("maxNumberOfPlayer"),
+                criteria.getMinNumberOfPlayer(), criteria.getMaxNumberOfPlayer());
+        addOverlap(predicates, cb, game.get("minAge"), game.get("maxAge"), criteria.getMinAge(), criteria.getMaxAge());
+
+        if (criteria.getMinMonth() != null) {
+            // a game has either a min age in years or a min age in months, the other one being 0
+            predicates.add(cb.le(game.get("minMonth"), criteria.getMinMonth()));
+            predicates.add(cb.le(cb.prod(game.get("minAge"), 12), (int) criteria.getMinMonth()));
+        }
+        if (criteria.getNature() != null)
+            predicates.add(cb.equal(game.get("nature"), criteria.getNature()));
+        if (criteria.getPublisherId() != null)
+            predicates.add(cb.equal(publisher.get("id"), criteria.getPublisherId()));
+
+        // a game is linked once at most to a theme, category or creator : these joins never duplicate rows
+        if (criteria.getThemeId() != null)
+            predicates.add(cb.equal(game.join("themes").get("id"), criteria.getThemeId()));
+        if (criteria.getCategoryId() != null)
+            predicates.add(cb.equal(game.join("categories").get("id"), criteria.getCategoryId()));
+        if (criteria.getCreatorId() != null)
+            predicates.add(cb.equal(game.join("creators").get("id"), criteria.getCreatorId()));
+
+        return predicates.toArray(new Predicate[0]);
+    }
+
+    /**
+     * The game range [gameMin, gameMax] must overlap the asked one, a game max of 0 meaning no upper bound
+     */
+    private void addOverlap(List<Predicate> predicates, CriteriaBuilder cb, Path<Short> gameMin, Path<Short> gameMax,
+                            Short min, Short max) {
+        if (max != null)
+            predicates.add(cb.le(gameMin, max));
+        if (min != null)
+            predicates.add(cb.or(cb.equal(gameMax, (short) 0), cb.ge(gameMax, min)));
+    }
+}
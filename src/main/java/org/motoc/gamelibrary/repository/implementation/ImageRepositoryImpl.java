@@ -0,0 +1,33 @@
+package org.motoc.gamelibrary.repository.implementation;
+
+import io.micrometer.core.annotation.Timed;
+import org.motoc.gamelibrary.model.Article;
+import org.motoc.gamelibrary.model.Game;
+import org.motoc.gamelibrary.model.Image;
+import org.motoc.gamelibrary.repository.ImageRepositoryCustom;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+/**
+ * It's the image custom repository implementation, made to create / use javax persistence objects, criteria, queryDSL (if needed)
+ */
+@Repository
+public class ImageRepositoryImpl implements ImageRepositoryCustom {
+
+    private final BulkDeletion bulkDeletion;
+
+    @Autowired
+    public ImageRepositoryImpl(BulkDeletion bulkDeletion) {
+        this.bulkDeletion = bulkDeletion;
+    }
+
+    @Override
+    @Timed(value = "gamelibrary.repository", histogram = true,
+            extraTags = {"entity", "image", "operation", "remove"})
+    public void remove(Long id) {
+        bulkDeletion.prepare();
+        bulkDeletion.deleteJoinRows(Game.class, Game::getImages, "game_image", "fk_image", id);
+        bulkDeletion.deleteJoinRows(Article.class, Article::getImages, "article_image", "fk_image", id);
+        bulkDeletion.deleteEntity(Image.class, id);
+    }
+}
@@ -1,13 +1,12 @@
 package org.motoc.gamelibrary.repository.implementation;
 
+import io.micrometer.core.annotation.Timed;
 import org.motoc.gamelibrary.model.Game;
 import org.motoc.gamelibrary.model.Theme;
 import org.motoc.gamelibrary.repository.ThemeRepositoryCustom;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
-import javax.persistence.EntityManager;
-
 /**
  * It's the theme custom repository implementation, made to create / use javax persistence objects, criteria, queryDSL (if needed)
  */
@@ -15,19 +14,19 @@ import javax.persistence.EntityManager;
 public class ThemeRepositoryImpl implements ThemeRepositoryCustom {
 
 
-    private final EntityManager entityManager;
+    private final BulkDeletion bulkDeletion;
 
     @Autowired
-    public ThemeRepositoryImpl(EntityManager entityManager) {
-        this.entityManager = entityManager;
+    public ThemeRepositoryImpl(BulkDeletion bulkDeletion) {
+        this.bulkDeletion = bulkDeletion;
     }
 
     @Override
+    @Timed(value = "gamelibrary.repository", histogram = true,
+            extraTags = {"entity", "theme", "operation", "remove"})
     public void remove(Long id) {
-        Theme theme = entityManager.find(Theme.class, id);
-        for (Game game : theme.getGames()) {
-            game.removeTheme(theme);
-        }
-        entityManager.remove(theme);
+        bulkDeletion.prepare();
+        bulkDeletion.deleteJoinRows(Game.class, Game::getThemes, "game_theme", "fk_theme", id);
+        bulkDeletion.deleteEntity(Theme.class, id);
     }
 }
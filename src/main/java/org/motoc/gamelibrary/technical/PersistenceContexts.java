@@ -0,0 +1,33 @@
+package org.motoc.gamelibrary.technical;
+
+import org.hibernate.engine.spi.SessionImplementor;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Lookups in the persistence context of the current transaction, to keep the loaded entities in line with the bulk
+ * statements which bypass it
+ *
+ * @author RouzicJ
+ */
+public final class PersistenceContexts {
+
+    private PersistenceContexts() {
+    }
+
+    /**
+     * Entities of the type managed by the persistence context, without loading any
+     */
+    public static <T> List<T> loaded(EntityManager entityManager, Class<T> type) {
+        return Arrays.stream(entityManager.unwrap(SessionImplementor.class).getPersistenceContext()
+                .reentrantSafeEntityEntries())
+                .map(Map.Entry::getKey)
+                .filter(type::isInstance)
+                .map(type::cast)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,45 @@
+package org.motoc.gamelibrary.technical;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Actions deferred to the end of the current transaction, shared by the services and the entity listeners feeding the
+ * in memory indexes and caches
+ *
+ * @author RouzicJ
+ */
+public final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    /**
+     * Runs the action once the current transaction is committed, or right away without transaction.
+     * Meant for in memory indexes, which must not see rolled back writes.
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        else
+            action.run();
+    }
+
+    /**
+     * Runs the action once the current transaction is committed or rolled back, nothing without transaction
+     */
+    public static void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+    }
+}
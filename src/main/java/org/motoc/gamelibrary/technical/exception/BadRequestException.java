@@ -0,0 +1,8 @@
+package org.motoc.gamelibrary.technical.exception;
+
+public class BadRequestException extends RuntimeException {
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package org.motoc.gamelibrary.technical.exception;
+
+import org.motoc.gamelibrary.model.enumeration.LoanStatusEnum;
+
+public class IllegalLoanTransitionException extends RuntimeException {
+
+    public IllegalLoanTransitionException(long loanId, LoanStatusEnum target) {
+        super("Loan " + loanId + " cannot move to " + target.getTag() + " from its current status");
+    }
+}
@@ -0,0 +1,14 @@
+package org.motoc.gamelibrary.technical.exception;
+
+import java.util.List;
+
+public class LoanConflictException extends RuntimeException {
+
+    public LoanConflictException(long copyId, List<Long> conflictingLoanIds) {
+        super("Copy " + copyId + " is already booked by loan(s) " + conflictingLoanIds);
+    }
+
+    public LoanConflictException(long copyId) {
+        super("Copy " + copyId + " is being booked by someone else, please retry");
+    }
+}
@@ -0,0 +1,128 @@
+package org.motoc.gamelibrary.technical.statistics;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Counts the SQL statements, the entities loaded and the time spent executing statements, on the current thread,
+ * between {@link #start()} and {@link #close()}.
+ * <p>Fed by the hibernate hooks of this package. Scopes can be nested, a statement is then counted by each of them.
+ * A JDBC batch is prepared, hence counted, once.</p>
+ *
+ * @author RouzicJ
+ */
+public final class QueryStatistics implements AutoCloseable {
+
+    public enum Kind {SELECT, INSERT, UPDATE, DELETE, OTHER}
+
+    private static final ThreadLocal<Deque<QueryStatistics>> ACTIVE = new ThreadLocal<>();
+
+    /**
+     * In lists of different sizes are a same query shape
+     */
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+
+    private final int[] statements = new int[Kind.values().length];
+
+    private final Map<String, Integer> shapes = new HashMap<>();
+
+    private long entitiesLoaded;
+
+    private long jdbcNanos;
+
+    private QueryStatistics() {
+    }
+
+    /**
+     * Starts counting on the current thread, until closed
+     */
+    public static QueryStatistics start() {
+        Deque<QueryStatistics> active = ACTIVE.get();
+        if (active == null) {
+            active = new ArrayDeque<>();
+            ACTIVE.set(active);
+        }
+        QueryStatistics statistics = new QueryStatistics();
+        active.push(statistics);
+        return statistics;
+    }
+
+    @Override
+    public void close() {
+        Deque<QueryStatistics> active = ACTIVE.get();
+        if (active == null)
+            return;
+        active.remove(this);
+        if (active.isEmpty())
+            ACTIVE.remove();
+    }
+
+    static void statementPrepared(String sql) {
+        Deque<QueryStatistics> active = ACTIVE.get();
+        if (active == null)
+            return;
+        Kind kind = kindOf(sql);
+        String shape = IN_LIST.matcher(sql).replaceAll("(?)");
+        for (QueryStatistics statistics : active) {
+            statistics.statements[kind.ordinal()]++;
+            statistics.shapes.merge(shape, 1, Integer::sum);
+        }
+    }
+
+    static void entityLoaded() {
+        Deque<QueryStatistics> active = ACTIVE.get();
+        if (active != null)
+            active.forEach(statistics -> statistics.entitiesLoaded++);
+    }
+
+    static void jdbcTime(long nanos) {
+        Deque<QueryStatistics> active = ACTIVE.get();
+        if (active != null)
+            active.forEach(statistics -> statistics.jdbcNanos += nanos);
+    }
+
+    public int statements() {
+        return Arrays.stream(statements).sum();
+    }
+
+    public int statements(Kind kind) {
+        return statements[kind.ordinal()];
+    }
+
+    public long entitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    public Duration jdbcTime() {
+        return Duration.ofNanos(jdbcNanos);
+    }
+
+    /**
+     * The SQL statements with their number of executions, most executed first
+     */
+    public LinkedHashMap<String, Integer> shapes() {
+        return shapes.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    @Override
+    public String toString() {
+        String byKind = Arrays.stream(Kind.values())
+                .filter(kind -> statements(kind) > 0)
+                .map(kind -> statements(kind) + " " + kind.name().toLowerCase())
+                .collect(Collectors.joining(", "));
+        return statements() + " statement(s) (" + byKind + "), " + entitiesLoaded + " entity(ies) loaded, " +
+                jdbcTime().toMillis() + " ms in JDBC";
+    }
+
+    private static Kind kindOf(String sql) {
+        String start = sql.stripLeading();
+        for (Kind kind : Kind.values())
+            if (start.regionMatches(true, 0, kind.name(), 0, kind.name().length()))
+                return kind;
+        return Kind.OTHER;
+    }
+}
@@ -0,0 +1,121 @@
+package org.motoc.gamelibrary.technical.statistics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Counts the statements, the entities loaded and the JDBC time of each request, to catch lazy loading storms.
+ * <p>Requests over one of the thresholds are logged with their most executed statements. The counts of every
+ * request are recorded as distributions, tagged by method and uri pattern.</p>
+ *
+ * @author RouzicJ
+ */
+@Component
+@ConditionalOnProperty(name = "query-statistics.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryStatisticsFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryStatisticsFilter.class);
+
+    private static final String UNMAPPED = "UNMAPPED";
+
+    private static final int SHAPE_MAX_LENGTH = 300;
+
+    private static final long STATEMENTS_MAX_EXPECTED = 1_000;
+
+    private static final long ENTITIES_MAX_EXPECTED = 100_000;
+
+    private final MeterRegistry meterRegistry;
+
+    private final int maxStatements;
+
+    private final long maxEntities;
+
+    private final Duration maxJdbcTime;
+
+    private final int loggedShapes;
+
+    @Autowired
+    public QueryStatisticsFilter(MeterRegistry meterRegistry,
+                                 @Value("${query-statistics.max-statements:30}") int maxStatements,
+                                 @Value("${query-statistics.max-entities:1000}") long maxEntities,
+                                 @Value("${query-statistics.max-jdbc-time:PT0.5S}") Duration maxJdbcTime,
+                                 @Value("${query-statistics.logged-shapes:5}") int loggedShapes) {
+        this.meterRegistry = meterRegistry;
+        this.maxStatements = maxStatements;
+        this.maxEntities = maxEntities;
+        this.maxJdbcTime = maxJdbcTime;
+        this.loggedShapes = loggedShapes;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try (QueryStatistics statistics = QueryStatistics.start()) {
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                record(request, statistics);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, QueryStatistics statistics) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("method", request.getMethod(), "uri", pattern == null ? UNMAPPED : pattern.toString());
+        DistributionSummary.builder("gamelibrary.request.statements")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(STATEMENTS_MAX_EXPECTED)
+                .register(meterRegistry)
+                .record(statistics.statements());
+        DistributionSummary.builder("gamelibrary.request.entities")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(ENTITIES_MAX_EXPECTED)
+                .register(meterRegistry)
+                .record(statistics.entitiesLoaded());
+        Timer.builder("gamelibrary.request.jdbc")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(statistics.jdbcTime());
+
+        if (statistics.statements() > maxStatements || statistics.entitiesLoaded() > maxEntities ||
+                statistics.jdbcTime().compareTo(maxJdbcTime) > 0) {
+            Counter.builder("gamelibrary.request.over.threshold").tags(tags).register(meterRegistry).increment();
+            logger.warn("{} {} : {}, most executed :\n{}", request.getMethod(), request.getRequestURI(), statistics,
+                    statistics.shapes().entrySet().stream()
+                            .limit(loggedShapes)
+                            .map(this::describe)
+                            .collect(Collectors.joining("\n")));
+        } else {
+            logger.debug("{} {} : {}", request.getMethod(), request.getRequestURI(), statistics);
+        }
+    }
+
+    private String describe(Map.Entry<String, Integer> shape) {
+        String sql = shape.getKey().length() > SHAPE_MAX_LENGTH ?
+                shape.getKey().substring(0, SHAPE_MAX_LENGTH) + "..." : shape.getKey();
+        return shape.getValue() + " x " + sql;
+    }
+}
@@ -0,0 +1,17 @@
+package org.motoc.gamelibrary.technical.statistics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Sees each SQL statement hibernate prepares, and leaves it unchanged
+ *
+ * @author RouzicJ
+ */
+public class QueryStatisticsInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryStatistics.statementPrepared(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,33 @@
+package org.motoc.gamelibrary.technical.statistics;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Measures the time spent executing statements, one instance per session
+ *
+ * @author RouzicJ
+ */
+public class QueryStatisticsSessionListener extends BaseSessionEventListener {
+
+    private long executionStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        QueryStatistics.jdbcTime(System.nanoTime() - executionStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        executionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        QueryStatistics.jdbcTime(System.nanoTime() - executionStart);
+    }
+}
@@ -0,0 +1,78 @@
+package org.motoc.gamelibrary.business;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.motoc.gamelibrary.model.Game;
+import org.motoc.gamelibrary.repository.GameCopyRepository;
+import org.motoc.gamelibrary.repository.GameRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The exports hold every game and every copy, with the associations of the games merged in
+ */
+@SpringBootTest
+class CatalogExportServiceTest {
+
+    @Autowired
+    CatalogExportService exportService;
+
+    @Autowired
+    GameRepository gameRepository;
+
+    @Autowired
+    GameCopyRepository gameCopyRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    void catalogHoldsEveryGameWithItsAssociations() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long exported = exportService.exportCatalog(output, CatalogExportService.Format.NDJSON);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(exported).isEqualTo(gameRepository.count());
+        assertThat(lines).hasSize((int) exported);
+        List<JsonNode> games = new ArrayList<>();
+        for (String line : lines)
+            games.add(objectMapper.readTree(line));
+        assertThat(games).extracting(game -> game.get("id").asLong()).isSorted();
+
+        transactionTemplate.execute(status -> {
+            for (JsonNode exportedGame : games) {
+                Game game = gameRepository.findById(exportedGame.get("id").asLong()).orElseThrow();
+                assertThat(exportedGame.get("name").asText()).isEqualTo(game.getName());
+                assertThat(exportedGame.get("themes")).extracting(JsonNode::asText).containsExactlyInAnyOrderElementsOf(
+                        game.getThemes().stream().map(theme -> theme.getName()).collect(Collectors.toList()));
+                assertThat(exportedGame.get("copies")).extracting(JsonNode::asText).containsExactlyInAnyOrderElementsOf(
+                        game.getGameCopies().stream().map(copy -> copy.getObjectCode()).collect(Collectors.toList()));
+            }
+            return null;
+        });
+    }
+
+    @Test
+    void inventoryHoldsEveryCopy() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long exported = exportService.exportInventory(output, CatalogExportService.Format.CSV);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(exported).isEqualTo(gameCopyRepository.count());
+        assertThat(lines).hasSize((int) exported + 1);
+        assertThat(lines[0]).startsWith("id,objectCode,gameId,gameName,generalState");
+    }
+}
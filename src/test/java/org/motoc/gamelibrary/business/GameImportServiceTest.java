@@ -0,0 +1,109 @@
+package org.motoc.gamelibrary.business;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.motoc.gamelibrary.dto.ImportReportDto;
+import org.motoc.gamelibrary.model.Game;
+import org.motoc.gamelibrary.model.GameCopy;
+import org.motoc.gamelibrary.repository.CategoryRepository;
+import org.motoc.gamelibrary.repository.GameCopyRepository;
+import org.motoc.gamelibrary.repository.GameRepository;
+import org.motoc.gamelibrary.repository.ThemeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Imports a small catalog, the invalid rows being reported while the others are written
+ */
+@SpringBootTest
+class GameImportServiceTest {
+
+    private static final String CSV = "name,minNumberOfPlayer,maxNumberOfPlayer,minAge,nature,themes,categories,copies\n" +
+            "Import one,2,4,8,Jeu de société,Import theme|Import other theme,Import category,94001|94002\n" +
+            "Import two,5,2,8,BOARD_GAME,Import theme,,94003\n" +
+            "Import three,two,4,8,BOARD_GAME,,,94004\n" +
+            "import ONE,2,4,8,BOARD_GAME,,,94005\n" +
+            "Import four,1,6,3,TOY,import THEME,,94002|94006\n" +
+            "Import five,1,6,3,TOY,import THEME,,\n";
+
+    @Autowired
+    GameImportService importService;
+
+    @Autowired
+    GameRepository gameRepository;
+
+    @Autowired
+    GameCopyRepository gameCopyRepository;
+
+    @Autowired
+    ThemeRepository themeRepository;
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void deleteImported() {
+        transactionTemplate.execute(status -> {
+            List<Game> games = gameRepository.findAll().stream()
+                    .filter(game -> game.getName().startsWith("Import "))
+                    .collect(Collectors.toList());
+            gameCopyRepository.deleteAll(games.stream().flatMap(game -> game.getGameCopies().stream())
+                    .collect(Collectors.toList()));
+            games.forEach(game -> {
+                game.getThemes().clear();
+                game.getCategories().clear();
+            });
+            gameRepository.deleteAll(games);
+            themeRepository.deleteAll(themeRepository.findAll().stream()
+                    .filter(theme -> theme.getName().startsWith("Import "))
+                    .collect(Collectors.toList()));
+            categoryRepository.deleteAll(categoryRepository.findAll().stream()
+                    .filter(category -> category.getName().startsWith("Import "))
+                    .collect(Collectors.toList()));
+            return null;
+        });
+    }
+
+    @Test
+    void validRowsAreImportedAndInvalidOnesReported() {
+        ImportReportDto report = importService.importGames(
+                new ByteArrayInputStream(CSV.getBytes(StandardCharsets.UTF_8)), GameImportService.Format.CSV);
+
+        assertThat(report.isAborted()).isFalse();
+        assertThat(report.getRowsRead()).isEqualTo(6);
+        assertThat(report.getGamesCreated()).isEqualTo(2);
+        assertThat(report.getCopiesCreated()).isEqualTo(2);
+        assertThat(report.getThemesCreated()).isEqualTo(2);
+        assertThat(report.getCategoriesCreated()).isEqualTo(1);
+        assertThat(report.getRejectedRows()).isEqualTo(4);
+        assertThat(report.getErrors()).extracting("row").containsExactlyInAnyOrder(2L, 3L, 4L, 5L);
+        assertThat(report.getErrors()).filteredOn("row", 2L).flatExtracting("messages")
+                .contains("Minimum number of player must be less than maximum number of player");
+
+        transactionTemplate.execute(status -> {
+            Game one = gameRepository.findAll().stream()
+                    .filter(game -> game.getName().equals("Import one")).findFirst().orElseThrow();
+            assertThat(one.getThemes()).hasSize(2);
+            assertThat(one.getCategories()).hasSize(1);
+            assertThat(one.getGameCopies()).extracting(GameCopy::getObjectCode)
+                    .containsExactlyInAnyOrder("94001", "94002");
+            Game five = gameRepository.findAll().stream()
+                    .filter(game -> game.getName().equals("Import five")).findFirst().orElseThrow();
+            assertThat(five.getThemes()).extracting("id").containsExactlyElementsOf(
+                    one.getThemes().stream().filter(theme -> theme.getName().equals("Import theme"))
+                            .map(theme -> theme.getId()).collect(Collectors.toList()));
+            return null;
+        });
+    }
+}
@@ -0,0 +1,120 @@
+package org.motoc.gamelibrary.business;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.motoc.gamelibrary.business.index.LoanStatusCache;
+import org.motoc.gamelibrary.dto.LoanHistoryDto;
+import org.motoc.gamelibrary.model.GameCopy;
+import org.motoc.gamelibrary.model.Loan;
+import org.motoc.gamelibrary.model.enumeration.GeneralStateEnum;
+import org.motoc.gamelibrary.model.enumeration.LoanStatusEnum;
+import org.motoc.gamelibrary.repository.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Archives more loans than a chunk holds, at a time no scheduled archiving reaches, then reads the history over both
+ * tables
+ */
+@SpringBootTest
+class LoanArchiverTest {
+
+    private static final int OLD_LOANS = 1100;
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2100, 6, 1, 12, 0);
+
+    @Autowired
+    LoanService loanService;
+
+    @Autowired
+    GameRepository gameRepository;
+
+    @Autowired
+    GameCopyRepository gameCopyRepository;
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    @Autowired
+    LoanArchiveRepository loanArchiveRepository;
+
+    @Autowired
+    LoanStatusRepository loanStatusRepository;
+
+    @Autowired
+    LoanStatusCache loanStatusCache;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    private GameCopy copy;
+
+    private final List<Loan> loans = new ArrayList<>();
+
+    @AfterEach
+    void deleteLoans() {
+        List<Long> loanIds = loans.stream().map(Loan::getId).collect(Collectors.toList());
+        transactionTemplate.execute(status -> {
+            loanArchiveRepository.deleteAll(loanArchiveRepository.findAllById(loanIds));
+            loanRepository.deleteAll(loanRepository.findAllById(loanIds));
+            gameCopyRepository.deleteById(copy.getId());
+            return null;
+        });
+    }
+
+    private void loan(LoanStatusEnum status, LocalDateTime end) {
+        Loan loan = new Loan();
+        loan.setUserUuid("archive");
+        loan.setLoanStartTime(end.minusDays(1));
+        loan.setLoanEndTime(end);
+        loan.setGameCopy(copy);
+        loan.setLoanStatus(loanStatusRepository.getOne(loanStatusCache.idOf(status)));
+        loans.add(loan);
+    }
+
+    @Test
+    void closedLoansAreArchivedAndStillInHistory() {
+        LoanArchiver archiver = new LoanArchiver(loanService, loanRepository, loanStatusCache, transactionTemplate,
+                Duration.ofDays(90), 500, Clock.fixed(Instant.from(NOW.atOffset(ZoneOffset.UTC)), ZoneOffset.UTC));
+        transactionTemplate.execute(status -> {
+            copy = new GameCopy();
+            copy.setObjectCode("92000");
+            copy.setRegisterDate(LocalDate.now());
+            copy.setWearCondition("Neuf");
+            copy.setGeneralState(GeneralStateEnum.IN_ACTIVITY);
+            copy.setLoanable(true);
+            copy.setGame(gameRepository.findAll().get(0));
+            gameCopyRepository.save(copy);
+            for (int i = 0; i < OLD_LOANS; i++)
+                loan(i % 2 == 0 ? LoanStatusEnum.RETURNED : LoanStatusEnum.CANCELLED, NOW.minusYears(1).plusHours(i));
+            loan(LoanStatusEnum.RETURNED, NOW.minusDays(1));
+            loan(LoanStatusEnum.VALIDATED, NOW.minusYears(2));
+            loanRepository.saveAll(loans);
+            return null;
+        });
+
+        assertThat(archiver.archive()).isEqualTo(OLD_LOANS);
+
+        assertThat(archiver.totalArchivedLoans()).isEqualTo(OLD_LOANS);
+        assertThat(loanRepository.findHistoryByCopy(copy.getId(), Pageable.unpaged())).hasSize(2);
+
+        List<LoanHistoryDto> history = loanService.history(null, copy.getId(), 1000);
+        assertThat(history).hasSize(1000);
+        assertThat(history.get(0).getId()).isEqualTo(loans.get(OLD_LOANS).getId());
+        assertThat(history.get(0).isArchived()).isFalse();
+        assertThat(history.get(1).getId()).isEqualTo(loans.get(OLD_LOANS - 1).getId());
+        assertThat(history.get(1).isArchived()).isTrue();
+        assertThat(history.get(1).getStatus()).isEqualTo(LoanStatusEnum.CANCELLED);
+        for (int i = 1; i < history.size(); i++)
+            assertThat(history.get(i).getLoanStartTime()).isBeforeOrEqualTo(history.get(i - 1).getLoanStartTime());
+    }
+}
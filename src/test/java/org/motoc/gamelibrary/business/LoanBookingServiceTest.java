@@ -0,0 +1,264 @@
+package org.motoc.gamelibrary.business;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.motoc.gamelibrary.business.index.LoanStatusCache;
+import org.motoc.gamelibrary.model.GameCopy;
+import org.motoc.gamelibrary.model.Loan;
+import org.motoc.gamelibrary.model.enumeration.GeneralStateEnum;
+import org.motoc.gamelibrary.model.enumeration.LoanStatusEnum;
+import org.motoc.gamelibrary.repository.GameCopyRepository;
+import org.motoc.gamelibrary.repository.GameRepository;
+import org.motoc.gamelibrary.repository.LoanRepository;
+import org.motoc.gamelibrary.repository.LoanStatusRepository;
+import org.motoc.gamelibrary.technical.exception.IllegalLoanTransitionException;
+import org.motoc.gamelibrary.technical.exception.LoanConflictException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * Stress test of the bookings : many threads booking the same copies at once
+ */
+@SpringBootTest
+class LoanBookingServiceTest {
+
+    private static final int THREADS = 8;
+
+    private static final int COPIES = 8;
+
+    private static final LocalDateTime BASE = LocalDate.now().plusYears(1).atStartOfDay();
+
+    @Autowired
+    LoanBookingService bookingService;
+
+    @Autowired
+    LoanService loanService;
+
+    @Autowired
+    GameRepository gameRepository;
+
+    @Autowired
+    GameCopyRepository gameCopyRepository;
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    @Autowired
+    LoanStatusRepository loanStatusRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    private final List<GameCopy> copies = new ArrayList<>();
+
+    private final List<Long> loanIds = Collections.synchronizedList(new ArrayList<>());
+
+    private long validatedStatusId;
+
+    @BeforeEach
+    void createCopies() {
+        validatedStatusId = loanStatusRepository.findAll().stream()
+                .filter(status -> LoanStatusEnum.VALIDATED.getTag().equals(status.getTag()))
+                .findFirst().orElseThrow().getId();
+        for (int i = 0; i < COPIES; i++) {
+            GameCopy copy = new GameCopy();
+            copy.setObjectCode(String.valueOf(90000 + i));
+            copy.setRegisterDate(LocalDate.now());
+            copy.setWearCondition("Neuf");
+            copy.setGeneralState(GeneralStateEnum.IN_ACTIVITY);
+            copy.setLoanable(true);
+            copy.setGame(gameRepository.findAll().get(0));
+            copies.add(gameCopyRepository.save(copy));
+        }
+    }
+
+    @AfterEach
+    void deleteCopies() {
+        transactionTemplate.execute(status -> {
+            loanRepository.deleteAll(loanRepository.findAllById(loanIds));
+            gameCopyRepository.deleteAll(gameCopyRepository.findAllById(
+                    copies.stream().map(GameCopy::getId).collect(Collectors.toList())));
+            return null;
+        });
+    }
+
+    private Loan book(long copyId, LocalDateTime start, LocalDateTime end) {
+        Loan loan = new Loan();
+        loan.setUserUuid("stress-" + Thread.currentThread().getId());
+        loan.setLoanStartTime(start);
+        loan.setLoanEndTime(end);
+        Loan booked = bookingService.book(loan, copyId, validatedStatusId);
+        loanIds.add(booked.getId());
+        return booked;
+    }
+
+    @Test
+    void sameWindowIsBookedOnce() throws Exception {
+        long copyId = copies.get(0).getId();
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++)
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    book(copyId, BASE, BASE.plusDays(2));
+                    booked.incrementAndGet();
+                } catch (LoanConflictException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        start.countDown();
+        for (Future<?> future : futures)
+            future.get(1, TimeUnit.MINUTES);
+        executor.shutdown();
+
+        assertThat(booked.get()).isEqualTo(1);
+        assertThat(rejected.get()).isEqualTo(THREADS - 1);
+    }
+
+    @Test
+    void randomWindowsNeverOverlap() throws Exception {
+        long copyId = copies.get(0).getId();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<List<Loan>>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Random random = new Random(i);
+            futures.add(executor.submit(() -> {
+                List<Loan> booked = new ArrayList<>();
+                for (int attempt = 0; attempt < 20; attempt++) {
+                    LocalDateTime start = BASE.plusHours(12L * random.nextInt(60));
+                    try {
+                        booked.add(book(copyId, start, start.plusHours(12L * (1 + random.nextInt(6)))));
+                    } catch (LoanConflictException e) {
+                        // expected for most of them
+                    }
+                }
+                return booked;
+            }));
+        }
+        List<Loan> booked = new ArrayList<>();
+        for (Future<List<Loan>> future : futures)
+            booked.addAll(future.get(1, TimeUnit.MINUTES));
+        executor.shutdown();
+
+        assertThat(booked).isNotEmpty();
+        booked.sort(Comparator.comparing(Loan::getLoanStartTime));
+        for (int i = 1; i < booked.size(); i++)
+            assertThat(booked.get(i).getLoanStartTime()).isAfterOrEqualTo(booked.get(i - 1).getLoanEndTime());
+        assertThat(loanRepository.findOverlappingLoanIds(copyId, 0, BASE, BASE.plusYears(1),
+                LoanStatusCache.BLOCKING_TAGS, LoanStatusCache.ON_LOAN_TAGS, LocalDateTime.now()))
+                .hasSameSizeAs(booked);
+    }
+
+    @Test
+    void transitionMovesOnlyFromAllowedStatuses() throws Exception {
+        long copyId = copies.get(0).getId();
+        long loanId = book(copyId, BASE, BASE.plusDays(1)).getId();
+
+        assertThatThrownBy(() -> loanService.transition(loanId, LoanStatusEnum.RETURNED))
+                .isInstanceOf(IllegalLoanTransitionException.class);
+
+        // two concurrent cancellations, only one of them moves the loan
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < 2; i++)
+            futures.add(executor.submit(() -> {
+                try {
+                    loanService.transition(loanId, LoanStatusEnum.CANCELLED);
+                    return true;
+                } catch (IllegalLoanTransitionException e) {
+                    return false;
+                }
+            }));
+        int moved = 0;
+        for (Future<Boolean> future : futures)
+            moved += future.get(1, TimeUnit.MINUTES) ? 1 : 0;
+        executor.shutdown();
+        assertThat(moved).isEqualTo(1);
+
+        // the cancelled loan does not hold the copy anymore
+        book(copyId, BASE, BASE.plusDays(1));
+    }
+
+    /**
+     * A transition inside a wider transaction refreshes the moved loan and leaves the other loaded entities managed
+     */
+    @Test
+    void transitionKeepsTheChangesOfItsTransaction() {
+        long loanId = book(copies.get(0).getId(), BASE, BASE.plusDays(1)).getId();
+        long copyId = copies.get(1).getId();
+
+        transactionTemplate.execute(status -> {
+            Loan loan = loanRepository.findById(loanId).orElseThrow();
+            GameCopy copy = gameCopyRepository.findById(copyId).orElseThrow();
+            copy.setWearCondition("Usé");
+
+            assertThat(loanService.transitionAll(List.of(loanId), LoanStatusEnum.CANCELLED)).isEqualTo(1);
+
+            assertThat(loan.getLoanStatus().getTag()).isEqualTo(LoanStatusEnum.CANCELLED.getTag());
+            copy.setLoanable(false);
+            return null;
+        });
+
+        GameCopy copy = gameCopyRepository.findById(copyId).orElseThrow();
+        assertThat(copy.getWearCondition()).isEqualTo("Usé");
+        assertThat(copy.isLoanable()).isFalse();
+    }
+
+    /**
+     * Bookings of different copies do not wait on each other : while the lock of a copy is held, another copy is still
+     * booked, well before the lock timeout. The throughput is measured by LoanBookingBenchmark.
+     */
+    @Test
+    void otherCopiesAreBookedWhileACopyIsLocked() throws Exception {
+        GameCopy locked = copies.get(0);
+        ReentrantLock stripe = bookingService.stripeOf(locked.getId());
+        GameCopy other = copies.stream()
+                .filter(copy -> bookingService.stripeOf(copy.getId()) != stripe)
+                .findFirst().orElseThrow();
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> holder = executor.submit(() -> {
+            stripe.lock();
+            try {
+                held.countDown();
+                release.await();
+            } finally {
+                stripe.unlock();
+            }
+            return null;
+        });
+        try {
+            assertThat(held.await(1, TimeUnit.MINUTES)).isTrue();
+
+            assertTimeoutPreemptively(Duration.ofSeconds(2), () -> book(other.getId(), BASE, BASE.plusDays(1)));
+            assertThat(stripe.isLocked()).isTrue();
+        } finally {
+            release.countDown();
+            holder.get(1, TimeUnit.MINUTES);
+            executor.shutdown();
+        }
+        assertThat(loanRepository.findAllById(loanIds)).extracting(loan -> loan.getGameCopy().getId())
+                .containsExactly(other.getId());
+    }
+}
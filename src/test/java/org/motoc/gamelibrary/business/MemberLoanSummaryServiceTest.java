@@ -0,0 +1,124 @@
+package org.motoc.gamelibrary.business;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.motoc.gamelibrary.business.index.LoanStatusCache;
+import org.motoc.gamelibrary.dto.MemberDashboardDto;
+import org.motoc.gamelibrary.model.Game;
+import org.motoc.gamelibrary.model.GameCopy;
+import org.motoc.gamelibrary.model.Loan;
+import org.motoc.gamelibrary.model.enumeration.GeneralStateEnum;
+import org.motoc.gamelibrary.model.enumeration.LoanStatusEnum;
+import org.motoc.gamelibrary.repository.GameCopyRepository;
+import org.motoc.gamelibrary.repository.GameRepository;
+import org.motoc.gamelibrary.repository.LoanRepository;
+import org.motoc.gamelibrary.repository.MemberLoanSummaryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The dashboard follows the loans of the member
+ */
+@SpringBootTest
+class MemberLoanSummaryServiceTest {
+
+    private static final String MEMBER = "dashboard-member";
+
+    private static final LocalDateTime BASE = LocalDate.now().plusYears(2).atStartOfDay();
+
+    @Autowired
+    MemberLoanSummaryService summaryService;
+
+    @Autowired
+    LoanBookingService bookingService;
+
+    @Autowired
+    LoanService loanService;
+
+    @Autowired
+    GameRepository gameRepository;
+
+    @Autowired
+    GameCopyRepository gameCopyRepository;
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    @Autowired
+    MemberLoanSummaryRepository summaryRepository;
+
+    @Autowired
+    LoanStatusCache loanStatusCache;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    private GameCopy copy;
+
+    private final List<Loan> loans = new ArrayList<>();
+
+    @AfterEach
+    void deleteLoans() {
+        transactionTemplate.execute(status -> {
+            loanRepository.deleteAll(loanRepository.findAllById(
+                    loans.stream().map(Loan::getId).collect(Collectors.toList())));
+            gameCopyRepository.deleteById(copy.getId());
+            summaryRepository.deleteById(MEMBER);
+            return null;
+        });
+    }
+
+    private Loan book(LocalDateTime start) {
+        Loan loan = new Loan();
+        loan.setUserUuid(MEMBER);
+        loan.setLoanStartTime(start);
+        loan.setLoanEndTime(start.plusDays(1));
+        Loan booked = bookingService.book(loan, copy.getId(), loanStatusCache.idOf(LoanStatusEnum.VALIDATED));
+        loans.add(booked);
+        return booked;
+    }
+
+    @Test
+    void dashboardFollowsLoanChanges() {
+        Game game = gameRepository.findAll().get(0);
+        copy = new GameCopy();
+        copy.setObjectCode("93000");
+        copy.setRegisterDate(LocalDate.now());
+        copy.setWearCondition("Neuf");
+        copy.setGeneralState(GeneralStateEnum.IN_ACTIVITY);
+        copy.setLoanable(true);
+        copy.setGame(game);
+        copy = gameCopyRepository.save(copy);
+
+        Loan first = book(BASE);
+        book(BASE.plusDays(3));
+        MemberDashboardDto dashboard = summaryService.dashboard(MEMBER);
+        assertThat(dashboard.getReservedLoans()).isEqualTo(2);
+        assertThat(dashboard.getNextStart()).isEqualTo(BASE);
+        assertThat(dashboard.getNextReturn()).isNull();
+        assertThat(dashboard.getCurrentLoans()).hasSize(2);
+        assertThat(dashboard.getCurrentLoans().get(0).getGameName()).isEqualTo(game.getName());
+
+        loanService.transition(first.getId(), LoanStatusEnum.RUNNING);
+        dashboard = summaryService.dashboard(MEMBER);
+        assertThat(dashboard.getReservedLoans()).isEqualTo(1);
+        assertThat(dashboard.getRunningLoans()).isEqualTo(1);
+        assertThat(dashboard.getNextReturn()).isEqualTo(BASE.plusDays(1));
+        assertThat(dashboard.getNextStart()).isEqualTo(BASE.plusDays(3));
+
+        loanService.transition(first.getId(), LoanStatusEnum.RETURNED);
+        dashboard = summaryService.dashboard(MEMBER);
+        assertThat(dashboard.getRunningLoans()).isZero();
+        assertThat(dashboard.getReturnedLoans()).isEqualTo(1);
+        assertThat(dashboard.getCurrentLoans()).hasSize(1);
+    }
+}
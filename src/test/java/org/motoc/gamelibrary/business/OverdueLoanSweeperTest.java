@@ -0,0 +1,131 @@
+package org.motoc.gamelibrary.business;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.motoc.gamelibrary.business.index.AvailabilityIndex;
+import org.motoc.gamelibrary.business.index.LoanStatusCache;
+import org.motoc.gamelibrary.model.GameCopy;
+import org.motoc.gamelibrary.model.Loan;
+import org.motoc.gamelibrary.model.enumeration.GeneralStateEnum;
+import org.motoc.gamelibrary.model.enumeration.LoanStatusEnum;
+import org.motoc.gamelibrary.repository.GameCopyRepository;
+import org.motoc.gamelibrary.repository.GameRepository;
+import org.motoc.gamelibrary.repository.LoanRepository;
+import org.motoc.gamelibrary.repository.LoanStatusRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sweeps more loans than a chunk holds, at a time no scheduled sweep reaches
+ */
+@SpringBootTest
+class OverdueLoanSweeperTest {
+
+    private static final int ENDED_LOANS = 1200;
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2100, 6, 1, 12, 0);
+
+    @Autowired
+    LoanService loanService;
+
+    @Autowired
+    AvailabilityIndex availabilityIndex;
+
+    @Autowired
+    GameRepository gameRepository;
+
+    @Autowired
+    GameCopyRepository gameCopyRepository;
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    @Autowired
+    LoanStatusRepository loanStatusRepository;
+
+    @Autowired
+    LoanStatusCache loanStatusCache;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    private final List<GameCopy> copies = new ArrayList<>();
+
+    private final List<Loan> loans = new ArrayList<>();
+
+    @AfterEach
+    void deleteLoans() {
+        transactionTemplate.execute(status -> {
+            loanRepository.deleteAll(loanRepository.findAllById(
+                    loans.stream().map(Loan::getId).collect(Collectors.toList())));
+            gameCopyRepository.deleteAll(gameCopyRepository.findAllById(
+                    copies.stream().map(GameCopy::getId).collect(Collectors.toList())));
+            return null;
+        });
+    }
+
+    private GameCopy copy(String objectCode) {
+        GameCopy copy = new GameCopy();
+        copy.setObjectCode(objectCode);
+        copy.setRegisterDate(LocalDate.now());
+        copy.setWearCondition("Neuf");
+        copy.setGeneralState(GeneralStateEnum.IN_ACTIVITY);
+        copy.setLoanable(true);
+        copy.setGame(gameRepository.findAll().get(0));
+        copies.add(copy);
+        return copy;
+    }
+
+    private void loan(GameCopy copy, LocalDateTime end) {
+        Loan loan = new Loan();
+        loan.setUserUuid("sweep");
+        loan.setLoanStartTime(end.minusDays(1));
+        loan.setLoanEndTime(end);
+        loan.setGameCopy(copy);
+        loan.setLoanStatus(loanStatusRepository.getOne(loanStatusCache.idOf(LoanStatusEnum.RUNNING)));
+        loans.add(loan);
+    }
+
+    private LoanStatusEnum statusOf(Loan loan) {
+        return loanStatusCache.statusOf(transactionTemplate.execute(status ->
+                loanRepository.findById(loan.getId()).orElseThrow().getLoanStatus().getId())).orElseThrow();
+    }
+
+    @Test
+    void endedLoansAreOverdueAndLongOverdueCopiesUnreturned() {
+        OverdueLoanSweeper sweeper = new OverdueLoanSweeper(loanService, loanRepository, gameCopyRepository,
+                loanStatusCache, availabilityIndex, transactionTemplate, Duration.ofDays(7), 500,
+                Clock.fixed(Instant.from(NOW.atOffset(ZoneOffset.UTC)), ZoneOffset.UTC));
+        transactionTemplate.execute(status -> {
+            GameCopy longOverdue = copy("91000");
+            GameCopy recentlyEnded = copy("91001");
+            gameCopyRepository.saveAll(copies);
+            for (int i = 0; i < ENDED_LOANS; i++)
+                loan(longOverdue, NOW.minusDays(30).minusMinutes(i));
+            loan(recentlyEnded, NOW.minusDays(1));
+            loan(recentlyEnded, NOW.plusDays(1));
+            loanRepository.saveAll(loans);
+            return null;
+        });
+
+        assertThat(sweeper.sweep()).isTrue();
+
+        assertThat(sweeper.status().getTotalOverdueLoans()).isEqualTo(ENDED_LOANS + 1);
+        assertThat(sweeper.status().getLastStart()).isEqualTo(NOW);
+        assertThat(statusOf(loans.get(0))).isEqualTo(LoanStatusEnum.OVERDUE);
+        assertThat(statusOf(loans.get(ENDED_LOANS))).isEqualTo(LoanStatusEnum.OVERDUE);
+        assertThat(statusOf(loans.get(ENDED_LOANS + 1))).isEqualTo(LoanStatusEnum.RUNNING);
+        assertThat(gameCopyRepository.findById(copies.get(0).getId()).orElseThrow().getGeneralState())
+                .isEqualTo(GeneralStateEnum.UNRETURNED);
+        assertThat(gameCopyRepository.findById(copies.get(1).getId()).orElseThrow().getGeneralState())
+                .isEqualTo(GeneralStateEnum.IN_ACTIVITY);
+    }
+}
@@ -1,19 +1,26 @@
 package org.motoc.gamelibrary.business;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.motoc.gamelibrary.business.index.GameFacetIndex;
+import org.motoc.gamelibrary.business.index.SuggestIndex;
 import org.motoc.gamelibrary.model.Theme;
+import org.motoc.gamelibrary.technical.exception.NotFoundException;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.when;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(SpringExtension.class)
 class ThemeServiceTest {
@@ -21,9 +28,20 @@ class ThemeServiceTest {
     @Mock
     JpaRepository<Theme, Long> themeRepository;
 
-    @InjectMocks
+    @Mock
+    SuggestIndex suggestIndex;
+
+    @Mock
+    GameFacetIndex facetIndex;
+
     ThemeService themeService;
 
+    @BeforeEach
+    void createService() {
+        themeService = new ThemeService(null, null, themeRepository, suggestIndex, facetIndex, 1000,
+                Duration.ofMinutes(10));
+    }
+
     @Test
     void count() {
         when(themeRepository.count()).thenReturn(5L);
@@ -31,6 +49,22 @@ class ThemeServiceTest {
         assertThat(themeService.count()).isEqualTo(5L);
     }
 
+    @Test
+    void countIsCachedUntilSave() {
+        when(themeRepository.count()).thenReturn(5L, 6L);
+
+        assertThat(themeService.count()).isEqualTo(5L);
+        assertThat(themeService.count()).isEqualTo(5L);
+        verify(themeRepository, times(1)).count();
+
+        Theme theme = new Theme();
+        when(themeRepository.saveAndFlush(theme)).thenReturn(theme);
+        themeService.save(theme);
+
+        assertThat(themeService.count()).isEqualTo(6L);
+        verify(themeRepository, times(2)).count();
+    }
+
     @Test
     void save() {
         String themeName = "Aventure";
@@ -46,6 +80,18 @@ class ThemeServiceTest {
         assertThat(themeService.save(toPersist)).isSameAs(toReturn);
     }
 
+    @Test
+    void saveAllFlushesOnce() {
+        List<Theme> toPersist = List.of(new Theme(0L, "Aventure"), new Theme(0L, "Médiéval"));
+        List<Theme> toReturn = List.of(new Theme(5L, "Aventure"), new Theme(6L, "Médiéval"));
+
+        when(themeRepository.saveAll(toPersist)).thenReturn(toReturn);
+
+        assertThat(themeService.saveAll(toPersist)).isSameAs(toReturn);
+        verify(themeRepository, never()).saveAndFlush(any());
+        verify(themeRepository, times(1)).flush();
+    }
+
     @Test
     void findById() {
 
@@ -60,7 +106,91 @@ class ThemeServiceTest {
 
         when(themeRepository.findById(4L)).thenReturn(toReturn);
 
-        assertThat(themeService.findById(id)).isSameAs(theme);
+        assertThat(themeService.findById(id)).isEqualTo(theme);
+    }
+
+    @Test
+    void findByIdIsCachedUntilDeleted() {
+        long id = 4L;
+
+        Theme theme = new Theme();
+        theme.setId(id);
+        theme.setName("Aventure");
+
+        when(themeRepository.findById(id)).thenReturn(Optional.of(theme));
+
+        assertThat(themeService.findById(id)).isEqualTo(theme);
+        assertThat(themeService.findById(id)).isEqualTo(theme);
+        verify(themeRepository, times(1)).findById(id);
+        assertThat(themeService.cacheStatistics().getHitCount()).isEqualTo(1L);
+
+        themeService.deleteById(id);
+
+        assertThat(themeService.findById(id)).isEqualTo(theme);
+        verify(themeRepository, times(2)).findById(id);
+    }
+
+    @Test
+    void cachedThemesAreNotShared() {
+        Theme theme = new Theme(4L, "Aventure");
+        when(themeRepository.findById(4L)).thenReturn(Optional.of(theme));
+
+        Theme first = themeService.findById(4L);
+        first.setName("Renamed by a caller");
+        Theme second = themeService.findById(4L);
+
+        Theme third = themeService.findById(4L);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getName()).isEqualTo("Aventure");
+        assertThat(third).isNotSameAs(second);
+        verify(themeRepository, times(1)).findById(4L);
+    }
+
+    @Test
+    void themesReadDuringAWriteAreNotCached() {
+        Theme stale = new Theme(4L, "Aventure");
+        when(themeRepository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(themeRepository.findById(4L)).thenAnswer(invocation -> {
+            // renamed by another caller while the old name is read
+            themeService.save(new Theme(4L, "Aventures"));
+            return Optional.of(stale);
+        }).thenReturn(Optional.of(new Theme(4L, "Aventures")));
+
+        themeService.findById(4L);
+
+        assertThat(themeService.findById(4L).getName()).isEqualTo("Aventures");
+        verify(themeRepository, times(2)).findById(4L);
+    }
+
+    @Test
+    void deletedThemesLeaveTheIndexes() {
+        themeService.deleteById(4L);
+
+        verify(suggestIndex).remove(SuggestIndex.SuggestionType.THEME, 4L);
+        verify(facetIndex).removeValue(GameFacetIndex.THEME, 4L);
+    }
+
+    @Test
+    void callsAreTimedByEntityAndOperation() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        themeService.setMeterRegistry(meterRegistry);
+        Theme theme = new Theme(4L, "Aventure");
+        when(themeRepository.findById(4L)).thenReturn(Optional.of(theme));
+
+        themeService.findById(4L);
+        themeService.findById(4L);
+        assertThatThrownBy(() -> themeService.findById(5L)).isInstanceOf(NotFoundException.class);
+
+        assertThat(meterRegistry.get("gamelibrary.crud")
+                .tags("entity", "theme", "operation", "findById", "exception", "none").timer().count())
+                .isEqualTo(2L);
+        assertThat(meterRegistry.get("gamelibrary.crud")
+                .tags("entity", "theme", "operation", "findById", "exception", "NotFoundException").timer().count())
+                .isEqualTo(1L);
+        assertThat(meterRegistry.get("gamelibrary.cache.gets")
+                .tags("entity", "theme", "result", "hit").functionCounter().count())
+                .isEqualTo(1.0);
     }
 
     @Test
@@ -87,4 +217,4 @@ class ThemeServiceTest {
 
         assertThat(themeService.findPage(pageable)).isSameAs(pageToReturn);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,69 @@
+package org.motoc.gamelibrary.business.index;
+
+import org.junit.jupiter.api.Test;
+import org.motoc.gamelibrary.dto.AvailabilityDto;
+import org.motoc.gamelibrary.model.enumeration.GeneralStateEnum;
+import org.motoc.gamelibrary.model.enumeration.LoanStatusEnum;
+import org.motoc.gamelibrary.repository.GameCopyRepository;
+import org.motoc.gamelibrary.repository.LoanRepository;
+import org.motoc.gamelibrary.repository.LoanStatusRepository;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AvailabilityIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2020, 7, 16, 12, 0);
+
+    private final LoanStatusRepository loanStatusRepository = mock(LoanStatusRepository.class);
+
+    private final AvailabilityIndex index = new AvailabilityIndex(mock(GameCopyRepository.class),
+            mock(LoanRepository.class), new LoanStatusCache(loanStatusRepository),
+            Clock.fixed(Instant.from(NOW.atOffset(ZoneOffset.UTC)), ZoneOffset.UTC));
+
+    private final List<Object[]> statusRows = new ArrayList<>();
+
+    private void status(long id, LoanStatusEnum status) {
+        statusRows.add(new Object[]{id, status.getTag()});
+        when(loanStatusRepository.findAllTags()).thenReturn(statusRows);
+    }
+
+    @Test
+    void countsCopiesByState() {
+        status(1, LoanStatusEnum.VALIDATED);
+        status(2, LoanStatusEnum.RUNNING);
+        for (long copyId = 1; copyId <= 5; copyId++)
+            index.indexCopy(copyId, 10, true, GeneralStateEnum.IN_ACTIVITY);
+        index.indexCopy(6, 10, true, GeneralStateEnum.IN_REPAIR);
+
+        index.indexLoan(100, 1L, 1L, NOW.minusHours(1), NOW.plusHours(1));
+        index.indexLoan(101, 2L, 2L, NOW.minusDays(3), NOW.minusDays(1));
+        index.indexLoan(102, 3L, 1L, NOW.plusDays(1), NOW.plusDays(2));
+
+        assertThat(index.availability(10)).isEqualTo(new AvailabilityDto(3, 1, 1));
+        assertThat(index.availability(11)).isEqualTo(new AvailabilityDto(0, 0, 0));
+    }
+
+    @Test
+    void forgetsEndedLoansAndRemovedCopies() {
+        status(2, LoanStatusEnum.RUNNING);
+        status(3, LoanStatusEnum.RETURNED);
+        index.indexLoan(100, 1L, 2L, NOW.minusHours(1), NOW.plusHours(1));
+        index.indexCopy(1, 10, true, GeneralStateEnum.READY_TO_PLAY);
+        assertThat(index.availability(10).getOnLoan()).isEqualTo(1);
+
+        index.indexLoan(100, 1L, 3L, NOW.minusHours(1), NOW.plusHours(1));
+        assertThat(index.availability(10)).isEqualTo(new AvailabilityDto(1, 0, 0));
+
+        index.removeCopy(1);
+        assertThat(index.availability(10)).isEqualTo(new AvailabilityDto(0, 0, 0));
+    }
+}
@@ -0,0 +1,42 @@
+package org.motoc.gamelibrary.business.index;
+
+import org.junit.jupiter.api.Test;
+import org.motoc.gamelibrary.dto.TextSearchHitDto;
+import org.motoc.gamelibrary.model.enumeration.GameNatureEnum;
+import org.motoc.gamelibrary.repository.ArticleRepository;
+import org.motoc.gamelibrary.repository.GameRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class FullTextIndexTest {
+
+    private final FullTextIndex index = new FullTextIndex(mock(GameRepository.class), mock(ArticleRepository.class));
+
+    @Test
+    void foldsAccentsAndLigatures() {
+        assertThat(TextNormalizer.terms("Jeu de Société : le Cœur du dragon"))
+                .containsExactly("jeu", "societe", "coeur", "dragon");
+        assertThat(TextNormalizer.stripHtml("<p>Les r&egrave;gles</p>")).contains("Les règles");
+    }
+
+    @Test
+    void ranksTitlesFirstAndForgetsRemovedDocuments() {
+        index.index(TextDocument.game(1, "Dragons", GameNatureEnum.BOARD_GAME, "Un jeu de cartes", null,
+                null, null));
+        index.index(TextDocument.game(2, "Cartes et dés", GameNatureEnum.BOARD_GAME, "Des dragons partout",
+                null, null, null));
+        index.index(TextDocument.article(3, "Nouveautés", "<p>Les <b>dragons</b> arrivent</p>"));
+
+        List<TextSearchHitDto> hits = index.search("DRAGON dragons", 10);
+        assertThat(hits).extracting(TextSearchHitDto::getId).containsExactly(1L, 3L, 2L);
+
+        assertThat(index.search("societe", 10)).hasSize(2);
+        assertThat(index.search("partout", 10)).extracting(TextSearchHitDto::getId).containsExactly(2L);
+
+        index.remove(FullTextIndex.DocumentType.GAME, 1);
+        assertThat(index.search("dragons", 1)).extracting(TextSearchHitDto::getId).containsExactly(3L);
+    }
+}
@@ -0,0 +1,76 @@
+package org.motoc.gamelibrary.business.index;
+
+import org.junit.jupiter.api.Test;
+import org.motoc.gamelibrary.dto.GameFacetsDto;
+import org.motoc.gamelibrary.model.enumeration.GameNatureEnum;
+import org.motoc.gamelibrary.repository.GameRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class GameFacetIndexTest {
+
+    private final GameFacetIndex index = new GameFacetIndex(mock(GameRepository.class));
+
+    private void add(long id, GameNatureEnum nature, int min, int max, int minAge, Set<Long> themes) {
+        index.index(new GameFacetIndex.FacetDocument(id, nature, (short) min, (short) max, (short) minAge, (short) 0,
+                themes, Set.of()));
+    }
+
+    @Test
+    void countsIgnoreTheSelectionOfTheirOwnFacet() {
+        GameNatureEnum[] natures = GameNatureEnum.values();
+        add(1, natures[0], 2, 4, 8, Set.of(10L));
+        add(2, natures[0], 1, 2, 3, Set.of(10L, 11L));
+        add(3, natures[natures.length - 1], 3, 0, 14, Set.of(11L));
+
+        GameFacetsDto all = index.count(Map.of());
+        assertThat(all.getTotal()).isEqualTo(3);
+        assertThat(all.getCounts().get(GameFacetIndex.NUMBER_OF_PLAYER))
+                .containsEntry("2", 2).containsEntry("7+", 1);
+
+        GameFacetsDto selected = index.count(Map.of(GameFacetIndex.THEME, List.of("10")));
+        assertThat(selected.getTotal()).isEqualTo(2);
+        assertThat(selected.getCounts().get(GameFacetIndex.THEME)).containsEntry("10", 2).containsEntry("11", 2);
+        assertThat(selected.getCounts().get(GameFacetIndex.AGE)).containsOnlyKeys("3-5", "8-11");
+    }
+
+    @Test
+    void removedGamesAreNotCounted() {
+        add(1, GameNatureEnum.values()[0], 2, 4, 8, Set.of(10L));
+        add(2, GameNatureEnum.values()[0], 2, 4, 8, Set.of(10L));
+
+        index.remove(1);
+
+        GameFacetsDto result = index.count(Map.of());
+        assertThat(result.getTotal()).isEqualTo(1);
+        assertThat(result.getCounts().get(GameFacetIndex.THEME)).containsEntry("10", 1);
+    }
+
+    @Test
+    void parametersOutOfTheFacetsAreIgnored() {
+        add(1, GameNatureEnum.values()[0], 2, 4, 8, Set.of(10L));
+        add(2, GameNatureEnum.values()[0], 2, 4, 8, Set.of(11L));
+
+        GameFacetsDto result = index.count(Map.of(GameFacetIndex.THEME, List.of("10"), "_", List.of("1602"),
+                "page", List.of("0"), "thme", List.of("11")));
+
+        assertThat(result.getTotal()).isEqualTo(1);
+        assertThat(result).isEqualTo(index.count(Map.of(GameFacetIndex.THEME, List.of("10"))));
+    }
+
+    @Test
+    void removedValuesAreNotCounted() {
+        add(1, GameNatureEnum.values()[0], 2, 4, 8, Set.of(10L, 11L));
+
+        index.removeValue(GameFacetIndex.THEME, 10L);
+
+        GameFacetsDto result = index.count(Map.of());
+        assertThat(result.getTotal()).isEqualTo(1);
+        assertThat(result.getCounts().get(GameFacetIndex.THEME)).containsOnlyKeys("11");
+    }
+}
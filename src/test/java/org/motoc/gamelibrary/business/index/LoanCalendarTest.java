@@ -0,0 +1,83 @@
+package org.motoc.gamelibrary.business.index;
+
+import org.junit.jupiter.api.Test;
+import org.motoc.gamelibrary.dto.TimeWindowDto;
+import org.motoc.gamelibrary.model.enumeration.LoanStatusEnum;
+import org.motoc.gamelibrary.repository.LoanRepository;
+import org.motoc.gamelibrary.repository.LoanStatusRepository;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LoanCalendarTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2020, 7, 16, 12, 0);
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2020, 7, 26, 0, 0);
+
+    private final LoanStatusRepository loanStatusRepository = mock(LoanStatusRepository.class);
+
+    private final LoanCalendar calendar = new LoanCalendar(mock(LoanRepository.class),
+            new LoanStatusCache(loanStatusRepository),
+            Clock.fixed(Instant.from(NOW.atOffset(ZoneOffset.UTC)), ZoneOffset.UTC));
+
+    private final List<Object[]> statusRows = new ArrayList<>();
+
+    private void status(long id, LoanStatusEnum status) {
+        statusRows.add(new Object[]{id, status.getTag()});
+        when(loanStatusRepository.findAllTags()).thenReturn(statusRows);
+    }
+
+    @Test
+    void detectsOverlapsOnTheSameCopyOnly() {
+        status(1, LoanStatusEnum.VALIDATED);
+        // a long loan first, so that the lookup has to reach back
+        calendar.index(100, 1L, 1L, DAY.minusDays(20), DAY.plusDays(1));
+        calendar.index(101, 1L, 1L, DAY.plusDays(3), DAY.plusDays(4));
+        calendar.index(102, 2L, 1L, DAY, DAY.plusDays(10));
+
+        assertThat(calendar.conflicts(1, DAY.plusHours(12), DAY.plusDays(2), null)).containsExactly(100L);
+        assertThat(calendar.conflicts(1, DAY.plusDays(1), DAY.plusDays(3), null)).isEmpty();
+        assertThat(calendar.conflicts(1, DAY, DAY.plusDays(5), null)).containsExactly(100L, 101L);
+        assertThat(calendar.conflicts(1, DAY.plusDays(3), DAY.plusDays(4), 101L)).isEmpty();
+
+        calendar.remove(100);
+        assertThat(calendar.conflicts(1, DAY.plusHours(12), DAY.plusDays(2), null)).isEmpty();
+    }
+
+    @Test
+    void freeWindowsAreTheGapsBetweenBookings() {
+        status(1, LoanStatusEnum.PROPOSED);
+        status(2, LoanStatusEnum.CANCELLED);
+        calendar.index(100, 1L, 1L, DAY.plusDays(1), DAY.plusDays(2));
+        calendar.index(101, 1L, 1L, DAY.plusDays(2), DAY.plusDays(3));
+        calendar.index(102, 1L, 2L, DAY.plusDays(4), DAY.plusDays(5));
+
+        assertThat(calendar.freeWindows(1, DAY, DAY.plusDays(6))).containsExactly(
+                new TimeWindowDto(DAY, DAY.plusDays(1)),
+                new TimeWindowDto(DAY.plusDays(3), DAY.plusDays(6)));
+    }
+
+    @Test
+    void overdueRunningLoansHoldTheCopy() {
+        status(3, LoanStatusEnum.RUNNING);
+        calendar.index(100, 1L, 3L, NOW.minusDays(30), NOW.minusDays(20));
+        calendar.index(101, 1L, 3L, NOW.minusDays(1), NOW.minusHours(1));
+        // ended before the end of the lookups, but only overdue once the clock passes it
+        calendar.index(102, 2L, 3L, NOW.minusDays(1), DAY.minusHours(1));
+
+        assertThat(calendar.conflicts(1, DAY, DAY.plusDays(1), null)).containsExactly(100L, 101L);
+        assertThat(calendar.freeWindows(1, DAY, DAY.plusDays(1))).isEmpty();
+        assertThat(calendar.conflicts(2, DAY, DAY.plusDays(1), null)).isEmpty();
+        assertThat(calendar.freeWindows(2, DAY.minusDays(1), DAY)).containsExactly(
+                new TimeWindowDto(DAY.minusHours(1), DAY));
+    }
+}
@@ -0,0 +1,73 @@
+package org.motoc.gamelibrary.business.index;
+
+import org.junit.jupiter.api.Test;
+import org.motoc.gamelibrary.dto.SuggestionDto;
+import org.motoc.gamelibrary.repository.*;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SuggestIndexTest {
+
+    private final CreatorRepository creatorRepository = mock(CreatorRepository.class);
+
+    private final SuggestIndex index = new SuggestIndex(mock(GameRepository.class), creatorRepository,
+            mock(PublisherRepository.class), mock(SellerRepository.class), mock(ThemeRepository.class),
+            mock(KeywordRepository.class));
+
+    @Test
+    void suggestsNameStartsFirstThenWordStarts() {
+        index.put(SuggestIndex.SuggestionType.GAME, 1, "Les Aventuriers du Rail");
+        index.put(SuggestIndex.SuggestionType.THEME, 2, "Aventure");
+        index.put(SuggestIndex.SuggestionType.CREATOR, 3, "Alan Moon");
+
+        assertThat(index.suggest("AVENT", null, 10)).extracting(SuggestionDto::getId).containsExactly(2L, 1L);
+        assertThat(index.suggest("aven", SuggestIndex.SuggestionType.GAME, 10))
+                .extracting(SuggestionDto::getLabel).containsExactly("Les Aventuriers du Rail");
+        assertThat(index.suggest("aventuriers du r", null, 10)).hasSize(1);
+        assertThat(index.suggest("a", null, 1)).hasSize(1);
+    }
+
+    @Test
+    void limitsCountNamesOfTheRequestedTypeOnly() {
+        for (long id = 10; id < 60; id++)
+            index.put(SuggestIndex.SuggestionType.GAME, id, "Mots mêlés " + id);
+        index.put(SuggestIndex.SuggestionType.CREATOR, 3, "Marie Moon");
+        index.put(SuggestIndex.SuggestionType.GAME, 4, "Mille mots mots");
+
+        assertThat(index.suggest("m", SuggestIndex.SuggestionType.CREATOR, 2)).extracting(SuggestionDto::getLabel)
+                .containsExactly("Marie Moon");
+        // a name matching by several words is suggested once
+        assertThat(index.suggest("mots", null, 3)).extracting(SuggestionDto::getId).containsExactly(10L, 11L, 12L);
+        assertThat(index.suggest("meles 5", null, 20)).hasSize(10);
+        assertThat(index.suggest("mil", null, 3)).extracting(SuggestionDto::getId).containsExactly(4L);
+        assertThat(index.suggest("mo", SuggestIndex.SuggestionType.GAME, 51)).hasSize(51).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void renamedAndRemovedNamesAreForgotten() {
+        index.put(SuggestIndex.SuggestionType.THEME, 2, "Aventure");
+        index.put(SuggestIndex.SuggestionType.THEME, 2, "Énigme");
+
+        assertThat(index.suggest("aven", null, 10)).isEmpty();
+        assertThat(index.suggest("enig", null, 10)).extracting(SuggestionDto::getLabel).containsExactly("Énigme");
+
+        index.remove(SuggestIndex.SuggestionType.THEME, 2);
+        assertThat(index.suggest("enig", null, 10)).isEmpty();
+    }
+
+    @Test
+    void creatorsWithoutFirstNameAreLabelledByTheirLastName() {
+        when(creatorRepository.findAllNames()).thenReturn(List.of(new Object[]{3L, null, "Dupont"},
+                new Object[]{4L, "Alan", "Moon"}));
+
+        index.rebuild();
+
+        assertThat(index.suggest("dup", null, 10)).extracting(SuggestionDto::getLabel).containsExactly("Dupont");
+        assertThat(index.suggest("null", null, 10)).isEmpty();
+        assertThat(index.suggest("moon", null, 10)).extracting(SuggestionDto::getLabel).containsExactly("Alan Moon");
+    }
+}
@@ -0,0 +1,161 @@
+package org.motoc.gamelibrary.business.refactor;
+
+import org.junit.jupiter.api.Test;
+import org.motoc.gamelibrary.business.GameService;
+import org.motoc.gamelibrary.business.LoanService;
+import org.motoc.gamelibrary.business.ThemeService;
+import org.motoc.gamelibrary.business.index.LoanStatusCache;
+import org.motoc.gamelibrary.model.GameCopy;
+import org.motoc.gamelibrary.model.Loan;
+import org.motoc.gamelibrary.model.Theme;
+import org.motoc.gamelibrary.model.enumeration.GeneralStateEnum;
+import org.motoc.gamelibrary.model.enumeration.LoanStatusEnum;
+import org.motoc.gamelibrary.repository.GameCopyRepository;
+import org.motoc.gamelibrary.repository.GameRepository;
+import org.motoc.gamelibrary.repository.LoanRepository;
+import org.motoc.gamelibrary.repository.LoanStatusRepository;
+import org.motoc.gamelibrary.technical.exception.BadRequestException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Walks whole keysets through the page tokens of the services, on a database of their own
+ */
+@SpringBootTest(properties = {"spring.datasource.generate-unique-name=true", "scheduling.enabled=false"})
+class SimpleCrudMethodsImplTest {
+
+    private static final String PREFIX = "Keyset walk ";
+
+    @Autowired
+    ThemeService themeService;
+
+    @Autowired
+    GameService gameService;
+
+    @Autowired
+    LoanService loanService;
+
+    @Autowired
+    GameRepository gameRepository;
+
+    @Autowired
+    GameCopyRepository gameCopyRepository;
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    @Autowired
+    LoanStatusRepository loanStatusRepository;
+
+    @Autowired
+    LoanStatusCache loanStatusCache;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    private <T> List<T> walk(SimpleCrudMethods<T> service, String sortKey, Sort.Direction direction, int size) {
+        List<T> result = new ArrayList<>();
+        String token = null;
+        do {
+            KeysetPage<T> page = service.findKeysetPage(sortKey, direction, token, size, false);
+            assertThat(page.getContent()).hasSizeLessThanOrEqualTo(size);
+            result.addAll(page.getContent());
+            token = page.getNextToken();
+            assertThat(token == null).isEqualTo(!page.isHasNext());
+        } while (token != null);
+        return result;
+    }
+
+    private List<String> names(List<Theme> themes) {
+        return themes.stream().map(Theme::getName).filter(name -> name.startsWith(PREFIX))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void tokensWalkTheWholeKeysetInBothDirections() {
+        themeService.saveAll(List.of(new Theme(0L, PREFIX + "c"), new Theme(0L, PREFIX + "a"),
+                new Theme(0L, PREFIX + "e"), new Theme(0L, PREFIX + "b"), new Theme(0L, PREFIX + "d")));
+
+        assertThat(names(walk(themeService, "name", Sort.Direction.ASC, 2)))
+                .containsExactly(PREFIX + "a", PREFIX + "b", PREFIX + "c", PREFIX + "d", PREFIX + "e");
+        assertThat(names(walk(themeService, "name", Sort.Direction.DESC, 2)))
+                .containsExactly(PREFIX + "e", PREFIX + "d", PREFIX + "c", PREFIX + "b", PREFIX + "a");
+    }
+
+    /**
+     * Loans starting at the same time : the id breaks the ties, and the date goes through the token as ISO-8601
+     */
+    @Test
+    void equalDateValuesAreNeitherSkippedNorRepeated() {
+        LocalDateTime start = LocalDateTime.of(2020, 3, 14, 15, 9, 26, 535_000_000);
+        List<Long> loanIds = transactionTemplate.execute(status -> {
+            GameCopy copy = new GameCopy();
+            copy.setObjectCode("93000");
+            copy.setRegisterDate(LocalDate.now());
+            copy.setWearCondition("Neuf");
+            copy.setGeneralState(GeneralStateEnum.IN_ACTIVITY);
+            copy.setLoanable(true);
+            copy.setGame(gameRepository.findAll().get(0));
+            gameCopyRepository.save(copy);
+            List<Loan> loans = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                Loan loan = new Loan();
+                loan.setUserUuid("keyset");
+                loan.setLoanStartTime(start);
+                loan.setLoanEndTime(start.plusDays(1));
+                loan.setGameCopy(copy);
+                loan.setLoanStatus(loanStatusRepository.getOne(loanStatusCache.idOf(LoanStatusEnum.RETURNED)));
+                loans.add(loan);
+            }
+            return loanRepository.saveAll(loans).stream().map(Loan::getId).collect(Collectors.toList());
+        });
+
+        for (Sort.Direction direction : Sort.Direction.values()) {
+            List<Loan> walked = walk(loanService, "loanStartTime", direction, 2);
+            List<Long> ids = walked.stream().map(Loan::getId).collect(Collectors.toList());
+            assertThat(ids).doesNotHaveDuplicates().containsAll(loanIds);
+            List<Long> tied = ids.stream().filter(loanIds::contains).collect(Collectors.toList());
+            assertThat(tied).isSortedAccordingTo(direction.isAscending() ?
+                    Long::compare : (a, b) -> Long.compare(b, a));
+            for (int i = 1; i < walked.size(); i++) {
+                LocalDateTime previous = walked.get(i - 1).getLoanStartTime();
+                LocalDateTime current = walked.get(i).getLoanStartTime();
+                assertThat(direction.isAscending() ? current.isBefore(previous) : current.isAfter(previous))
+                        .isFalse();
+            }
+        }
+    }
+
+    @Test
+    void tokenOfAnotherSortIsRejected() {
+        themeService.saveAll(List.of(new Theme(0L, "Keyset token x"), new Theme(0L, "Keyset token y")));
+        String token = themeService.findKeysetPage("name", Sort.Direction.ASC, null, 1, false).getNextToken();
+
+        assertThatThrownBy(() -> themeService.findKeysetPage("name", Sort.Direction.DESC, token, 1, false))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> themeService.findKeysetPage("id", Sort.Direction.ASC, token, 1, false))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> themeService.findKeysetPage("name", Sort.Direction.ASC, "not a token", 1, false))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void optionalAttributesAreNotSortKeys() {
+        assertThatThrownBy(() -> gameService.findKeysetPage("description", Sort.Direction.ASC, null, 2, false))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("may be null");
+        assertThatThrownBy(() -> themeService.findKeysetPage("games", Sort.Direction.ASC, null, 2, false))
+                .isInstanceOf(BadRequestException.class);
+    }
+}
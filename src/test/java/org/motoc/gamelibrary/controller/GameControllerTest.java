@@ -0,0 +1,136 @@
+package org.motoc.gamelibrary.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.motoc.gamelibrary.business.GameService;
+import org.motoc.gamelibrary.business.index.GameFacetIndex;
+import org.motoc.gamelibrary.support.EndpointFixture;
+import org.motoc.gamelibrary.support.EndpointTest;
+import org.motoc.gamelibrary.support.QueryBudget;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Query budgets of the game endpoints, the games of the fixture having several themes, creators, categories and copies
+ */
+@EndpointTest
+class GameControllerTest {
+
+    /**
+     * Rows of existing themes and categories, with several copies each
+     */
+    private static final String CSV = "name,minNumberOfPlayer,maxNumberOfPlayer,minAge,nature,themes,categories," +
+            "copies\n" +
+            "Endpoint import 0,2,4,8,BOARD_GAME,Endpoint theme 0|Endpoint theme 1,Endpoint category 0,71000|71001\n" +
+            "Endpoint import 1,2,4,8,BOARD_GAME,Endpoint theme 0|Endpoint theme 1,Endpoint category 1,71002|71003\n" +
+            "Endpoint import 2,2,4,8,BOARD_GAME,Endpoint theme 1,Endpoint category 0|Endpoint category 1,71004\n";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    EndpointFixture fixture;
+
+    @Autowired
+    GameService gameService;
+
+    @Autowired
+    GameFacetIndex facetIndex;
+
+    @BeforeEach
+    void createFixture() {
+        fixture.create();
+    }
+
+    @Test
+    void count() throws Exception {
+        // invalidates the cached count
+        gameService.saveAll(List.of());
+
+        QueryBudget.expect().selects(1)
+                .verify(() -> mockMvc.perform(get("/admin/games/count")).andExpect(status().isOk()));
+    }
+
+    @Test
+    void findById() throws Exception {
+        QueryBudget.expect().selects(2)
+                .verify(() -> mockMvc.perform(get("/admin/games").param("id", fixture.getGameIds().get(0).toString()))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    void findPage() throws Exception {
+        QueryBudget.expect().selects(2)
+                .verify(() -> mockMvc.perform(get("/admin/games/page").param("size", "2").param("sort", "name"))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    void searchByTheme() throws Exception {
+        QueryBudget.expect().selects(1)
+                .verify(() -> mockMvc.perform(get("/games/search")
+                        .param("themeId", fixture.getThemeIds().get(0).toString())
+                        .param("size", "10"))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    void searchByUnknownSortIsABadRequest() throws Exception {
+        mockMvc.perform(get("/games/search").param("sort", "rules"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void facets() throws Exception {
+        QueryBudget.expect()
+                .verify(() -> mockMvc.perform(get("/games/facets")
+                        .param("theme", fixture.getThemeIds().get(0).toString()))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    void facetsIgnoreOtherParameters() throws Exception {
+        // the fixture is written through the repositories
+        facetIndex.rebuild();
+        String theme = fixture.getThemeIds().get(0).toString();
+        String expected = mockMvc.perform(get("/games/facets").param("theme", theme))
+                .andExpect(jsonPath("$.total").value(greaterThan(0)))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/games/facets").param("theme", theme).param("_", "1602").param("page", "0"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(expected, true));
+    }
+
+    @Test
+    void save() throws Exception {
+        QueryBudget.expect().inserts(1)
+                .verify(() -> mockMvc.perform(post("/admin/games").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Endpoint saved game\", \"minNumberOfPlayer\": 2, " +
+                                "\"maxNumberOfPlayer\": 4, \"minAge\": 8, \"nature\": \"BOARD_GAME\"}"))
+                        .andExpect(status().isOk()));
+    }
+
+    /**
+     * The names of the catalog, the indexes rebuilt, and one select per existing theme or category referenced : as
+     * many statements for three rows as for three thousand
+     */
+    @Test
+    void importGames() throws Exception {
+        QueryBudget.expect().selects(19).inserts(4)
+                .verify(() -> mockMvc.perform(post("/admin/games/import").with(csrf())
+                        .contentType("text/csv")
+                        .content(CSV))
+                        .andExpect(status().isOk()));
+    }
+}
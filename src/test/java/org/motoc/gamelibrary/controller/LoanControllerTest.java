@@ -0,0 +1,207 @@
+package org.motoc.gamelibrary.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.motoc.gamelibrary.business.LoanBookingService;
+import org.motoc.gamelibrary.business.MemberLoanSummaryService;
+import org.motoc.gamelibrary.business.index.LoanStatusCache;
+import org.motoc.gamelibrary.model.Loan;
+import org.motoc.gamelibrary.model.enumeration.LoanStatusEnum;
+import org.motoc.gamelibrary.repository.LoanRepository;
+import org.motoc.gamelibrary.support.EndpointFixture;
+import org.motoc.gamelibrary.support.EndpointTest;
+import org.motoc.gamelibrary.support.QueryBudget;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Query budgets of the loan endpoints, the copies of the fixture having several loans
+ */
+@EndpointTest
+class LoanControllerTest {
+
+    private static final LocalDateTime FUTURE = LocalDate.now().plusYears(3).atStartOfDay();
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    EndpointFixture fixture;
+
+    @Autowired
+    LoanBookingService bookingService;
+
+    @Autowired
+    MemberLoanSummaryService summaryService;
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    @Autowired
+    LoanStatusCache loanStatusCache;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    private final List<Long> bookedLoanIds = new ArrayList<>();
+
+    @BeforeEach
+    void createFixture() {
+        fixture.create();
+    }
+
+    @AfterEach
+    void deleteBookedLoans() {
+        transactionTemplate.execute(status -> {
+            loanRepository.deleteAll(loanRepository.findAllById(bookedLoanIds));
+            return null;
+        });
+    }
+
+    @Test
+    void findById() throws Exception {
+        QueryBudget.expect().selects(1)
+                .verify(() -> mockMvc.perform(get("/admin/loans").param("id", fixture.getLoanIds().get(0).toString()))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    void book() throws Exception {
+        String loan = "{\"userUuid\": \"" + EndpointFixture.MEMBER + "\", " +
+                "\"loanStartTime\": \"" + FUTURE + "\", \"loanEndTime\": \"" + FUTURE.plusDays(2) + "\", " +
+                "\"gameCopyId\": " + fixture.getCopyIds().get(0) + ", " +
+                "\"loanStatusId\": " + loanStatusCache.idOf(LoanStatusEnum.VALIDATED) + "}";
+
+        // the version of the copy is raised, so that concurrent bookings of the copy cannot both succeed
+        MvcResult result = QueryBudget.expect().selects(2).inserts(1).updates(1)
+                .verify(() -> mockMvc.perform(post("/admin/loans").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(loan))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.id").isNumber())
+                        .andReturn());
+        bookedLoanIds.add(JsonPath.<Number>read(result.getResponse().getContentAsString(), "$.id").longValue());
+    }
+
+    /**
+     * Bookings go through the booking service, timed by its annotation, the history through the loan service
+     */
+    @Test
+    void serviceEntryPointsAreTimed() throws Exception {
+        long booked = timerCount("gamelibrary.service", "book");
+        long histories = timerCount("gamelibrary.crud", "history");
+        Loan loan = new Loan();
+        loan.setUserUuid(EndpointFixture.MEMBER);
+        loan.setLoanStartTime(FUTURE.plusDays(21));
+        loan.setLoanEndTime(FUTURE.plusDays(22));
+        bookedLoanIds.add(bookingService.book(loan, fixture.getCopyIds().get(3),
+                loanStatusCache.idOf(LoanStatusEnum.VALIDATED)).getId());
+
+        mockMvc.perform(get("/admin/loans/history").param("userUuid", EndpointFixture.MEMBER))
+                .andExpect(status().isOk());
+
+        assertThat(timerCount("gamelibrary.service", "book")).isEqualTo(booked + 1);
+        assertThat(timerCount("gamelibrary.crud", "history")).isEqualTo(histories + 1);
+    }
+
+    private long timerCount(String name, String operation) {
+        return meterRegistry.find(name).tags("entity", "loan", "operation", operation, "exception", "none").timers()
+                .stream().mapToLong(Timer::count).sum();
+    }
+
+    @Test
+    void transition() throws Exception {
+        Loan loan = new Loan();
+        loan.setUserUuid(EndpointFixture.MEMBER);
+        loan.setLoanStartTime(FUTURE.plusDays(7));
+        loan.setLoanEndTime(FUTURE.plusDays(9));
+        long loanId = bookingService.book(loan, fixture.getCopyIds().get(1),
+                loanStatusCache.idOf(LoanStatusEnum.VALIDATED)).getId();
+        bookedLoanIds.add(loanId);
+
+        QueryBudget.expect().selects(2).updates(1)
+                .verify(() -> mockMvc.perform(put("/admin/loans/status").with(csrf())
+                        .param("id", String.valueOf(loanId))
+                        .param("status", LoanStatusEnum.CANCELLED.name()))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    void sweepStatus() throws Exception {
+        QueryBudget.expect()
+                .verify(() -> mockMvc.perform(get("/admin/loans/sweeps")).andExpect(status().isOk()));
+    }
+
+    @Test
+    void sweep() throws Exception {
+        QueryBudget.expect().selects(2)
+                .verify(() -> mockMvc.perform(post("/admin/loans/sweeps").with(csrf())).andExpect(status().isOk()));
+    }
+
+    @Test
+    void archive() throws Exception {
+        QueryBudget.expect().selects(1)
+                .verify(() -> mockMvc.perform(post("/admin/loans/archives").with(csrf())).andExpect(status().isOk()));
+    }
+
+    @Test
+    void historyOfCopy() throws Exception {
+        QueryBudget.expect().selects(2)
+                .verify(() -> mockMvc.perform(get("/admin/loans/history")
+                        .param("copyId", fixture.getCopyIds().get(0).toString()))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    void historyOfMember() throws Exception {
+        QueryBudget.expect().selects(2)
+                .verify(() -> mockMvc.perform(get("/admin/loans/history").param("userUuid", EndpointFixture.MEMBER))
+                        .andExpect(status().isOk()));
+    }
+
+    /**
+     * Once up to date, a summary is read by a single lookup
+     */
+    @Test
+    void dashboard() throws Exception {
+        // the bookings of the other tests left the summary to recompute
+        summaryService.dashboard(EndpointFixture.MEMBER);
+
+        QueryBudget.expect().selects(1)
+                .verify(() -> mockMvc.perform(get("/loans/dashboard")).andExpect(status().isOk()));
+        QueryBudget.expect().selects(1)
+                .verify(() -> mockMvc.perform(get("/admin/loans/dashboard").param("userUuid", EndpointFixture.MEMBER))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    void calendar() throws Exception {
+        QueryBudget.expect()
+                .verify(() -> mockMvc.perform(get("/games/calendar")
+                        .param("gameId", fixture.getGameIds().get(0).toString())
+                        .param("from", FUTURE.toString())
+                        .param("to", FUTURE.plusDays(30).toString()))
+                        .andExpect(status().isOk()));
+    }
+}
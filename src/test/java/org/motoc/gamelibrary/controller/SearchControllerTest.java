@@ -0,0 +1,43 @@
+package org.motoc.gamelibrary.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.motoc.gamelibrary.support.EndpointFixture;
+import org.motoc.gamelibrary.support.EndpointTest;
+import org.motoc.gamelibrary.support.QueryBudget;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The search endpoints are served by the in memory indexes
+ */
+@EndpointTest
+class SearchControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    EndpointFixture fixture;
+
+    @BeforeEach
+    void createFixture() {
+        fixture.create();
+    }
+
+    @Test
+    void search() throws Exception {
+        QueryBudget.expect()
+                .verify(() -> mockMvc.perform(get("/search").param("q", "Endpoint")).andExpect(status().isOk()));
+    }
+
+    @Test
+    void suggest() throws Exception {
+        QueryBudget.expect()
+                .verify(() -> mockMvc.perform(get("/admin/suggest").param("q", "Endpoint"))
+                        .andExpect(status().isOk()));
+    }
+}
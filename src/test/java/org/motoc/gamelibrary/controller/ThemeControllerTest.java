@@ -0,0 +1,141 @@
+package org.motoc.gamelibrary.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.motoc.gamelibrary.business.ThemeService;
+import org.motoc.gamelibrary.model.Game;
+import org.motoc.gamelibrary.model.Theme;
+import org.motoc.gamelibrary.repository.GameRepository;
+import org.motoc.gamelibrary.repository.ThemeRepository;
+import org.motoc.gamelibrary.support.EndpointFixture;
+import org.motoc.gamelibrary.support.EndpointTest;
+import org.motoc.gamelibrary.support.QueryBudget;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Query budgets of the theme endpoints
+ */
+@EndpointTest
+class ThemeControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    EndpointFixture fixture;
+
+    @Autowired
+    ThemeService themeService;
+
+    @Autowired
+    ThemeRepository themeRepository;
+
+    @Autowired
+    GameRepository gameRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void createFixture() {
+        fixture.create();
+    }
+
+    @Test
+    void pagesWithoutQuery() throws Exception {
+        for (String path : List.of("/", "/user", "/admin"))
+            QueryBudget.expect()
+                    .verify(() -> mockMvc.perform(get(path)).andExpect(status().isOk()));
+    }
+
+    @Test
+    void count() throws Exception {
+        // invalidates the cached count
+        themeService.saveAll(List.of());
+
+        QueryBudget.expect().selects(1)
+                .verify(() -> mockMvc.perform(get("/admin/themes/count")).andExpect(status().isOk()));
+    }
+
+    @Test
+    void findById() throws Exception {
+        Theme theme = themeRepository.save(new Theme(0L, "Endpoint found theme"));
+
+        QueryBudget.expect().selects(1)
+                .verify(() -> mockMvc.perform(get("/admin/themes").param("id", String.valueOf(theme.getId())))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    void findPage() throws Exception {
+        QueryBudget.expect().selects(2)
+                .verify(() -> mockMvc.perform(get("/admin/themes/page").param("size", "2").param("sort", "name"))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    void findSlice() throws Exception {
+        QueryBudget.expect().selects(1)
+                .verify(() -> mockMvc.perform(get("/admin/themes/slice").param("size", "2").param("sort", "name"))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    void findKeysetPage() throws Exception {
+        QueryBudget.expect().selects(1)
+                .verify(() -> mockMvc.perform(get("/admin/themes/keyset").param("size", "2"))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    void save() throws Exception {
+        QueryBudget.expect().inserts(1)
+                .verify(() -> mockMvc.perform(post("/admin/themes").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Endpoint saved theme\"}"))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    void saveAll() throws Exception {
+        QueryBudget.expect().inserts(1)
+                .verify(() -> mockMvc.perform(post("/admin/themes/bulk").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"name\": \"Endpoint bulk theme 0\"}, {\"name\": \"Endpoint bulk theme 1\"}]"))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    void edit() throws Exception {
+        Theme theme = themeRepository.save(new Theme(0L, "Endpoint edited theme"));
+
+        QueryBudget.expect().selects(1).updates(1)
+                .verify(() -> mockMvc.perform(put("/admin/themes/" + theme.getId()).with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Endpoint renamed theme\"}"))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    void deleteThemeOfSeveralGames() throws Exception {
+        long themeId = transactionTemplate.execute(status -> {
+            Theme theme = themeRepository.save(new Theme(0L, "Endpoint deleted theme"));
+            gameRepository.findAllById(fixture.getGameIds()).forEach(game -> game.addTheme(theme));
+            return theme.getId();
+        });
+
+        // the join rows of the theme are deleted by bulk statements, however many games it has
+        QueryBudget.expect().deletes(3)
+                .verify(() -> mockMvc.perform(delete("/admin/themes/" + themeId).with(csrf()))
+                        .andExpect(status().isOk()));
+    }
+}
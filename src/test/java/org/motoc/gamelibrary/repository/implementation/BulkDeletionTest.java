@@ -0,0 +1,203 @@
+package org.motoc.gamelibrary.repository.implementation;
+
+import org.junit.jupiter.api.Test;
+import org.motoc.gamelibrary.model.*;
+import org.motoc.gamelibrary.model.enumeration.CreatorRole;
+import org.motoc.gamelibrary.model.enumeration.GameNatureEnum;
+import org.motoc.gamelibrary.repository.*;
+import org.motoc.gamelibrary.technical.exception.NotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Removes themes, categories, creators and images linked to games : the join rows go, the games stay, and removing
+ * again is a not found
+ */
+@SpringBootTest(properties = {"spring.datasource.generate-unique-name=true", "scheduling.enabled=false"})
+class BulkDeletionTest {
+
+    @Autowired
+    GameRepository gameRepository;
+
+    @Autowired
+    ThemeRepository themeRepository;
+
+    @Autowired
+    ThemeRepositoryCustom themeRepositoryCustom;
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    @Autowired
+    CategoryRepositoryCustom categoryRepositoryCustom;
+
+    @Autowired
+    CreatorRepository creatorRepository;
+
+    @Autowired
+    CreatorRepositoryCustom creatorRepositoryCustom;
+
+    @Autowired
+    ImageRepository imageRepository;
+
+    @Autowired
+    ImageRepositoryCustom imageRepositoryCustom;
+
+    @Autowired
+    ArticleRepository articleRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    /**
+     * Two games linked by the given link
+     */
+    private List<Long> games(String name, Consumer<Game> link) {
+        return transactionTemplate.execute(status -> List.of(game(name + " 0", link), game(name + " 1", link)));
+    }
+
+    private long game(String name, Consumer<Game> link) {
+        Game game = new Game();
+        game.setName(name);
+        game.setNature(GameNatureEnum.BOARD_GAME);
+        game.setMinNumberOfPlayer((short) 2);
+        game.setMaxNumberOfPlayer((short) 4);
+        game.setMinAge((short) 8);
+        link.accept(game);
+        return gameRepository.save(game).getId();
+    }
+
+    private int joinRows(String joinTable, String joinColumn, long id) {
+        return jdbcTemplate.queryForObject("select count(*) from " + joinTable + " where " + joinColumn + " = ?",
+                Integer.class, id);
+    }
+
+    private void remove(Consumer<Long> remove, long id) {
+        transactionTemplate.execute(status -> {
+            remove.accept(id);
+            return null;
+        });
+    }
+
+    private void assertRemoved(Consumer<Long> remove, long id, List<Long> gameIds) {
+        assertThat(gameRepository.findAllById(gameIds)).hasSize(gameIds.size());
+        assertThatThrownBy(() -> remove(remove, id)).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void removedThemesLeaveTheirGames() {
+        long id = themeRepository.save(new Theme(0L, "Bulk theme")).getId();
+        List<Long> gameIds = games("Bulk theme game", game -> game.addTheme(themeRepository.getOne(id)));
+        assertThat(joinRows("game_theme", "fk_theme", id)).isEqualTo(2);
+
+        remove(themeRepositoryCustom::remove, id);
+
+        assertThat(joinRows("game_theme", "fk_theme", id)).isZero();
+        assertThat(themeRepository.existsById(id)).isFalse();
+        assertRemoved(themeRepositoryCustom::remove, id, gameIds);
+    }
+
+    @Test
+    void removedCategoriesLeaveTheirGamesAndSubCategories() {
+        Category category = new Category();
+        category.setName("Bulk category");
+        category = categoryRepository.save(category);
+        long id = category.getId();
+        Category sub = new Category();
+        sub.setName("Bulk sub category");
+        sub.setParent(category);
+        long subId = categoryRepository.save(sub).getId();
+        List<Long> gameIds = games("Bulk category game", game -> game.addCategory(categoryRepository.getOne(id)));
+        assertThat(joinRows("game_category", "fk_category", id)).isEqualTo(2);
+
+        remove(categoryRepositoryCustom::remove, id);
+
+        assertThat(joinRows("game_category", "fk_category", id)).isZero();
+        assertThat(categoryRepository.existsById(id)).isFalse();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from category where id = ? and parent_id is null",
+                Integer.class, subId)).isEqualTo(1);
+        assertRemoved(categoryRepositoryCustom::remove, id, gameIds);
+    }
+
+    @Test
+    void removedCreatorsLeaveTheirGames() {
+        Creator creator = new Creator();
+        creator.setLastName("Bulk creator");
+        creator.setRole(CreatorRole.AUTHOR);
+        long id = creatorRepository.save(creator).getId();
+        List<Long> gameIds = games("Bulk creator game", game -> game.addCreator(creatorRepository.getOne(id)));
+        assertThat(joinRows("game_creator", "fk_creator", id)).isEqualTo(2);
+
+        remove(creatorRepositoryCustom::remove, id);
+
+        assertThat(joinRows("game_creator", "fk_creator", id)).isZero();
+        assertThat(creatorRepository.existsById(id)).isFalse();
+        assertRemoved(creatorRepositoryCustom::remove, id, gameIds);
+    }
+
+    @Test
+    void removedImagesLeaveTheirGamesAndArticles() {
+        Image image = new Image();
+        image.setFilePath("/bulk/image.png");
+        long id = imageRepository.save(image).getId();
+        List<Long> gameIds = games("Bulk image game", game -> game.addImage(imageRepository.getOne(id)));
+        long articleId = transactionTemplate.execute(status -> {
+            Article article = new Article();
+            article.setPublicationTime(LocalDateTime.now().minusDays(1));
+            article.setHtmlContent("<p>Bulk article</p>");
+            article.setShortDescription("Bulk article");
+            article.addImage(imageRepository.getOne(id));
+            return articleRepository.save(article).getId();
+        });
+        assertThat(joinRows("game_image", "fk_image", id)).isEqualTo(2);
+        assertThat(joinRows("article_image", "fk_image", id)).isEqualTo(1);
+
+        remove(imageRepositoryCustom::remove, id);
+
+        assertThat(joinRows("game_image", "fk_image", id)).isZero();
+        assertThat(joinRows("article_image", "fk_image", id)).isZero();
+        assertThat(imageRepository.existsById(id)).isFalse();
+        assertThat(articleRepository.existsById(articleId)).isTrue();
+        assertRemoved(imageRepositoryCustom::remove, id, gameIds);
+    }
+
+    /**
+     * The changes made in the transaction, before and after the removal, are persisted
+     */
+    @Test
+    void loadedEntitiesStayManaged() {
+        long id = themeRepository.save(new Theme(0L, "Bulk kept theme")).getId();
+        Category category = new Category();
+        category.setName("Bulk kept category");
+        long categoryId = categoryRepository.save(category).getId();
+        long gameId = games("Bulk kept game", game -> game.addTheme(themeRepository.getOne(id))).get(0);
+
+        transactionTemplate.execute(status -> {
+            Game game = gameRepository.findById(gameId).orElseThrow();
+            assertThat(game.getThemes()).hasSize(1);
+            categoryRepository.findById(categoryId).orElseThrow().setName("Bulk renamed before");
+
+            themeRepositoryCustom.remove(id);
+
+            assertThat(game.getThemes()).isEmpty();
+            game.setName("Bulk renamed game");
+            return null;
+        });
+
+        assertThat(categoryRepository.findById(categoryId).orElseThrow().getName()).isEqualTo("Bulk renamed before");
+        assertThat(gameRepository.findById(gameId).orElseThrow().getName()).isEqualTo("Bulk renamed game");
+        assertThat(joinRows("game_theme", "fk_theme", id)).isZero();
+    }
+}
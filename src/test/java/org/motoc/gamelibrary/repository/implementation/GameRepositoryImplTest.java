@@ -0,0 +1,175 @@
+package org.motoc.gamelibrary.repository.implementation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.motoc.gamelibrary.dto.GameSearchCriteria;
+import org.motoc.gamelibrary.dto.GameSummaryDto;
+import org.motoc.gamelibrary.model.*;
+import org.motoc.gamelibrary.model.enumeration.CreatorRole;
+import org.motoc.gamelibrary.model.enumeration.GameNatureEnum;
+import org.motoc.gamelibrary.repository.*;
+import org.motoc.gamelibrary.technical.exception.BadRequestException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Searches games of a publisher of their own, on a database of their own
+ */
+@SpringBootTest(properties = {"spring.datasource.generate-unique-name=true", "scheduling.enabled=false"})
+class GameRepositoryImplTest {
+
+    @Autowired
+    GameRepositoryCustom gameRepositoryCustom;
+
+    @Autowired
+    GameRepository gameRepository;
+
+    @Autowired
+    PublisherRepository publisherRepository;
+
+    @Autowired
+    ThemeRepository themeRepository;
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    @Autowired
+    CreatorRepository creatorRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    private static Long publisherId;
+    private static Long themeId;
+    private static Long categoryId;
+    private static Long creatorId;
+
+    /**
+     * Search A : 2 to 4 players from 8, board game, of the theme and category.
+     * Search B : 1 to 6 players from 3, toy, of the theme.
+     * Search C : 2 players or more from 12, board game, of the category and creator.
+     */
+    @BeforeEach
+    void createGames() {
+        if (publisherId != null)
+            return;
+        transactionTemplate.execute(status -> {
+            Publisher publisher = new Publisher();
+            publisher.setName("Search publisher");
+            publisher = publisherRepository.save(publisher);
+            Theme theme = themeRepository.save(new Theme(0L, "Search theme"));
+            Category category = new Category();
+            category.setName("Search category");
+            category = categoryRepository.save(category);
+            Creator creator = new Creator();
+            creator.setLastName("Search creator");
+            creator.setRole(CreatorRole.AUTHOR);
+            creator = creatorRepository.save(creator);
+
+            Game a = game(publisher, "Search A", 2, 4, 8, GameNatureEnum.BOARD_GAME);
+            a.addTheme(theme);
+            a.addCategory(category);
+            Game b = game(publisher, "Search B", 1, 6, 3, GameNatureEnum.TOY);
+            b.addTheme(theme);
+            Game c = game(publisher, "Search C", 2, 0, 12, GameNatureEnum.BOARD_GAME);
+            c.addCategory(category);
+            c.addCreator(creator);
+            gameRepository.save(a);
+            gameRepository.save(b);
+            gameRepository.save(c);
+
+            publisherId = publisher.getId();
+            themeId = theme.getId();
+            categoryId = category.getId();
+            creatorId = creator.getId();
+            return null;
+        });
+    }
+
+    private static Game game(Publisher publisher, String name, int minPlayers, int maxPlayers, int minAge,
+                             GameNatureEnum nature) {
+        Game game = new Game();
+        game.setName(name);
+        game.setMinNumberOfPlayer((short) minPlayers);
+        game.setMaxNumberOfPlayer((short) maxPlayers);
+        game.setMinAge((short) minAge);
+        game.setNature(nature);
+        game.setPublisher(publisher);
+        return game;
+    }
+
+    private GameSearchCriteria ofPublisher() {
+        GameSearchCriteria criteria = new GameSearchCriteria();
+        criteria.setPublisherId(publisherId);
+        return criteria;
+    }
+
+    private Slice<GameSummaryDto> search(GameSearchCriteria criteria, Pageable pageable) {
+        return gameRepositoryCustom.search(criteria, pageable);
+    }
+
+    private Iterable<String> names(GameSearchCriteria criteria) {
+        return () -> search(criteria, PageRequest.of(0, 10, Sort.by("name"))).stream()
+                .map(GameSummaryDto::getName).iterator();
+    }
+
+    @Test
+    void filtersAreCombined() {
+        assertThat(names(ofPublisher())).containsExactly("Search A", "Search B", "Search C");
+
+        GameSearchCriteria ofThemeAndNature = ofPublisher();
+        ofThemeAndNature.setThemeId(themeId);
+        ofThemeAndNature.setNature(GameNatureEnum.BOARD_GAME);
+        assertThat(names(ofThemeAndNature)).containsExactly("Search A");
+
+        // a max of 0 has no upper bound
+        GameSearchCriteria ofFivePlayers = ofPublisher();
+        ofFivePlayers.setMinNumberOfPlayer((short) 5);
+        ofFivePlayers.setMaxNumberOfPlayer((short) 5);
+        assertThat(names(ofFivePlayers)).containsExactly("Search B", "Search C");
+
+        ofFivePlayers.setCategoryId(categoryId);
+        ofFivePlayers.setCreatorId(creatorId);
+        assertThat(names(ofFivePlayers)).containsExactly("Search C");
+
+        GameSearchCriteria ofYoungPlayers = ofPublisher();
+        ofYoungPlayers.setMaxAge((short) 10);
+        ofYoungPlayers.setThemeId(themeId);
+        assertThat(names(ofYoungPlayers)).containsExactly("Search A", "Search B");
+    }
+
+    @Test
+    void emptyCriteriaMatchEveryGame() {
+        assertThat(search(new GameSearchCriteria(), Pageable.unpaged())).hasSize((int) gameRepository.count());
+    }
+
+    @Test
+    void slicesFollowTheSort() {
+        Slice<GameSummaryDto> first = search(ofPublisher(), PageRequest.of(0, 2, Sort.by("name").descending()));
+        assertThat(first.map(GameSummaryDto::getName)).containsExactly("Search C", "Search B");
+        assertThat(first.hasNext()).isTrue();
+
+        Slice<GameSummaryDto> last = search(ofPublisher(), first.nextPageable());
+        assertThat(last.map(GameSummaryDto::getName)).containsExactly("Search A");
+        assertThat(last.hasNext()).isFalse();
+    }
+
+    @Test
+    void unknownSortKeysAreRejected() {
+        assertThatThrownBy(() -> search(ofPublisher(), PageRequest.of(0, 2, Sort.by("unknown"))))
+                .isInstanceOf(BadRequestException.class);
+        // an attribute of the game, but not of the summary
+        assertThatThrownBy(() -> search(ofPublisher(), PageRequest.of(0, 2, Sort.by("name", "description"))))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> search(ofPublisher(), PageRequest.of(0, 2, Sort.by("publisher.name"))))
+                .isInstanceOf(BadRequestException.class);
+    }
+}
@@ -0,0 +1,160 @@
+package org.motoc.gamelibrary.support;
+
+import lombok.Getter;
+import org.motoc.gamelibrary.business.index.LoanStatusCache;
+import org.motoc.gamelibrary.model.*;
+import org.motoc.gamelibrary.model.enumeration.CreatorRole;
+import org.motoc.gamelibrary.model.enumeration.GameNatureEnum;
+import org.motoc.gamelibrary.model.enumeration.GeneralStateEnum;
+import org.motoc.gamelibrary.model.enumeration.LoanStatusEnum;
+import org.motoc.gamelibrary.repository.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Games with several themes, creators, categories and copies, copies with several loans : a statement issued once
+ * per child, instead of once per request, changes the counts of the endpoints.
+ * <p>Created once per application context, the endpoint tests must leave these entities as they found them. The
+ * loans are recent enough not to be archived.</p>
+ *
+ * @author RouzicJ
+ */
+@TestComponent
+public class EndpointFixture {
+
+    public static final String MEMBER = "endpoint-member";
+
+    public static final int GAMES = 3;
+
+    public static final int CHILDREN = 2;
+
+    private static final LocalDateTime FIRST_LOAN = LocalDate.now().minusDays(30).atStartOfDay();
+
+    private final PublisherRepository publisherRepository;
+
+    private final ThemeRepository themeRepository;
+
+    private final CreatorRepository creatorRepository;
+
+    private final CategoryRepository categoryRepository;
+
+    private final GameRepository gameRepository;
+
+    private final GameCopyRepository gameCopyRepository;
+
+    private final LoanRepository loanRepository;
+
+    private final LoanStatusRepository loanStatusRepository;
+
+    private final LoanStatusCache loanStatusCache;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Getter
+    private final List<Long> themeIds = new ArrayList<>();
+
+    @Getter
+    private final List<Long> gameIds = new ArrayList<>();
+
+    @Getter
+    private final List<Long> copyIds = new ArrayList<>();
+
+    @Getter
+    private final List<Long> loanIds = new ArrayList<>();
+
+    @Getter
+    private long publisherId;
+
+    private boolean created;
+
+    @Autowired
+    public EndpointFixture(PublisherRepository publisherRepository, ThemeRepository themeRepository,
+                           CreatorRepository creatorRepository, CategoryRepository categoryRepository,
+                           GameRepository gameRepository, GameCopyRepository gameCopyRepository,
+                           LoanRepository loanRepository, LoanStatusRepository loanStatusRepository,
+                           LoanStatusCache loanStatusCache, TransactionTemplate transactionTemplate) {
+        this.publisherRepository = publisherRepository;
+        this.themeRepository = themeRepository;
+        this.creatorRepository = creatorRepository;
+        this.categoryRepository = categoryRepository;
+        this.gameRepository = gameRepository;
+        this.gameCopyRepository = gameCopyRepository;
+        this.loanRepository = loanRepository;
+        this.loanStatusRepository = loanStatusRepository;
+        this.loanStatusCache = loanStatusCache;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Creates the entities, unless a previous test did
+     */
+    public synchronized EndpointFixture create() {
+        if (created)
+            return this;
+        transactionTemplate.execute(status -> {
+            Publisher publisher = new Publisher();
+            publisher.setName("Endpoint publisher");
+            publisherId = publisherRepository.save(publisher).getId();
+
+            List<Theme> themes = new ArrayList<>();
+            List<Creator> creators = new ArrayList<>();
+            List<Category> categories = new ArrayList<>();
+            for (int i = 0; i < CHILDREN; i++) {
+                themes.add(themeRepository.save(new Theme(0L, "Endpoint theme " + i)));
+                Creator creator = new Creator();
+                creator.setLastName("Endpoint creator " + i);
+                creator.setRole(CreatorRole.AUTHOR);
+                creators.add(creatorRepository.save(creator));
+                Category category = new Category();
+                category.setName("Endpoint category " + i);
+                categories.add(categoryRepository.save(category));
+            }
+            themes.forEach(theme -> themeIds.add(theme.getId()));
+
+            LoanStatus returned = loanStatusRepository.getOne(loanStatusCache.idOf(LoanStatusEnum.RETURNED));
+            for (int i = 0; i < GAMES; i++) {
+                Game game = new Game();
+                game.setName("Endpoint game " + i);
+                game.setNature(GameNatureEnum.BOARD_GAME);
+                game.setMinNumberOfPlayer((short) 2);
+                game.setMaxNumberOfPlayer((short) 4);
+                game.setMinAge((short) 8);
+                game.setPublisher(publisher);
+                themes.forEach(game::addTheme);
+                creators.forEach(game::addCreator);
+                categories.forEach(game::addCategory);
+                gameIds.add(gameRepository.save(game).getId());
+
+                for (int j = 0; j < CHILDREN; j++) {
+                    GameCopy copy = new GameCopy();
+                    copy.setObjectCode(String.valueOf(70000 + i * CHILDREN + j));
+                    copy.setRegisterDate(LocalDate.now());
+                    copy.setWearCondition("Neuf");
+                    copy.setGeneralState(GeneralStateEnum.IN_ACTIVITY);
+                    copy.setLoanable(true);
+                    copy.setGame(game);
+                    copyIds.add(gameCopyRepository.save(copy).getId());
+
+                    for (int k = 0; k < CHILDREN; k++) {
+                        Loan loan = new Loan();
+                        loan.setUserUuid(MEMBER);
+                        loan.setLoanStartTime(FIRST_LOAN.plusDays(k * 7));
+                        loan.setLoanEndTime(FIRST_LOAN.plusDays(k * 7 + 2));
+                        loan.setLoanStatus(returned);
+                        loan.setGameCopy(copy);
+                        loanIds.add(loanRepository.save(loan).getId());
+                    }
+                }
+            }
+            return null;
+        });
+        created = true;
+        return this;
+    }
+}
@@ -0,0 +1,29 @@
+package org.motoc.gamelibrary.support;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Endpoint tests through MockMvc, as a member who is also an admin, on a database of their own filled with the
+ * {@link EndpointFixture}.
+ * <p>Keycloak is replaced by the default security of spring boot, writes then need a csrf token. The background jobs
+ * are disabled, so that the only statements issued are the ones of the request.</p>
+ *
+ * @author RouzicJ
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@SpringBootTest(properties = {"spring.datasource.generate-unique-name=true", "scheduling.enabled=false",
+        "keycloak.enabled=false"})
+@AutoConfigureMockMvc
+@Import(EndpointFixture.class)
+@WithMockUser(username = EndpointFixture.MEMBER, roles = {"USER", "ADMIN"})
+public @interface EndpointTest {
+}
@@ -0,0 +1,78 @@
+package org.motoc.gamelibrary.support;
+
+import org.motoc.gamelibrary.technical.statistics.QueryStatistics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+
+/**
+ * Asserts the exact number of SELECT, INSERT, UPDATE and DELETE statements hibernate issues during a call, on the
+ * calling thread. A kind left unset is expected to be absent. A JDBC batch counts as one statement, other
+ * statements, such as sequence calls, are not checked.
+ * <p>e.g. {@code QueryBudget.expect().selects(2).updates(1).verify(() -> mockMvc.perform(put("/admin/themes/4")))}
+ * </p>
+ *
+ * @author RouzicJ
+ */
+public final class QueryBudget {
+
+    private static final QueryStatistics.Kind[] CHECKED = {QueryStatistics.Kind.SELECT, QueryStatistics.Kind.INSERT,
+            QueryStatistics.Kind.UPDATE, QueryStatistics.Kind.DELETE};
+
+    private final Map<QueryStatistics.Kind, Integer> expected = new EnumMap<>(QueryStatistics.Kind.class);
+
+    private QueryBudget() {
+        for (QueryStatistics.Kind kind : CHECKED)
+            expected.put(kind, 0);
+    }
+
+    public static QueryBudget expect() {
+        return new QueryBudget();
+    }
+
+    public QueryBudget selects(int count) {
+        expected.put(QueryStatistics.Kind.SELECT, count);
+        return this;
+    }
+
+    public QueryBudget inserts(int count) {
+        expected.put(QueryStatistics.Kind.INSERT, count);
+        return this;
+    }
+
+    public QueryBudget updates(int count) {
+        expected.put(QueryStatistics.Kind.UPDATE, count);
+        return this;
+    }
+
+    public QueryBudget deletes(int count) {
+        expected.put(QueryStatistics.Kind.DELETE, count);
+        return this;
+    }
+
+    /**
+     * Runs the call and checks its statements
+     *
+     * @return what the call returned
+     * @throws AssertionError listing the statements issued, if their counts are not the expected ones
+     */
+    public <T> T verify(Callable<T> call) throws Exception {
+        T result;
+        QueryStatistics statistics;
+        try (QueryStatistics counting = QueryStatistics.start()) {
+            result = call.call();
+            statistics = counting;
+        }
+        Map<QueryStatistics.Kind, Integer> actual = new EnumMap<>(QueryStatistics.Kind.class);
+        for (QueryStatistics.Kind kind : CHECKED)
+            actual.put(kind, statistics.statements(kind));
+        if (!actual.equals(expected))
+            throw new AssertionError("Expected " + expected + " statements but got " + actual + " :\n" +
+                    statistics.shapes().entrySet().stream()
+                            .map(shape -> shape.getValue() + " x " + shape.getKey())
+                            .collect(Collectors.joining("\n")));
+        return result;
+    }
+}
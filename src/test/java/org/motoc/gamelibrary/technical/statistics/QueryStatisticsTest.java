@@ -0,0 +1,50 @@
+package org.motoc.gamelibrary.technical.statistics;
+
+import org.junit.jupiter.api.Test;
+import org.motoc.gamelibrary.model.Theme;
+import org.motoc.gamelibrary.repository.ThemeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The statistics see the statements and the entities loaded by hibernate, lazy loads included
+ */
+@SpringBootTest
+class QueryStatisticsTest {
+
+    @Autowired
+    ThemeRepository themeRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    void countsLazyLoads() {
+        try (QueryStatistics outer = QueryStatistics.start()) {
+            int themes;
+            try (QueryStatistics inner = QueryStatistics.start()) {
+                themes = transactionTemplate.execute(status -> {
+                    List<Theme> all = themeRepository.findAll();
+                    all.forEach(theme -> theme.getGames().size());
+                    return all.size();
+                });
+
+                assertThat(themes).isGreaterThan(1);
+                // one select of the themes, then one per theme for its games
+                assertThat(inner.statements(QueryStatistics.Kind.SELECT)).isEqualTo(1 + themes);
+                assertThat(inner.statements()).isEqualTo(inner.statements(QueryStatistics.Kind.SELECT));
+                assertThat(inner.entitiesLoaded()).isGreaterThanOrEqualTo(themes);
+                assertThat(inner.shapes().values().iterator().next()).isEqualTo(themes);
+            }
+            themeRepository.count();
+
+            assertThat(outer.statements()).isEqualTo(2 + themes);
+        }
+        themeRepository.count();
+    }
+}